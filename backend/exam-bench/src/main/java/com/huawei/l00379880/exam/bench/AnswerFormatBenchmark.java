@@ -0,0 +1,94 @@
+package com.huawei.l00379880.exam.bench;
+
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.judge.AnswerRecordCodec;
+import com.huawei.l00379880.exam.judge.ExamAnswerKey;
+import com.huawei.l00379880.exam.service.impl.ExamServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单独测量作答详情的编码、解码，以及ExamServiceImpl中私有的replaceLastSeparator
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnswerFormatBenchmark {
+
+    private ExamServiceImpl examService;
+
+    private ExamAnswerKey answerKey;
+
+    private HashMap<String, List<String>> answersMap;
+
+    private byte[] answerData;
+
+    private String legacyAnswer;
+
+    private String separatorEnded;
+
+    private MethodHandle replaceLastSeparator;
+
+    @Setup
+    public void setup() throws Exception {
+        ExamFixtures fixtures = new ExamFixtures();
+        examService = fixtures.newExamService();
+        Field answerKeyCacheField = ExamServiceImpl.class.getDeclaredField("answerKeyCache");
+        answerKeyCacheField.setAccessible(true);
+        answerKey = ((AnswerKeyCache) answerKeyCacheField.get(examService)).get(fixtures.exam.getExamId());
+        answersMap = fixtures.answerSheet(0.7);
+
+        ExamRecord record = examService.grade(fixtures.user.getUserId(), fixtures.exam.getExamId(), answersMap);
+        fixtures.recordMap.put(record.getExamRecordId(), record);
+        answerData = record.getAnswerData();
+        legacyAnswer = RecordDetailBenchmark.toLegacy(examService.getRecordDetail(record.getExamRecordId()));
+        separatorEnded = legacyAnswer + "$";
+
+        Method method = ExamServiceImpl.class.getDeclaredMethod("replaceLastSeparator", String.class);
+        method.setAccessible(true);
+        replaceLastSeparator = MethodHandles.lookup().unreflect(method);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        AnswerRecordCodec.Encoder encoder = AnswerRecordCodec.encoder(answerKey);
+        for (Map.Entry<String, List<String>> entry : answersMap.entrySet()) {
+            int index = answerKey.indexOf(entry.getKey());
+            encoder.add(index, answerKey.isCorrect(index, entry.getValue()), entry.getValue());
+        }
+        return encoder.toBytes();
+    }
+
+    @Benchmark
+    public Map<String, String> decodeBinary() {
+        Map<String, String> resultsMap = new HashMap<>();
+        AnswerRecordCodec.decode(answerKey, answerData, new HashMap<>(), resultsMap);
+        return resultsMap;
+    }
+
+    @Benchmark
+    public Map<String, String> decodeLegacy() {
+        Map<String, String> resultsMap = new HashMap<>();
+        AnswerRecordCodec.decodeLegacy(legacyAnswer, new HashMap<>(), resultsMap);
+        return resultsMap;
+    }
+
+    @Benchmark
+    public String replaceLastSeparator() throws Throwable {
+        return (String) replaceLastSeparator.invokeExact(examService, separatorEnded);
+    }
+}
@@ -0,0 +1,90 @@
+package com.huawei.l00379880.exam.bench;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.entity.User;
+import com.huawei.l00379880.exam.interceptor.LoginInterceptor;
+import com.huawei.l00379880.exam.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个需要登录的请求都会经过拦截器校验一次token
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+
+    /**
+     * 和application.yml中的配置保持一致
+     */
+    static final String AUTH_IGNORE_URIS = "/api/user/register,/api/user/login";
+
+    private User user;
+
+    private String token;
+
+    private LoginInterceptor loginInterceptor;
+
+    @Setup
+    public void setup() {
+        user = new User();
+        user.setUserId(IdUtil.simpleUUID());
+        user.setUserUsername("bench");
+        user.setUserAvatar("avatar.jpg");
+        token = JwtUtils.genJsonWebToken(user);
+        loginInterceptor = new LoginInterceptor();
+        ReflectionTestUtils.setField(loginInterceptor, "authIgnoreUris", AUTH_IGNORE_URIS);
+        loginInterceptor.init();
+    }
+
+    @Benchmark
+    public String genJsonWebToken() {
+        return JwtUtils.genJsonWebToken(user);
+    }
+
+    /**
+     * 已经校验过的token，走缓存
+     */
+    @Benchmark
+    public Claims checkJWT() {
+        return JwtUtils.checkJWT(token);
+    }
+
+    /**
+     * 第一次见到的token，完整校验签名
+     */
+    @Benchmark
+    public Claims parseJWT() {
+        return JwtUtils.parseJWT(token);
+    }
+
+    /**
+     * 携带token访问需要登录的接口
+     */
+    @Benchmark
+    public boolean preHandleWithToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exam/list");
+        request.addHeader("Access-Token", token);
+        return loginInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+
+    /**
+     * 访问不需要登录的接口
+     */
+    @Benchmark
+    public boolean preHandleIgnored() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user/login");
+        return loginInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+}
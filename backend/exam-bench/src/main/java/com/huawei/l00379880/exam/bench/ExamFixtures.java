@@ -0,0 +1,207 @@
+package com.huawei.l00379880.exam.bench;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.entity.*;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.enums.QuestionEnum;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.leaderboard.ExamLeaderboard;
+import com.huawei.l00379880.exam.repository.*;
+import com.huawei.l00379880.exam.service.impl.ExamServiceImpl;
+import com.huawei.l00379880.exam.snapshot.QuestionSnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.*;
+
+/**
+ * 数据用固定的随机种子生成，每次运行完全一样，方便前后对比
+ *
+ * @author liangshanguang
+ */
+final class ExamFixtures {
+
+    static final int BANK_SIZE = 10000;
+
+    static final int RADIO_COUNT = 40;
+
+    static final int CHECK_COUNT = 30;
+
+    static final int JUDGE_COUNT = 30;
+
+    private final Random random = new Random(42);
+
+    final User user;
+
+    final Exam exam;
+
+    final Map<String, Question> questionMap = new LinkedHashMap<>();
+
+    final Map<String, QuestionOption> optionMap = new HashMap<>();
+
+    final Map<String, List<QuestionAnswer>> questionAnswerMap = new HashMap<>();
+
+    final List<ExamQuestion> examQuestions = new ArrayList<>();
+
+    /**
+     * 按题型分好的题库
+     */
+    private final Map<Integer, List<Question>> bankByType = new HashMap<>();
+
+    /**
+     * 考试记录，getRecordDetail从这里取
+     */
+    final Map<String, ExamRecord> recordMap = new HashMap<>();
+
+    ExamFixtures() {
+        user = new User();
+        user.setUserId(IdUtil.simpleUUID());
+        user.setUserUsername("bench");
+        user.setUserAvatar("avatar.jpg");
+        user.setUserRoleId(3);
+
+        for (int i = 0; i < BANK_SIZE; i++) {
+            QuestionEnum type = QuestionEnum.values()[i % 3];
+            addQuestion(type, type == QuestionEnum.JUDGE ? 2 : 4);
+        }
+
+        exam = new Exam();
+        exam.setExamId(IdUtil.simpleUUID());
+        exam.setExamName("基准测试试卷");
+        exam.setExamScoreRadio(1);
+        exam.setExamScoreCheck(2);
+        exam.setExamScoreJudge(1);
+        exam.setExamCreatorId(user.getUserId());
+        exam.setExamStatus(ExamStatusEnum.PUBLISHED.getCode());
+        exam.setExamQuestionIdsRadio(pick(QuestionEnum.RADIO, RADIO_COUNT));
+        exam.setExamQuestionIdsCheck(pick(QuestionEnum.CHECK, CHECK_COUNT));
+        exam.setExamQuestionIdsJudge(pick(QuestionEnum.JUDGE, JUDGE_COUNT));
+        exam.setExamQuestionIds(exam.getExamQuestionIdsRadio() + "-" + exam.getExamQuestionIdsCheck() + "-" + exam.getExamQuestionIdsJudge());
+    }
+
+    private void addQuestion(QuestionEnum type, int optionCount) {
+        Question question = new Question();
+        question.setQuestionId(IdUtil.simpleUUID());
+        question.setQuestionName("题目" + questionMap.size());
+        question.setQuestionTypeId(type.getId());
+        StringJoiner optionIds = new StringJoiner("-");
+        StringJoiner answerIds = new StringJoiner("-");
+        List<QuestionAnswer> questionAnswers = new ArrayList<>();
+        // 单选和判断只有一个答案，多选至少两个
+        int answerBits = 1 << random.nextInt(optionCount);
+        while (type == QuestionEnum.CHECK && Integer.bitCount(answerBits) < 2) {
+            answerBits = random.nextInt(1 << optionCount);
+        }
+        for (int i = 0; i < optionCount; i++) {
+            QuestionOption option = new QuestionOption();
+            option.setQuestionOptionId(IdUtil.simpleUUID());
+            option.setQuestionOptionContent("选项" + (char) ('A' + i));
+            optionMap.put(option.getQuestionOptionId(), option);
+            optionIds.add(option.getQuestionOptionId());
+            boolean answer = (answerBits & (1 << i)) != 0;
+            if (answer) {
+                answerIds.add(option.getQuestionOptionId());
+            }
+            QuestionAnswer questionAnswer = new QuestionAnswer();
+            questionAnswer.setQuestionId(question.getQuestionId());
+            questionAnswer.setQuestionOptionId(option.getQuestionOptionId());
+            questionAnswer.setSortOrder(i);
+            questionAnswer.setAnswer(answer);
+            questionAnswers.add(questionAnswer);
+        }
+        question.setQuestionOptionIds(optionIds.toString());
+        question.setQuestionAnswerOptionIds(answerIds.toString());
+        questionMap.put(question.getQuestionId(), question);
+        questionAnswerMap.put(question.getQuestionId(), questionAnswers);
+        bankByType.computeIfAbsent(type.getId(), k -> new ArrayList<>()).add(question);
+    }
+
+    /**
+     * 从题库中不重复地随机抽题，同时生成考试和题目的关联
+     */
+    private String pick(QuestionEnum type, int count) {
+        List<Question> bank = new ArrayList<>(bankByType.get(type.getId()));
+        Collections.shuffle(bank, random);
+        StringJoiner questionIds = new StringJoiner("-");
+        for (int i = 0; i < count; i++) {
+            Question question = bank.get(i);
+            questionIds.add(question.getQuestionId());
+            ExamQuestion examQuestion = new ExamQuestion();
+            examQuestion.setExamId(exam.getExamId());
+            examQuestion.setQuestionId(question.getQuestionId());
+            examQuestion.setQuestionTypeId(type.getId());
+            examQuestion.setSortOrder(i);
+            examQuestions.add(examQuestion);
+        }
+        return questionIds.toString();
+    }
+
+    /**
+     * 生成一份答卷，每道题以correctRate的概率答对，否则随机选一个选项
+     */
+    HashMap<String, List<String>> answerSheet(double correctRate) {
+        HashMap<String, List<String>> answersMap = new HashMap<>();
+        for (ExamQuestion examQuestion : examQuestions) {
+            List<QuestionAnswer> questionAnswers = questionAnswerMap.get(examQuestion.getQuestionId());
+            List<String> optionIdList = new ArrayList<>();
+            if (random.nextDouble() < correctRate) {
+                for (QuestionAnswer questionAnswer : questionAnswers) {
+                    if (questionAnswer.getAnswer()) {
+                        optionIdList.add(questionAnswer.getQuestionOptionId());
+                    }
+                }
+            } else {
+                optionIdList.add(questionAnswers.get(random.nextInt(questionAnswers.size())).getQuestionOptionId());
+            }
+            answersMap.put(examQuestion.getQuestionId(), optionIdList);
+        }
+        return answersMap;
+    }
+
+    /**
+     * @return 所有仓库都用内存数据实现的考试服务
+     */
+    ExamServiceImpl newExamService() {
+        ExamRepository examRepository = RepositoryStubs.of(ExamRepository.class)
+                .on("findById", args -> Optional.ofNullable(exam.getExamId().equals(args[0]) ? exam : null))
+                .build();
+        ExamQuestionRepository examQuestionRepository = RepositoryStubs.of(ExamQuestionRepository.class)
+                .on("findByExamIdOrderByQuestionTypeIdAscSortOrderAsc", args -> exam.getExamId().equals(args[0]) ? examQuestions : Collections.emptyList())
+                .build();
+        QuestionAnswerRepository questionAnswerRepository = RepositoryStubs.of(QuestionAnswerRepository.class)
+                .on("findByQuestionIdInOrderBySortOrderAsc", args -> {
+                    List<QuestionAnswer> questionAnswers = new ArrayList<>();
+                    for (Object questionId : (Collection<?>) args[0]) {
+                        questionAnswers.addAll(questionAnswerMap.getOrDefault(questionId, Collections.emptyList()));
+                    }
+                    return questionAnswers;
+                })
+                .on("findByQuestionIdOrderBySortOrderAsc", args -> questionAnswerMap.getOrDefault(args[0], Collections.emptyList()))
+                .build();
+        ExamRecordRepository examRecordRepository = RepositoryStubs.of(ExamRecordRepository.class)
+                // 判分的结果不保存，否则跑久了内存会一直涨
+                .on("save", args -> args[0])
+                .on("findById", args -> Optional.ofNullable(recordMap.get(args[0])))
+                // 排行榜从空的开始，判分后放入的成绩只有一个考生，内存不会涨
+                .on("findLeaderboardEntryByExamId", args -> Collections.emptyList())
+                .build();
+        // 题目没有快照，判分用的是关联表中的选项，和发布前的考试一样
+        QuestionSnapshotStore questionSnapshotStore = new QuestionSnapshotStore(
+                RepositoryStubs.of(QuestionSnapshotRepository.class).on("findByExamId", args -> Collections.emptyList()).build(),
+                null, null, null, null);
+        AnswerKeyCache answerKeyCache = new AnswerKeyCache(examRepository, examQuestionRepository, questionAnswerRepository, questionSnapshotStore);
+        return new ExamServiceImpl(
+                RepositoryStubs.of(QuestionRepository.class).build(),
+                RepositoryStubs.of(UserRepository.class).build(),
+                RepositoryStubs.of(QuestionOptionRepository.class).build(),
+                examQuestionRepository,
+                questionAnswerRepository,
+                examRepository,
+                examRecordRepository,
+                null,
+                answerKeyCache,
+                questionSnapshotStore,
+                null,
+                new ExamLeaderboard(examRecordRepository, examRepository),
+                new SimpleMeterRegistry());
+    }
+}
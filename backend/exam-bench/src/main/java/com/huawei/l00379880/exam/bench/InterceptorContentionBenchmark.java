@@ -0,0 +1,81 @@
+package com.huawei.l00379880.exam.bench;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.entity.User;
+import com.huawei.l00379880.exam.interceptor.LoginInterceptor;
+import com.huawei.l00379880.exam.utils.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1000个线程同时调用preHandle，每个线程复用自己的请求对象，只测拦截器本身。
+ * 用-t 1再跑一次做对比：总吞吐量随CPU核数线性增长、单线程的耗时没有变长，说明拦截器里没有共享的锁。
+ * 原来每个请求打印三行System.out，多线程时会在PrintStream的锁上排队
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1000)
+public class InterceptorContentionBenchmark {
+
+    /**
+     * 所有线程共享的拦截器，和线上一样是单例
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        LoginInterceptor loginInterceptor;
+
+        @Setup
+        public void setup() {
+            loginInterceptor = new LoginInterceptor();
+            ReflectionTestUtils.setField(loginInterceptor, "authIgnoreUris", AuthBenchmark.AUTH_IGNORE_URIS + ",/api/file/**");
+            loginInterceptor.init();
+        }
+    }
+
+    /**
+     * 每个线程是一个登录过的考生
+     */
+    @State(Scope.Thread)
+    public static class Candidate {
+        MockHttpServletRequest authorizedRequest;
+        MockHttpServletRequest ignoredRequest;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setup() {
+            User user = new User();
+            user.setUserId(IdUtil.simpleUUID());
+            user.setUserUsername("bench_" + user.getUserId());
+            user.setUserAvatar("avatar.jpg");
+            authorizedRequest = new MockHttpServletRequest("GET", "/api/exam/finish/status/ticket");
+            authorizedRequest.addHeader("Access-Token", JwtUtils.genJsonWebToken(user));
+            ignoredRequest = new MockHttpServletRequest("GET", "/api/file/download/get");
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    /**
+     * 携带token的请求，token已经校验过
+     */
+    @Benchmark
+    public boolean authorized(Shared shared, Candidate candidate) throws Exception {
+        return shared.loginInterceptor.preHandle(candidate.authorizedRequest, candidate.response, null);
+    }
+
+    /**
+     * 匹配Ant风格路径模式、不需要校验的请求
+     */
+    @Benchmark
+    public boolean ignoredByPattern(Shared shared, Candidate candidate) throws Exception {
+        return shared.loginInterceptor.preHandle(candidate.ignoredRequest, candidate.response, null);
+    }
+}
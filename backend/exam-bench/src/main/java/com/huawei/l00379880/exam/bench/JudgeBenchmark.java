@@ -0,0 +1,65 @@
+package com.huawei.l00379880.exam.bench;
+
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.service.impl.ExamServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100道题的试卷判分，答卷轮流使用，避免每次都判同一份
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JudgeBenchmark {
+
+    private static final int SHEET_COUNT = 64;
+
+    private ExamFixtures fixtures;
+
+    private ExamServiceImpl examService;
+
+    private List<HashMap<String, List<String>>> sheets;
+
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        fixtures = new ExamFixtures();
+        examService = fixtures.newExamService();
+        sheets = new ArrayList<>(SHEET_COUNT);
+        for (int i = 0; i < SHEET_COUNT; i++) {
+            sheets.add(fixtures.answerSheet(0.7));
+        }
+    }
+
+    private HashMap<String, List<String>> nextSheet() {
+        cursor = (cursor + 1) & (SHEET_COUNT - 1);
+        return sheets.get(cursor);
+    }
+
+    /**
+     * 判分并保存考试记录
+     */
+    @Benchmark
+    public ExamRecord judge() {
+        return examService.judge(fixtures.user.getUserId(), fixtures.exam.getExamId(), nextSheet());
+    }
+
+    /**
+     * 只判分不保存，异步交卷的判分线程走的是这里
+     */
+    @Benchmark
+    public ExamRecord grade() {
+        return examService.grade(fixtures.user.getUserId(), fixtures.exam.getExamId(), nextSheet());
+    }
+}
@@ -0,0 +1,103 @@
+package com.huawei.l00379880.exam.bench;
+
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.leaderboard.ExamLeaderboard;
+import com.huawei.l00379880.exam.leaderboard.LeaderboardEntry;
+import com.huawei.l00379880.exam.repository.ExamRecordRepository;
+import com.huawei.l00379880.exam.repository.ExamRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一场考试有users个考生已经交卷，分数在0~100之间。排行榜的耗时应该随考生数对数增长，
+ * 对比的是每次刷新都把所有成绩排一遍序
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    private static final String EXAM_ID = "bench_exam";
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    private List<LeaderboardEntry> entryList;
+
+    private ExamLeaderboard examLeaderboard;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        entryList = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            entryList.add(new LeaderboardEntry("bench_user_" + i, random.nextInt(101), random.nextInt(90 * 60), new Date(now - random.nextInt(3600 * 1000))));
+        }
+        ExamRecordRepository examRecordRepository = RepositoryStubs.of(ExamRecordRepository.class)
+                .on("findLeaderboardEntryByExamId", args -> entryList)
+                .build();
+        // 只有已发布的考试的排行榜才常驻内存
+        Exam exam = new Exam();
+        exam.setExamId(EXAM_ID);
+        exam.setExamStatus(ExamStatusEnum.PUBLISHED.getCode());
+        ExamRepository examRepository = RepositoryStubs.of(ExamRepository.class)
+                .on("findById", args -> Optional.ofNullable(EXAM_ID.equals(args[0]) ? exam : null))
+                .build();
+        examLeaderboard = new ExamLeaderboard(examRecordRepository, examRepository);
+        // 触发加载
+        examLeaderboard.size(EXAM_ID);
+    }
+
+    /**
+     * 一个考生交卷，多数情况下成绩没有变好，排行榜不变
+     */
+    @Benchmark
+    @Threads(4)
+    public void offer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ExamRecord examRecord = new ExamRecord();
+        examRecord.setExamId(EXAM_ID);
+        examRecord.setExamJoinerId("bench_user_" + random.nextInt(users));
+        examRecord.setExamJoinScore(random.nextInt(101));
+        examRecord.setExamTimeCost(random.nextInt(90 * 60));
+        examRecord.setExamJoinDate(new Date());
+        examLeaderboard.offer(examRecord);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int rankOf() {
+        return examLeaderboard.rankOf(EXAM_ID, "bench_user_" + ThreadLocalRandom.current().nextInt(users));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<LeaderboardEntry> top10() {
+        return examLeaderboard.top(EXAM_ID, 10);
+    }
+
+    /**
+     * 没有排行榜时每次刷新都要把所有成绩排一遍序
+     */
+    @Benchmark
+    public List<LeaderboardEntry> sortAll() {
+        List<LeaderboardEntry> sorted = new ArrayList<>(entryList);
+        sorted.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+        return sorted.subList(0, 10);
+    }
+}
@@ -0,0 +1,121 @@
+package com.huawei.l00379880.exam.bench;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.Question;
+import com.huawei.l00379880.exam.mapper.ExamMapper;
+import com.huawei.l00379880.exam.mapper.QuestionMapper;
+import com.huawei.l00379880.exam.vo.ExamVo;
+import com.huawei.l00379880.exam.vo.QuestionVo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 考试列表和题目列表每一行都要做一次实体到VO的转换，这里比较一页数据两种方式的耗时。
+ * BeanUtils虽然缓存了PropertyDescriptor，每个属性仍然要反射调用getter和setter并判断类型是否兼容
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    /**
+     * 一页的行数
+     */
+    @Param({"20", "100"})
+    public int rows;
+
+    private List<Exam> examList;
+
+    private List<Question> questionList;
+
+    @Setup
+    public void setup() {
+        Date now = new Date();
+        examList = new ArrayList<>(rows);
+        questionList = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Exam exam = new Exam();
+            exam.setExamId(IdUtil.simpleUUID());
+            exam.setExamName("考试" + i);
+            exam.setExamAvatar("avatar.jpg");
+            exam.setExamDescription("考试描述" + i);
+            exam.setExamCreatorId(IdUtil.simpleUUID());
+            exam.setExamScore(100);
+            exam.setExamScoreRadio(2);
+            exam.setExamScoreCheck(3);
+            exam.setExamScoreJudge(1);
+            exam.setExamTimeLimit(90);
+            exam.setExamStatus(1);
+            exam.setExamStartDate(now);
+            exam.setExamEndDate(now);
+            exam.setCreateTime(now);
+            exam.setUpdateTime(now);
+            examList.add(exam);
+
+            Question question = new Question();
+            question.setQuestionId(IdUtil.simpleUUID());
+            question.setQuestionName("题目" + i);
+            question.setQuestionScore(5);
+            question.setQuestionCreatorId(IdUtil.simpleUUID());
+            question.setQuestionLevelId(1);
+            question.setQuestionTypeId(1 + i % 3);
+            question.setQuestionCategoryId(1);
+            question.setQuestionDescription("题目描述" + i);
+            question.setQuestionVersion(1);
+            question.setCreateTime(now);
+            question.setUpdateTime(now);
+            questionList.add(question);
+        }
+    }
+
+    @Benchmark
+    public List<ExamVo> examVoBeanUtils() {
+        List<ExamVo> examVoList = new ArrayList<>(examList.size());
+        for (Exam exam : examList) {
+            ExamVo examVo = new ExamVo();
+            BeanUtils.copyProperties(exam, examVo);
+            examVoList.add(examVo);
+        }
+        return examVoList;
+    }
+
+    @Benchmark
+    public List<ExamVo> examVoMapper() {
+        List<ExamVo> examVoList = new ArrayList<>(examList.size());
+        for (Exam exam : examList) {
+            examVoList.add(ExamMapper.INSTANCE.toExamVo(exam));
+        }
+        return examVoList;
+    }
+
+    @Benchmark
+    public List<QuestionVo> questionVoBeanUtils() {
+        List<QuestionVo> questionVoList = new ArrayList<>(questionList.size());
+        for (Question question : questionList) {
+            QuestionVo questionVo = new QuestionVo();
+            BeanUtils.copyProperties(question, questionVo);
+            questionVoList.add(questionVo);
+        }
+        return questionVoList;
+    }
+
+    @Benchmark
+    public List<QuestionVo> questionVoMapper() {
+        List<QuestionVo> questionVoList = new ArrayList<>(questionList.size());
+        for (Question question : questionList) {
+            questionVoList.add(QuestionMapper.INSTANCE.toQuestionVo(question));
+        }
+        return questionVoList;
+    }
+}
@@ -0,0 +1,64 @@
+package com.huawei.l00379880.exam.bench;
+
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.service.impl.ExamServiceImpl;
+import com.huawei.l00379880.exam.vo.RecordDetailVo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * binary是现在的二进制格式，legacy是老的"题目id@True_选项id-选项id$..."字符串格式
+ *
+ * @author liangshanguang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordDetailBenchmark {
+
+    @Param({"binary", "legacy"})
+    private String format;
+
+    private ExamServiceImpl examService;
+
+    private String recordId;
+
+    @Setup
+    public void setup() {
+        ExamFixtures fixtures = new ExamFixtures();
+        examService = fixtures.newExamService();
+        HashMap<String, List<String>> answersMap = fixtures.answerSheet(0.7);
+        ExamRecord record = examService.grade(fixtures.user.getUserId(), fixtures.exam.getExamId(), answersMap);
+        fixtures.recordMap.put(record.getExamRecordId(), record);
+        recordId = record.getExamRecordId();
+        if ("legacy".equals(format)) {
+            // 先用二进制格式还原出作答详情，再转成老格式的字符串
+            record.setAnswerOptionIds(toLegacy(examService.getRecordDetail(recordId)));
+            record.setAnswerData(null);
+        }
+    }
+
+    static String toLegacy(RecordDetailVo recordDetailVo) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<String>> entry : recordDetailVo.getAnswersMap().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append('$');
+            }
+            sb.append(entry.getKey()).append('@').append(recordDetailVo.getResultsMap().get(entry.getKey())).append('_');
+            sb.append(String.join("-", entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public RecordDetailVo getRecordDetail() {
+        return examService.getRecordDetail(recordId);
+    }
+}
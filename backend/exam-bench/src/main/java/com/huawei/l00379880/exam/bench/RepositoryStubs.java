@@ -0,0 +1,56 @@
+package com.huawei.l00379880.exam.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Spring Data的仓库接口方法很多，基准测试只用到其中几个，用动态代理按方法名分派，
+ * 没有注册的方法被调用时直接抛异常，避免测到意料之外的代码
+ *
+ * @author liangshanguang
+ */
+final class RepositoryStubs<T> {
+
+    private final Class<T> repositoryClass;
+
+    private final Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+
+    private RepositoryStubs(Class<T> repositoryClass) {
+        this.repositoryClass = repositoryClass;
+    }
+
+    static <T> RepositoryStubs<T> of(Class<T> repositoryClass) {
+        return new RepositoryStubs<>(repositoryClass);
+    }
+
+    /**
+     * 注册方法的实现，按方法名匹配，不区分重载
+     */
+    RepositoryStubs<T> on(String methodName, Function<Object[], Object> handler) {
+        handlers.put(methodName, handler);
+        return this;
+    }
+
+    T build() {
+        Object proxy = Proxy.newProxyInstance(repositoryClass.getClassLoader(), new Class<?>[]{repositoryClass}, (self, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return self == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    default:
+                        return repositoryClass.getSimpleName() + "Stub";
+                }
+            }
+            throw new UnsupportedOperationException(repositoryClass.getSimpleName() + "." + method.getName() + "没有实现");
+        });
+        return repositoryClass.cast(proxy);
+    }
+}
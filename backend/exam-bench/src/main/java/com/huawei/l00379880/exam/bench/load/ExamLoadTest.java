@@ -0,0 +1,130 @@
+package com.huawei.l00379880.exam.bench.load;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.ExamApplication;
+import com.huawei.l00379880.exam.enums.RoleEnum;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用MariaDB4j启动一个和MySQL兼容的嵌入式数据库，导入doc/sql/exam.sql并插入压测用的考生，
+ * 然后在同一个进程中启动ExamApplication，用students个线程模拟考生同时走完整个考试流程，
+ * 最后打印每个接口的请求数、吞吐量和p50/p90/p99耗时。参数都通过-D传入：
+ * <pre>
+ * students   并发的考生数，默认200
+ * rounds     每个考生考几轮，默认1
+ * questions  每轮查看并作答的题目数，默认10
+ * async      是否用异步交卷接口，默认false
+ * sql        初始化数据库的脚本，默认../../doc/sql/exam.sql(在exam-bench目录下运行)
+ * </pre>
+ *
+ * @author liangshanguang
+ */
+public class ExamLoadTest {
+
+    private static final String PASSWORD = "load123";
+
+    public static void main(String[] args) throws Exception {
+        int students = Integer.getInteger("students", 200);
+        int rounds = Integer.getInteger("rounds", 1);
+        int questions = Integer.getInteger("questions", 10);
+        boolean async = Boolean.getBoolean("async");
+        File sqlFile = new File(System.getProperty("sql", "../../doc/sql/exam.sql"));
+
+        // 1.启动嵌入式数据库并导入数据
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB("exam");
+        String jdbcUrl = "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/exam?characterEncoding=utf-8&useSSL=false&serverTimezone=Asia/Shanghai&rewriteBatchedStatements=true";
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "root", "")) {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new FileSystemResource(sqlFile), "UTF-8"));
+            seedStudents(connection, students);
+        }
+
+        // 2.启动考试系统，端口随机
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ExamApplication.class)
+                .properties("spring.profiles.active=dev",
+                        "server.port=0",
+                        "spring.datasource.url=" + jdbcUrl,
+                        "spring.datasource.username=root",
+                        "spring.datasource.password=",
+                        // 连接池要能撑住并发的考生
+                        "spring.datasource.hikari.maximum-pool-size=" + Math.min(students, 50))
+                .run(args);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+        // 3.所有考生同时开始
+        LatencyRecorder recorder = new LatencyRecorder();
+        ExecutorService pool = Executors.newFixedThreadPool(students);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        for (int i = 0; i < students; i++) {
+            StudentScenario scenario = new StudentScenario(baseUrl, username(i), PASSWORD, questions, async, recorder);
+            pool.execute(() -> {
+                try {
+                    startSignal.await();
+                    for (int round = 0; round < rounds; round++) {
+                        scenario.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        long wallNanos = System.nanoTime() - start;
+
+        System.out.printf("%n%d个考生，每人%d轮，每轮%d道题，%s交卷，总耗时%.1f秒%n",
+                students, rounds, questions, async ? "异步" : "同步", wallNanos / 1e9);
+        recorder.print(wallNanos);
+
+        context.close();
+        db.stop();
+    }
+
+    private static String username(int i) {
+        return "load_student_" + i;
+    }
+
+    /**
+     * 插入压测用的学生，密码和注册接口一样用Base64存
+     */
+    private static void seedStudents(Connection connection, int students) throws Exception {
+        String sql = "insert into user (user_id, user_username, user_nickname, user_password, user_role_id, user_avatar, user_email, user_phone) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < students; i++) {
+                ps.setString(1, IdUtil.simpleUUID());
+                ps.setString(2, username(i));
+                ps.setString(3, username(i));
+                ps.setString(4, Base64.encode(PASSWORD));
+                ps.setInt(5, RoleEnum.STUDENT.getId());
+                ps.setString(6, "avatar.jpg");
+                ps.setString(7, username(i) + "@load.test");
+                ps.setString(8, String.format("199%08d", i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.huawei.l00379880.exam.bench.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 每个接口一个耗时数组，压测结束后排序计算分位数。压测的请求数最多几十万，全部保存下来足够了
+ *
+ * @author liangshanguang
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> samplesMap = new ConcurrentSkipListMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        Samples samples = samplesMap.computeIfAbsent(endpoint, k -> new Samples());
+        samples.add(nanos, success);
+    }
+
+    /**
+     * 打印每个接口的请求数、失败数、吞吐量和耗时分位数
+     *
+     * @param wallNanos 压测的总耗时
+     */
+    void print(long wallNanos) {
+        double seconds = wallNanos / 1e9;
+        System.out.printf("%-32s %8s %6s %10s %9s %9s %9s %9s%n", "接口", "请求数", "失败", "吞吐(次/秒)", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        for (Map.Entry<String, Samples> entry : samplesMap.entrySet()) {
+            long[] nanos = entry.getValue().sorted();
+            System.out.printf("%-32s %8d %6d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), nanos.length, entry.getValue().failures, nanos.length / seconds,
+                    percentile(nanos, 0.50), percentile(nanos, 0.90), percentile(nanos, 0.99), percentile(nanos, 1.0));
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * 一个接口的所有耗时
+     */
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private int failures;
+
+        synchronized void add(long value, boolean success) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (!success) {
+                failures++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.huawei.l00379880.exam.bench.load;
+
+import com.google.gson.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 登录 -> 考试卡片列表 -> 考试详情 -> k道题的题目详情 -> 交卷 -> 考试记录列表，
+ * 和前端的调用顺序一致。每个请求的耗时按接口模板(而不是具体的url)记录
+ *
+ * @author liangshanguang
+ */
+final class StudentScenario implements Runnable {
+
+    private static final Gson GSON = new Gson();
+
+    private final String baseUrl;
+
+    private final String username;
+
+    private final String password;
+
+    private final int questionCount;
+
+    private final boolean async;
+
+    private final LatencyRecorder recorder;
+
+    private String token;
+
+    StudentScenario(String baseUrl, String username, String password, int questionCount, boolean async, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+        this.questionCount = questionCount;
+        this.async = async;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // 1.登录
+            JsonObject login = new JsonObject();
+            login.addProperty("loginType", 1);
+            login.addProperty("userInfo", username);
+            login.addProperty("password", password);
+            JsonElement tokenElement = call("POST", "/user/login", "/user/login", login);
+            if (tokenElement == null) {
+                return;
+            }
+            token = tokenElement.getAsString();
+            // 2.考试卡片列表，随机选一场考试
+            JsonElement cards = call("GET", "/exam/card/list", "/exam/card/list", null);
+            if (cards == null || cards.getAsJsonArray().size() == 0) {
+                return;
+            }
+            JsonArray cardArray = cards.getAsJsonArray();
+            String examId = cardArray.get(ThreadLocalRandom.current().nextInt(cardArray.size())).getAsJsonObject().get("examId").getAsString();
+            // 3.考试详情
+            JsonElement detail = call("GET", "/exam/detail/" + examId, "/exam/detail/{id}", null);
+            if (detail == null) {
+                return;
+            }
+            List<String> questionIds = new ArrayList<>();
+            for (String key : new String[]{"radioIds", "checkIds", "judgeIds"}) {
+                JsonElement ids = detail.getAsJsonObject().get(key);
+                if (ids != null) {
+                    for (JsonElement id : ids.getAsJsonArray()) {
+                        questionIds.add(id.getAsString());
+                    }
+                }
+            }
+            // 4.逐题查看题目详情并作答，随机选一个选项
+            JsonObject answers = new JsonObject();
+            for (String questionId : questionIds.subList(0, Math.min(questionCount, questionIds.size()))) {
+                JsonElement question = call("GET", "/exam/question/detail/" + questionId, "/exam/question/detail/{id}", null);
+                if (question == null) {
+                    continue;
+                }
+                JsonArray options = question.getAsJsonObject().getAsJsonArray("options");
+                if (options == null || options.size() == 0) {
+                    continue;
+                }
+                JsonArray picked = new JsonArray();
+                picked.add(options.get(ThreadLocalRandom.current().nextInt(options.size())).getAsJsonObject().get("questionOptionId"));
+                answers.add(questionId, picked);
+            }
+            // 5.交卷
+            if (async) {
+                finishAsync(examId, answers);
+            } else {
+                call("POST", "/exam/finish/" + examId, "/exam/finish/{examId}", answers);
+            }
+            // 6.考试记录列表
+            call("GET", "/exam/record/list", "/exam/record/list", null);
+        } catch (Exception e) {
+            recorder.record("(异常)" + e.getClass().getSimpleName(), 0, false);
+        }
+    }
+
+    /**
+     * 异步交卷，轮询直到出结果，轮询的总耗时也记录下来
+     */
+    private void finishAsync(String examId, JsonObject answers) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        JsonElement ticket = call("POST", "/exam/finish/async/" + examId, "/exam/finish/async/{examId}", answers);
+        if (ticket == null) {
+            return;
+        }
+        String ticketId = ticket.getAsJsonObject().get("ticket").getAsString();
+        while (true) {
+            JsonElement status = call("GET", "/exam/finish/status/" + ticketId, "/exam/finish/status/{ticket}", null);
+            if (status == null) {
+                recorder.record("(异步交卷到出结果)", System.nanoTime() - start, false);
+                return;
+            }
+            int code = status.getAsJsonObject().get("status").getAsInt();
+            if (code != 0 && code != 1) {
+                // 0排队中，1已判分，其他都是最终状态
+                recorder.record("(异步交卷到出结果)", System.nanoTime() - start, code == 2);
+                return;
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * 调用一个接口并记录耗时
+     *
+     * @return 成功时返回ResultVO中的data，失败时返回null
+     */
+    private JsonElement call(String method, String path, String endpoint, JsonElement body) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(10000);
+            connection.setReadTimeout(60000);
+            if (token != null) {
+                connection.setRequestProperty("Access-Token", token);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(GSON.toJson(body).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String text = readAll(in);
+            if (status != 200) {
+                return null;
+            }
+            JsonObject result = new JsonParser().parse(text).getAsJsonObject();
+            JsonElement code = result.get("code");
+            if (code == null || code.getAsInt() != 0) {
+                return null;
+            }
+            success = true;
+            JsonElement data = result.get("data");
+            return data == null ? JsonNull.INSTANCE : data;
+        } finally {
+            recorder.record(endpoint, System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * 响应体一定要读完，HttpURLConnection才会复用连接
+     */
+    private static String readAll(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.huawei.l00379880.exam.cache;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 在需要缓存的实体上加@EntityListeners(EntityChangeListener.class)即可。
+ * 这个类是由Hibernate实例化的，不是Spring的bean，所以缓存需要在启动时自己调用subscribe注册进来
+ *
+ * @author liangshanguang
+ */
+public class EntityChangeListener {
+
+    private static final List<Consumer<Object>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * 注册实体变更的订阅者
+     *
+     * @param subscriber 订阅者，参数是发生变更的实体
+     */
+    public static void subscribe(Consumer<Object> subscriber) {
+        SUBSCRIBERS.add(subscriber);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 在事务中的话要等事务提交后再通知，否则别的线程可能在提交前就把旧数据重新加载进缓存了
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    publish(entity);
+                }
+            });
+        } else {
+            publish(entity);
+        }
+    }
+
+    private static void publish(Object entity) {
+        for (Consumer<Object> subscriber : SUBSCRIBERS) {
+            subscriber.accept(entity);
+        }
+    }
+}
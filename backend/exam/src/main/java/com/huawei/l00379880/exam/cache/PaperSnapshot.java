@@ -0,0 +1,79 @@
+package com.huawei.l00379880.exam.cache;
+
+import cn.hutool.crypto.digest.DigestUtil;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 快照创建后不再修改，多个请求直接把同一个字节数组写到响应中。
+ * ETag是内容的SHA-256，试卷内容不变的话重建后ETag也不变，浏览器缓存的试卷仍然有效
+ *
+ * @author liangshanguang
+ */
+public final class PaperSnapshot {
+
+    private final String examId;
+
+    /**
+     * 序列化好的响应体，调用方不能修改
+     */
+    private final byte[] body;
+
+    private final String etag;
+
+    /**
+     * 试卷中还没有固定版本的题目和选项，用于判断题目或者选项变化时这份快照是否要失效
+     */
+    private final Set<String> questionIds;
+
+    private final Set<String> optionIds;
+
+    PaperSnapshot(String examId, byte[] body, Set<String> questionIds, Set<String> optionIds) {
+        this.examId = examId;
+        this.body = body;
+        this.etag = "\"" + DigestUtil.sha256Hex(body).substring(0, 32) + "\"";
+        this.questionIds = Collections.unmodifiableSet(questionIds);
+        this.optionIds = Collections.unmodifiableSet(optionIds);
+    }
+
+    public String getExamId() {
+        return examId;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @param ifNoneMatch 请求头If-None-Match的值，可以是逗号分隔的多个ETag
+     * @return 浏览器缓存的试卷和当前快照一致，可以返回304
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean containsQuestion(String questionId) {
+        return questionIds.contains(questionId);
+    }
+
+    boolean containsOption(String optionId) {
+        return optionIds.contains(optionId);
+    }
+}
@@ -0,0 +1,274 @@
+package com.huawei.l00379880.exam.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huawei.l00379880.exam.entity.*;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.file.AvatarResolver;
+import com.huawei.l00379880.exam.mapper.ExamMapper;
+import com.huawei.l00379880.exam.repository.ExamQuestionRepository;
+import com.huawei.l00379880.exam.repository.ExamRepository;
+import com.huawei.l00379880.exam.repository.QuestionAnswerRepository;
+import com.huawei.l00379880.exam.repository.QuestionOptionRepository;
+import com.huawei.l00379880.exam.repository.QuestionRepository;
+import com.huawei.l00379880.exam.snapshot.QuestionSnapshotStore;
+import com.huawei.l00379880.exam.vo.PaperQuestionVo;
+import com.huawei.l00379880.exam.vo.PaperVo;
+import com.huawei.l00379880.exam.vo.ResultVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 考试开始时所有考生几乎同时来取试卷，原来每人要调一次/exam/detail再逐题调/exam/question/detail，
+ * 500个考生50道题就是2.5万次一模一样的查询。这里把整张试卷(不带答案)拼好后直接序列化成ResultVO的JSON字节，
+ * 之后所有考生共享这一份字节数组。同一场考试并发的第一批请求只有一个去查数据库，其他的等它的结果。
+ * 考试、考试的题目关联、题目、选项或者选项关联发生变化时对应的快照失效，下次访问时重建。
+ * 已发布考试的题目来自发布时固定下来的题目快照，修改题目不会让它的试卷失效。
+ * 草稿状态的考试还在组卷，不提供试卷，也不会进缓存
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class PaperSnapshotCache {
+
+    private final ExamRepository examRepository;
+
+    private final ExamQuestionRepository examQuestionRepository;
+
+    private final QuestionRepository questionRepository;
+
+    private final QuestionAnswerRepository questionAnswerRepository;
+
+    private final QuestionOptionRepository questionOptionRepository;
+
+    private final QuestionSnapshotStore questionSnapshotStore;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final AvatarResolver avatarResolver;
+
+    private final ConcurrentMap<String, FutureTask<PaperSnapshot>> snapshotMap = new ConcurrentHashMap<>();
+
+    /**
+     * 每次失效都加1，构建期间发生过失效的话构建结果就不留在缓存中了，防止把旧试卷缓存起来
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PaperSnapshotCache(ExamRepository examRepository, ExamQuestionRepository examQuestionRepository, QuestionRepository questionRepository,
+                              QuestionAnswerRepository questionAnswerRepository, QuestionOptionRepository questionOptionRepository,
+                              QuestionSnapshotStore questionSnapshotStore, ReferenceDataCache referenceDataCache, ObjectMapper objectMapper,
+                              AvatarResolver avatarResolver) {
+        this.examRepository = examRepository;
+        this.examQuestionRepository = examQuestionRepository;
+        this.questionRepository = questionRepository;
+        this.questionAnswerRepository = questionAnswerRepository;
+        this.questionOptionRepository = questionOptionRepository;
+        this.questionSnapshotStore = questionSnapshotStore;
+        this.referenceDataCache = referenceDataCache;
+        this.objectMapper = objectMapper;
+        this.avatarResolver = avatarResolver;
+    }
+
+    @PostConstruct
+    public void init() {
+        EntityChangeListener.subscribe(this::onEntityChanged);
+    }
+
+    /**
+     * 获取考试的试卷快照，缓存中没有时从数据库加载并序列化
+     *
+     * @param examId 考试id
+     * @return 试卷快照
+     * @throws ExamException 考试不存在或者还是草稿
+     */
+    public PaperSnapshot get(String examId) {
+        FutureTask<PaperSnapshot> task = snapshotMap.get(examId);
+        if (task == null) {
+            long startGeneration = generation.get();
+            FutureTask<PaperSnapshot> newTask = new FutureTask<>(() -> build(examId));
+            task = snapshotMap.putIfAbsent(examId, newTask);
+            if (task == null) {
+                task = newTask;
+                newTask.run();
+                if (generation.get() != startGeneration) {
+                    // 构建期间数据变了，这次的结果只给已经在等的请求用
+                    snapshotMap.remove(examId, newTask);
+                }
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待考试" + examId + "的试卷快照时被中断", e);
+        } catch (ExecutionException e) {
+            // 构建失败的不缓存，下次重新构建
+            snapshotMap.remove(examId, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return 缓存的试卷个数
+     */
+    public int size() {
+        return snapshotMap.size();
+    }
+
+    /**
+     * 让指定考试的试卷失效
+     *
+     * @param examId 考试id
+     */
+    public void invalidate(String examId) {
+        generation.incrementAndGet();
+        snapshotMap.remove(examId);
+    }
+
+    private PaperSnapshot build(String examId) throws JsonProcessingException {
+        Exam exam = examRepository.findById(examId).orElse(null);
+        if (exam == null) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        if (!ExamStatusEnum.isPinned(exam.getExamStatus())) {
+            // 构建失败的结果不会留在缓存中，发布之后再来取就能正常构建
+            throw new ExamException(ResultEnum.EXAM_NOT_OPEN);
+        }
+        // 已经固定了版本的题目直接用快照，其余的题目和选项通过关联表按索引批量查询，查询次数和题目数无关
+        List<ExamQuestion> examQuestionList = examQuestionRepository.findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(examId);
+        Map<String, QuestionSnapshot> pinnedMap = questionSnapshotStore.loadPinned(examId);
+        Set<String> liveQuestionIds = new HashSet<>();
+        for (ExamQuestion examQuestion : examQuestionList) {
+            if (!pinnedMap.containsKey(examQuestion.getQuestionId())) {
+                liveQuestionIds.add(examQuestion.getQuestionId());
+            }
+        }
+        Map<String, Question> questionMap = new HashMap<>();
+        Map<String, List<String>> optionIdsMap = new HashMap<>();
+        Map<String, QuestionOption> optionMap = new HashMap<>();
+        if (!liveQuestionIds.isEmpty()) {
+            for (Question question : questionRepository.findAllById(liveQuestionIds)) {
+                questionMap.put(question.getQuestionId(), question);
+            }
+            for (QuestionAnswer questionAnswer : questionAnswerRepository.findByQuestionIdInOrderBySortOrderAsc(liveQuestionIds)) {
+                optionIdsMap.computeIfAbsent(questionAnswer.getQuestionId(), k -> new ArrayList<>()).add(questionAnswer.getQuestionOptionId());
+            }
+            for (QuestionOption option : questionOptionRepository.findByQuestionIdIn(liveQuestionIds)) {
+                optionMap.put(option.getQuestionOptionId(), option);
+            }
+        }
+        List<PaperQuestionVo> questionVoList = new ArrayList<>(examQuestionList.size());
+        for (ExamQuestion examQuestion : examQuestionList) {
+            String questionId = examQuestion.getQuestionId();
+            QuestionSnapshot snapshot = pinnedMap.get(questionId);
+            PaperQuestionVo questionVo;
+            if (snapshot != null) {
+                questionVo = fromSnapshot(snapshot);
+            } else {
+                Question question = questionMap.get(questionId);
+                if (question == null) {
+                    continue;
+                }
+                questionVo = fromQuestion(question, optionIdsMap.getOrDefault(questionId, Collections.emptyList()), optionMap);
+            }
+            QuestionType questionType = referenceDataCache.getQuestionType(questionVo.getTypeId());
+            questionVo.setType(questionType == null ? null : questionType.getQuestionTypeDescription());
+            questionVoList.add(questionVo);
+        }
+        PaperVo paperVo = new PaperVo();
+        // 头像换成本地地址，改的是复制出来的对象。第一次构建时头像可能还没拉到本地，这份快照会用原地址直到下次失效
+        Exam examCopy = ExamMapper.INSTANCE.copyExam(exam);
+        examCopy.setExamAvatar(avatarResolver.resolve(exam.getExamAvatar()));
+        paperVo.setExam(examCopy);
+        paperVo.setQuestions(questionVoList);
+        byte[] body = objectMapper.writeValueAsBytes(new ResultVO<>(0, "获取试卷成功", paperVo));
+        log.info("生成考试{}的试卷快照，共{}道题，{}道来自题目快照，{}字节", examId, questionVoList.size(), pinnedMap.size(), body.length);
+        // 只有没固定版本的题目和选项变化时才需要让试卷失效
+        return new PaperSnapshot(examId, body, liveQuestionIds, optionMap.keySet());
+    }
+
+    private static PaperQuestionVo fromQuestion(Question question, List<String> optionIds, Map<String, QuestionOption> optionMap) {
+        PaperQuestionVo questionVo = new PaperQuestionVo();
+        questionVo.setId(question.getQuestionId());
+        questionVo.setName(question.getQuestionName());
+        questionVo.setDescription(question.getQuestionDescription());
+        questionVo.setTypeId(question.getQuestionTypeId());
+        List<QuestionOption> optionList = new ArrayList<>();
+        for (String optionId : optionIds) {
+            QuestionOption option = optionMap.get(optionId);
+            if (option != null) {
+                optionList.add(option);
+            }
+        }
+        questionVo.setOptions(optionList);
+        return questionVo;
+    }
+
+    private PaperQuestionVo fromSnapshot(QuestionSnapshot snapshot) {
+        PaperQuestionVo questionVo = new PaperQuestionVo();
+        questionVo.setId(snapshot.getQuestionId());
+        questionVo.setName(snapshot.getQuestionName());
+        questionVo.setDescription(snapshot.getQuestionDescription());
+        questionVo.setTypeId(snapshot.getQuestionTypeId());
+        // 不带答案
+        questionVo.setOptions(questionSnapshotStore.displayOptionsOf(snapshot));
+        return questionVo;
+    }
+
+    private void onEntityChanged(Object entity) {
+        if (entity instanceof Exam) {
+            invalidate(((Exam) entity).getExamId());
+        } else if (entity instanceof ExamQuestion) {
+            invalidate(((ExamQuestion) entity).getExamId());
+        } else if (entity instanceof Question) {
+            String questionId = ((Question) entity).getQuestionId();
+            invalidateIf(snapshot -> snapshot.containsQuestion(questionId));
+        } else if (entity instanceof QuestionAnswer) {
+            // 选项的顺序或者增删
+            String questionId = ((QuestionAnswer) entity).getQuestionId();
+            invalidateIf(snapshot -> snapshot.containsQuestion(questionId));
+        } else if (entity instanceof QuestionOption) {
+            String optionId = ((QuestionOption) entity).getQuestionOptionId();
+            invalidateIf(snapshot -> snapshot.containsOption(optionId));
+        }
+    }
+
+    /**
+     * 题目和选项变化的频率很低，直接遍历找出用到它们的试卷
+     */
+    private void invalidateIf(Predicate<PaperSnapshot> predicate) {
+        generation.incrementAndGet();
+        for (Map.Entry<String, FutureTask<PaperSnapshot>> entry : snapshotMap.entrySet()) {
+            FutureTask<PaperSnapshot> task = entry.getValue();
+            if (!task.isDone()) {
+                // 还在构建的由generation处理
+                continue;
+            }
+            try {
+                if (predicate.test(task.get())) {
+                    snapshotMap.remove(entry.getKey(), task);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                snapshotMap.remove(entry.getKey(), task);
+            }
+        }
+    }
+}
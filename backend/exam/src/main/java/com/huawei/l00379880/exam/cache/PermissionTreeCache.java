@@ -0,0 +1,143 @@
+package com.huawei.l00379880.exam.cache;
+
+import com.huawei.l00379880.exam.entity.Action;
+import com.huawei.l00379880.exam.entity.Page;
+import com.huawei.l00379880.exam.entity.Role;
+import com.huawei.l00379880.exam.entity.RolePage;
+import com.huawei.l00379880.exam.mapper.UserMapper;
+import com.huawei.l00379880.exam.repository.RolePageRepository;
+import com.huawei.l00379880.exam.vo.ActionVo;
+import com.huawei.l00379880.exam.vo.PageVo;
+import com.huawei.l00379880.exam.vo.RoleVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 前端每次加载/user/info都要拼一遍角色的权限树，管理员角色要查几十次页面和操作。
+ * 这里每个角色只拼一次，缓存中的RoleVo不会直接交给调用方，每次返回的都是拷贝，调用方修改拷贝不会影响其他请求。
+ * 角色、页面、操作或者角色和页面的关联有变化时整体失效，这些数据很少改，下次访问时重新拼即可
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class PermissionTreeCache {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final RolePageRepository rolePageRepository;
+
+    private final ConcurrentMap<Integer, RoleVo> roleVoMap = new ConcurrentHashMap<>();
+
+    /**
+     * 每次失效都加1，放进缓存后发现拼装期间发生过失效的话再移除掉，防止把旧的权限缓存起来
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PermissionTreeCache(ReferenceDataCache referenceDataCache, RolePageRepository rolePageRepository) {
+        this.referenceDataCache = referenceDataCache;
+        this.rolePageRepository = rolePageRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        EntityChangeListener.subscribe(this::onEntityChanged);
+    }
+
+    /**
+     * 获取角色的权限树
+     *
+     * @param roleId 角色id
+     * @return 角色权限树的拷贝，调用方可以随意修改；角色不存在时返回null
+     */
+    public RoleVo get(Integer roleId) {
+        if (roleId == null) {
+            return null;
+        }
+        RoleVo roleVo = roleVoMap.get(roleId);
+        if (roleVo != null) {
+            return UserMapper.INSTANCE.copyRoleVo(roleVo);
+        }
+        long startGeneration = generation.get();
+        roleVo = build(roleId);
+        if (roleVo == null) {
+            return null;
+        }
+        RoleVo existing = roleVoMap.putIfAbsent(roleId, roleVo);
+        if (existing != null) {
+            roleVo = existing;
+        } else if (generation.get() != startGeneration) {
+            // 先放进去再检查，失效发生在检查之后的话会由invalidateAll的clear清掉，不会有旧数据漏网
+            roleVoMap.remove(roleId, roleVo);
+        }
+        return UserMapper.INSTANCE.copyRoleVo(roleVo);
+    }
+
+    /**
+     * @return 缓存的角色个数
+     */
+    public int size() {
+        return roleVoMap.size();
+    }
+
+    /**
+     * 让所有角色的权限树失效
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        roleVoMap.clear();
+    }
+
+    private RoleVo build(Integer roleId) {
+        Role role = referenceDataCache.getRole(roleId);
+        if (role == null) {
+            return null;
+        }
+        RoleVo roleVo = UserMapper.INSTANCE.toRoleVo(role);
+        // 页面按照关联表中的顺序排列
+        List<PageVo> pageVoList = new ArrayList<>();
+        for (RolePage rolePage : rolePageRepository.findByRoleIdOrderBySortOrderAsc(roleId)) {
+            Page page = referenceDataCache.getPage(rolePage.getPageId());
+            if (page == null) {
+                continue;
+            }
+            PageVo pageVo = UserMapper.INSTANCE.toPageVo(page);
+            pageVo.setActionVoList(buildActionVoList(page));
+            pageVoList.add(pageVo);
+        }
+        roleVo.setPageVoList(Collections.unmodifiableList(pageVoList));
+        log.info("拼装角色{}的权限树，共{}个页面", roleId, pageVoList.size());
+        return roleVo;
+    }
+
+    private List<ActionVo> buildActionVoList(Page page) {
+        List<ActionVo> actionVoList = new ArrayList<>();
+        if (StringUtils.isEmpty(page.getActionIds())) {
+            return Collections.emptyList();
+        }
+        for (String actionIdStr : page.getActionIds().split("-")) {
+            Action action = referenceDataCache.getAction(Integer.parseInt(actionIdStr.trim()));
+            if (action == null) {
+                continue;
+            }
+            ActionVo actionVo = UserMapper.INSTANCE.toActionVo(action);
+            actionVoList.add(actionVo);
+        }
+        return Collections.unmodifiableList(actionVoList);
+    }
+
+    private void onEntityChanged(Object entity) {
+        if (entity instanceof Role || entity instanceof Page || entity instanceof Action || entity instanceof RolePage) {
+            invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.huawei.l00379880.exam.cache;
+
+import com.huawei.l00379880.exam.entity.*;
+import com.huawei.l00379880.exam.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 这几张表数据量很小而且几乎不变，启动时全部加载到内存中，按照id建立不可变的索引。
+ * 表里的数据有增删改时由EntityChangeListener通知，标记为过期，下次读取时重新加载。
+ * 缓存返回的实体是共享的，调用方只能读，不要修改
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class ReferenceDataCache {
+
+    /**
+     * id不超过这个值时用数组做索引，否则退化为HashMap
+     */
+    private static final int DENSE_ID_LIMIT = 4096;
+
+    /**
+     * 因为找不到id而重新加载一张表的最小间隔(毫秒)。本节点的增删改由EntityChangeListener通知，
+     * 这里只是兜底别的节点插入的数据，不能让一批带着错误id的请求(比如导入题目)每条都全表重新加载一次
+     */
+    private static final long MISS_RELOAD_INTERVAL = 10 * 1000L;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final Table<QuestionLevel> questionLevelTable;
+
+    private final Table<QuestionType> questionTypeTable;
+
+    private final Table<QuestionCategory> questionCategoryTable;
+
+    private final Table<Role> roleTable;
+
+    private final Table<Page> pageTable;
+
+    private final Table<Action> actionTable;
+
+    public ReferenceDataCache(QuestionLevelRepository questionLevelRepository, QuestionTypeRepository questionTypeRepository, QuestionCategoryRepository questionCategoryRepository, RoleRepository roleRepository, PageRepository pageRepository, ActionRepository actionRepository) {
+        this.questionLevelTable = new Table<>("question_level", questionLevelRepository::findAll, QuestionLevel::getQuestionLevelId);
+        this.questionTypeTable = new Table<>("question_type", questionTypeRepository::findAll, QuestionType::getQuestionTypeId);
+        this.questionCategoryTable = new Table<>("question_category", questionCategoryRepository::findAll, QuestionCategory::getQuestionCategoryId);
+        this.roleTable = new Table<>("role", roleRepository::findAll, Role::getRoleId);
+        this.pageTable = new Table<>("page", pageRepository::findAll, Page::getPageId);
+        this.actionTable = new Table<>("action", actionRepository::findAll, Action::getActionId);
+    }
+
+    @PostConstruct
+    public void init() {
+        refreshAll();
+        EntityChangeListener.subscribe(this::onEntityChanged);
+    }
+
+    /**
+     * 重新加载所有的基础数据
+     */
+    public void refreshAll() {
+        for (Table<?> table : tables()) {
+            table.reload();
+        }
+    }
+
+    public QuestionLevel getQuestionLevel(Integer id) {
+        return questionLevelTable.get(id);
+    }
+
+    public QuestionType getQuestionType(Integer id) {
+        return questionTypeTable.get(id);
+    }
+
+    public QuestionCategory getQuestionCategory(Integer id) {
+        return questionCategoryTable.get(id);
+    }
+
+    public Role getRole(Integer id) {
+        return roleTable.get(id);
+    }
+
+    public Page getPage(Integer id) {
+        return pageTable.get(id);
+    }
+
+    public Action getAction(Integer id) {
+        return actionTable.get(id);
+    }
+
+    public List<QuestionLevel> listQuestionLevels() {
+        return questionLevelTable.list();
+    }
+
+    public List<QuestionType> listQuestionTypes() {
+        return questionTypeTable.list();
+    }
+
+    public List<QuestionCategory> listQuestionCategories() {
+        return questionCategoryTable.list();
+    }
+
+    /**
+     * @return 缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 缓存未命中次数(未命中时最多每10秒重新加载一次对应的表)
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private void onEntityChanged(Object entity) {
+        if (entity instanceof QuestionLevel) {
+            questionLevelTable.markStale();
+        } else if (entity instanceof QuestionType) {
+            questionTypeTable.markStale();
+        } else if (entity instanceof QuestionCategory) {
+            questionCategoryTable.markStale();
+        } else if (entity instanceof Role) {
+            roleTable.markStale();
+        } else if (entity instanceof Page) {
+            pageTable.markStale();
+        } else if (entity instanceof Action) {
+            actionTable.markStale();
+        }
+    }
+
+    private List<Table<?>> tables() {
+        return Arrays.asList(questionLevelTable, questionTypeTable, questionCategoryTable, roleTable, pageTable, actionTable);
+    }
+
+    /**
+     * 一张表的缓存，snapshot整体替换，读的时候不需要加锁
+     */
+    private final class Table<T> {
+        private final String name;
+        private final Supplier<List<T>> loader;
+        private final Function<T, Integer> idGetter;
+        private volatile Snapshot<T> snapshot;
+        private volatile boolean stale = true;
+        private volatile long loadTime;
+
+        Table(String name, Supplier<List<T>> loader, Function<T, Integer> idGetter) {
+            this.name = name;
+            this.loader = loader;
+            this.idGetter = idGetter;
+        }
+
+        T get(Integer id) {
+            if (id == null) {
+                return null;
+            }
+            T value = current().get(id);
+            if (value != null) {
+                hitCount.increment();
+                return value;
+            }
+            missCount.increment();
+            // 缓存中没有，可能是别的节点刚插入的数据，距离上次加载足够久了才重新加载一次再找
+            if (System.currentTimeMillis() - loadTime < MISS_RELOAD_INTERVAL) {
+                return null;
+            }
+            return reloadOnMiss().get(id);
+        }
+
+        List<T> list() {
+            hitCount.increment();
+            return current().all;
+        }
+
+        void markStale() {
+            stale = true;
+        }
+
+        private Snapshot<T> current() {
+            Snapshot<T> current = snapshot;
+            if (stale || current == null) {
+                current = reloadIfStale();
+            }
+            return current;
+        }
+
+        /**
+         * 一次变更后同时读到stale的请求会在这里排队，只有第一个去加载，其余的拿到锁后直接用它的结果
+         */
+        private synchronized Snapshot<T> reloadIfStale() {
+            if (!stale && snapshot != null) {
+                return snapshot;
+            }
+            return reload();
+        }
+
+        /**
+         * 同时有多个请求找不到id时只有第一个去加载，其余的拿到锁后直接用它的结果
+         */
+        private synchronized Snapshot<T> reloadOnMiss() {
+            if (System.currentTimeMillis() - loadTime < MISS_RELOAD_INTERVAL && snapshot != null) {
+                return snapshot;
+            }
+            return reload();
+        }
+
+        synchronized Snapshot<T> reload() {
+            // 先清标记再加载，加载过程中再有变更的话下次读取还会重新加载
+            stale = false;
+            Snapshot<T> loaded = new Snapshot<>(loader.get(), idGetter);
+            snapshot = loaded;
+            loadTime = System.currentTimeMillis();
+            log.info("加载基础数据{}，共{}条", name, loaded.all.size());
+            return loaded;
+        }
+    }
+
+    /**
+     * 某一时刻一张表的不可变快照
+     */
+    private static final class Snapshot<T> {
+        private final List<T> all;
+        private final Object[] byId;
+        private final Map<Integer, T> byIdMap;
+
+        Snapshot(List<T> rows, Function<T, Integer> idGetter) {
+            this.all = Collections.unmodifiableList(new ArrayList<>(rows));
+            int maxId = -1;
+            boolean dense = true;
+            for (T row : rows) {
+                int id = idGetter.apply(row);
+                if (id < 0 || id > DENSE_ID_LIMIT) {
+                    dense = false;
+                }
+                maxId = Math.max(maxId, id);
+            }
+            if (dense) {
+                Object[] array = new Object[maxId + 1];
+                for (T row : rows) {
+                    array[idGetter.apply(row)] = row;
+                }
+                this.byId = array;
+                this.byIdMap = null;
+            } else {
+                Map<Integer, T> map = new HashMap<>(rows.size() * 2);
+                for (T row : rows) {
+                    map.put(idGetter.apply(row), row);
+                }
+                this.byId = null;
+                this.byIdMap = Collections.unmodifiableMap(map);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int id) {
+            if (byId != null) {
+                return id >= 0 && id < byId.length ? (T) byId[id] : null;
+            }
+            return byIdMap.get(id);
+        }
+    }
+}
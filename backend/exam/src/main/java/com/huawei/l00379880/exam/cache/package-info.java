@@ -0,0 +1,4 @@
+/*
+ * Description : 进程内缓存，缓存很少变化的数据，减少对数据库的访问
+ */
+package com.huawei.l00379880.exam.cache;
@@ -6,27 +6,58 @@
  ***********************************************************/
 package com.huawei.l00379880.exam.controller;
 
+import com.huawei.l00379880.exam.cache.PaperSnapshot;
+import com.huawei.l00379880.exam.cache.PaperSnapshotCache;
 import com.huawei.l00379880.exam.entity.Exam;
 import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.export.ExamRecordExporter;
+import com.huawei.l00379880.exam.importer.QuestionImporter;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.judge.SubmissionQueue;
+import com.huawei.l00379880.exam.mapper.QuestionMapper;
+import com.huawei.l00379880.exam.qo.QuestionPickQo;
 import com.huawei.l00379880.exam.service.ExamService;
 import com.huawei.l00379880.exam.vo.*;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
-import org.springframework.beans.BeanUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.List;
 
 @RestController
 @Api(tags = "Exam APIs")
+@Slf4j
 @RequestMapping("/exam")
 public class ExamController {
     @Autowired
     private ExamService examService;
 
+    @Autowired
+    private SubmissionQueue submissionQueue;
+
+    @Autowired
+    private QuestionImporter questionImporter;
+
+    @Autowired
+    private ExamRecordExporter examRecordExporter;
+
+    @Autowired
+    private PaperSnapshotCache paperSnapshotCache;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
     @GetMapping("/question/list")
     @ApiOperation("获取问题的列表")
     ResultVO<QuestionPageVo> getQuestionList(@RequestParam("pageNo") Integer pageNo, @RequestParam("pageSize") Integer pageSize) {
@@ -58,9 +89,8 @@ public class ExamController {
     @PostMapping("/question/create")
     @ApiOperation("创建问题")
     ResultVO<String> questionCreate(@RequestBody QuestionCreateSimplifyVo questionCreateSimplifyVo, HttpServletRequest request) {
-        QuestionCreateVo questionCreateVo = new QuestionCreateVo();
         // 把能拷贝过来的属性都拷贝过来
-        BeanUtils.copyProperties(questionCreateSimplifyVo, questionCreateVo);
+        QuestionCreateVo questionCreateVo = QuestionMapper.INSTANCE.toQuestionCreateVo(questionCreateSimplifyVo);
         // 设置创建者信息
         String userId = (String) request.getAttribute("user_id");
         questionCreateVo.setQuestionCreatorId(userId);
@@ -101,6 +131,22 @@ public class ExamController {
         return resultVO;
     }
 
+    @GetMapping("/question/detail/{examId}/{questionId}")
+    @ApiOperation("获取考试中的问题详情，已发布的考试返回发布时固定下来的题目内容")
+    ResultVO<QuestionDetailVo> getExamQuestionDetail(@PathVariable String examId, @PathVariable String questionId) {
+        ResultVO<QuestionDetailVo> resultVO;
+        try {
+            QuestionDetailVo questionDetailVo = examService.getQuestionDetail(examId, questionId);
+            resultVO = new ResultVO<>(0, "获取问题详情成功", questionDetailVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "获取问题详情失败", null);
+        }
+        return resultVO;
+    }
+
     @GetMapping("/list")
     @ApiOperation("获取考试列表")
     ResultVO<ExamPageVo> getExamList(@RequestParam("pageNo") Integer pageNo, @RequestParam("pageSize") Integer pageSize) {
@@ -131,6 +177,27 @@ public class ExamController {
         return resultVO;
     }
 
+    @GetMapping("/question/pick")
+    @ApiOperation("按题型分页选题，可按分类、难度和关键字过滤，用上一页返回的nextCursor翻页")
+    ResultVO<QuestionPickPageVo> pickQuestions(@RequestParam("typeId") Integer typeId,
+                                               @RequestParam(value = "categoryId", required = false) Integer categoryId,
+                                               @RequestParam(value = "levelId", required = false) Integer levelId,
+                                               @RequestParam(value = "keyword", required = false) String keyword,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "pageSize", required = false) Integer pageSize) {
+        ResultVO<QuestionPickPageVo> resultVO;
+        try {
+            QuestionPickPageVo questionPickPageVo = examService.pickQuestions(new QuestionPickQo(typeId, categoryId, levelId, keyword, cursor, pageSize));
+            resultVO = new ResultVO<>(0, "获取问题列表成功", questionPickPageVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "获取问题列表失败", null);
+        }
+        return resultVO;
+    }
+
     @PostMapping("/create")
     @ApiOperation("创建考试")
     ResultVO<Exam> createExam(@RequestBody ExamCreateVo examCreateVo, HttpServletRequest request) {
@@ -147,6 +214,60 @@ public class ExamController {
         return resultVO;
     }
 
+    @PostMapping("/publish/{examId}")
+    @ApiOperation("发布草稿状态的考试，题目固定到当前版本")
+    ResultVO<Exam> publishExam(@PathVariable String examId) {
+        ResultVO<Exam> resultVO;
+        try {
+            Exam exam = examService.publish(examId);
+            // 考生马上就会来取试卷，先把试卷和答案准备好
+            paperSnapshotCache.get(examId);
+            answerKeyCache.get(examId);
+            resultVO = new ResultVO<>(0, "发布考试成功", exam);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "发布考试失败", null);
+        }
+        return resultVO;
+    }
+
+    @PostMapping("/close/{examId}")
+    @ApiOperation("结束已发布的考试，结束后不能再交卷")
+    ResultVO<Exam> closeExam(@PathVariable String examId) {
+        ResultVO<Exam> resultVO;
+        try {
+            Exam exam = examService.close(examId);
+            resultVO = new ResultVO<>(0, "结束考试成功", exam);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "结束考试失败", null);
+        }
+        return resultVO;
+    }
+
+    @PostMapping("/question/import")
+    @ApiOperation("批量导入题目，支持JSON Lines(.jsonl)和CSV(.csv)，返回每一行的错误")
+    ResultVO<QuestionImportResultVo> questionImport(@RequestParam("file") MultipartFile file, @RequestParam(value = "format", required = false) String format, HttpServletRequest request) {
+        String userId = (String) request.getAttribute("user_id");
+        // 没有指定格式时按照文件后缀判断
+        boolean csv = format != null ? "csv".equalsIgnoreCase(format)
+                : file.getOriginalFilename() != null && file.getOriginalFilename().toLowerCase().endsWith(".csv");
+        try (InputStream in = file.getInputStream()) {
+            QuestionImportResultVo importResultVo = questionImporter.importQuestions(in, csv, userId);
+            if (importResultVo.getFailedCount() > 0) {
+                return new ResultVO<>(-1, "有" + importResultVo.getFailedCount() + "道题目导入失败", importResultVo);
+            }
+            return new ResultVO<>(0, "题目导入成功", importResultVo);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResultVO<>(-1, "题目导入失败", null);
+        }
+    }
+
     @GetMapping("/card/list")
     @ApiOperation("获取考试列表，适配前端卡片列表")
     ResultVO<List<ExamCardVo>> getExamCardList() {
@@ -176,6 +297,31 @@ public class ExamController {
         return resultVO;
     }
 
+    @RequestMapping(value = "/paper/{examId}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @ApiOperation("获取整张试卷(考试信息和所有题目的选项，不带答案)，支持If-None-Match")
+    void getPaper(@PathVariable String examId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PaperSnapshot snapshot;
+        try {
+            snapshot = paperSnapshotCache.get(examId);
+        } catch (ExamException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+            return;
+        }
+        response.setHeader("ETag", snapshot.getEtag());
+        // 试卷要登录后才能看，只允许浏览器缓存，每次使用前都用ETag校验一下
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (snapshot.matches(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] body = snapshot.getBody();
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
     @PostMapping("/finish/{examId}")
     @ApiOperation("根据用户提交的答案对指定id的考试判分")
     ResultVO<ExamRecord> finishExam(@PathVariable String examId, @RequestBody HashMap<String, List<String>> answersMap, HttpServletRequest request) {
@@ -186,6 +332,26 @@ public class ExamController {
             // 下面根据用户提交的信息进行判分,返回用户的得分情况
             ExamRecord examRecord = examService.judge(userId, examId, answersMap);
             resultVO = new ResultVO<>(0, "考卷提交成功", examRecord);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "考卷提交失败", null);
+        }
+        return resultVO;
+    }
+
+    @PostMapping("/finish/async/{examId}")
+    @ApiOperation("异步提交答卷，立即返回提交凭证，再根据凭证轮询判分结果")
+    ResultVO<SubmissionTicketVo> finishExamAsync(@PathVariable String examId, @RequestBody HashMap<String, List<String>> answersMap, HttpServletRequest request) {
+        ResultVO<SubmissionTicketVo> resultVO;
+        try {
+            // 拦截器里设置上的用户id
+            String userId = (String) request.getAttribute("user_id");
+            SubmissionTicketVo submissionTicketVo = submissionQueue.submit(userId, examId, answersMap);
+            resultVO = new ResultVO<>(0, "考卷提交成功", submissionTicketVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
         } catch (Exception e) {
             e.printStackTrace();
             resultVO = new ResultVO<>(-1, "考卷提交失败", null);
@@ -193,15 +359,34 @@ public class ExamController {
         return resultVO;
     }
 
+    @GetMapping("/finish/status/{ticket}")
+    @ApiOperation("根据提交凭证查询异步交卷的判分结果")
+    ResultVO<SubmissionTicketVo> getFinishStatus(@PathVariable String ticket, HttpServletRequest request) {
+        ResultVO<SubmissionTicketVo> resultVO;
+        try {
+            // 拦截器里设置上的用户id
+            String userId = (String) request.getAttribute("user_id");
+            SubmissionTicketVo submissionTicketVo = submissionQueue.getStatus(userId, ticket);
+            resultVO = new ResultVO<>(0, "获取判分结果成功", submissionTicketVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "获取判分结果失败", null);
+        }
+        return resultVO;
+    }
+
     @GetMapping("/record/list")
     @ApiOperation("获取当前用户的考试记录")
-    ResultVO<List<ExamRecordVo>> getExamRecordList(HttpServletRequest request) {
+    ResultVO<List<ExamRecordVo>> getExamRecordList(@RequestParam(value = "pageNo", required = false) Integer pageNo, @RequestParam(value = "pageSize", required = false) Integer pageSize, HttpServletRequest request) {
         ResultVO<List<ExamRecordVo>> resultVO;
         try {
             // 拦截器里设置上的用户id
             String userId = (String) request.getAttribute("user_id");
             // 下面根据用户账号拿到他(她所有的考试信息)，注意要用VO封装下
-            List<ExamRecordVo> examRecordVoList = examService.getExamRecordList(userId);
+            // 不传分页参数时返回全部记录
+            List<ExamRecordVo> examRecordVoList = examService.getExamRecordList(userId, pageNo, pageSize);
             resultVO = new ResultVO<>(0, "获取考试记录成功", examRecordVoList);
         } catch (Exception e) {
             e.printStackTrace();
@@ -217,10 +402,69 @@ public class ExamController {
         try {
             RecordDetailVo recordDetailVo = examService.getRecordDetail(recordId);
             resultVO = new ResultVO<>(0, "获取考试记录详情成功", recordDetailVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
         } catch (Exception e) {
             e.printStackTrace();
             resultVO = new ResultVO<>(-1, "获取考试记录详情失败", null);
         }
         return resultVO;
     }
+
+    @GetMapping("/leaderboard/{examId}")
+    @ApiOperation("获取考试排行榜的前几名，交卷后实时更新")
+    ResultVO<LeaderboardVo> getLeaderboard(@PathVariable String examId, @RequestParam(value = "top", required = false) Integer top) {
+        ResultVO<LeaderboardVo> resultVO;
+        try {
+            LeaderboardVo leaderboardVo = examService.getLeaderboard(examId, top);
+            resultVO = new ResultVO<>(0, "获取排行榜成功", leaderboardVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "获取排行榜失败", null);
+        }
+        return resultVO;
+    }
+
+    @GetMapping("/leaderboard/{examId}/rank")
+    @ApiOperation("获取考生在考试排行榜中的名次，不传userId时查当前用户")
+    ResultVO<LeaderboardEntryVo> getLeaderboardRank(@PathVariable String examId, @RequestParam(value = "userId", required = false) String userId, HttpServletRequest request) {
+        ResultVO<LeaderboardEntryVo> resultVO;
+        try {
+            if (userId == null) {
+                userId = (String) request.getAttribute("user_id");
+            }
+            LeaderboardEntryVo leaderboardEntryVo = examService.getLeaderboardRank(examId, userId);
+            resultVO = new ResultVO<>(0, leaderboardEntryVo == null ? "还没有交卷，不在排行榜中" : "获取名次成功", leaderboardEntryVo);
+        } catch (ExamException e) {
+            resultVO = new ResultVO<>(e.getCode(), e.getMessage(), null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            resultVO = new ResultVO<>(-1, "获取名次失败", null);
+        }
+        return resultVO;
+    }
+
+    @GetMapping("/record/export/{examId}")
+    @ApiOperation("流式导出一场考试的所有成绩和每道题的对错，format可以是csv或者xlsx")
+    void exportExamRecords(@PathVariable String examId, @RequestParam(value = "format", defaultValue = "csv") String format, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean xlsx = "xlsx".equalsIgnoreCase(format);
+        String userId = (String) request.getAttribute("user_id");
+        ExamRecordExporter.Export export;
+        try {
+            export = examRecordExporter.prepare(examId, userId);
+        } catch (ExamException e) {
+            boolean forbidden = ResultEnum.EXPORT_FORBIDDEN.getCode().equals(e.getCode());
+            response.sendError(forbidden ? HttpServletResponse.SC_FORBIDDEN : HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+            return;
+        }
+        String fileName = URLEncoder.encode(export.getFileName() + (xlsx ? ".xlsx" : ".csv"), "UTF-8").replace("+", "%20");
+        response.setContentType(xlsx ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" : "text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + fileName);
+        response.setHeader("Cache-Control", "no-store");
+        int count = xlsx ? examRecordExporter.exportXlsx(export, response.getOutputStream())
+                : examRecordExporter.exportCsv(export, response.getOutputStream());
+        log.info("导出考试{}的成绩{}条", examId, count);
+    }
 }
@@ -1,18 +1,29 @@
 package com.huawei.l00379880.exam.controller;
 
+import com.huawei.l00379880.exam.file.AvatarResolver;
+import com.huawei.l00379880.exam.file.BlobStore;
+import com.huawei.l00379880.exam.file.FileDownloader;
+import com.huawei.l00379880.exam.file.ParallelUploader;
+import com.huawei.l00379880.exam.file.UploadThrottle;
 import com.huawei.l00379880.exam.qo.DownloadQo;
 import com.huawei.l00379880.exam.qo.UploadModel;
 import com.huawei.l00379880.exam.qo.UploadModel2;
 import com.huawei.l00379880.exam.utils.FileTransUtil;
+import com.huawei.l00379880.exam.vo.ResultVO;
+import com.huawei.l00379880.exam.vo.UploadResultVo;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 /***********************************************************
  * @note      : 文件上传下载的接口,由于Swagger的问题导致在SwaggerUI
@@ -31,6 +42,27 @@ import java.io.IOException;
 @Slf4j
 public class UploadDownloadController {
 
+    /**
+     * 限制同时进行的上传数，防止大文件上传拖垮判分
+     */
+    @Autowired
+    UploadThrottle uploadThrottle;
+
+    /**
+     * 多文件上传时并行保存
+     */
+    @Autowired
+    ParallelUploader parallelUploader;
+
+    /**
+     * 按内容寻址的文件存储，存放考试和用户的头像等
+     */
+    @Autowired
+    BlobStore blobStore;
+
+    @Autowired
+    AvatarResolver avatarResolver;
+
 //    @Autowired
 //    AITestConfig aiTestConfig;
 //
@@ -43,36 +75,83 @@ public class UploadDownloadController {
     @ApiOperation("单文件上传,支持同时传入参数")
     @PostMapping("/api/upload/singleAndparas")
     public String uploadFileSingle(@RequestParam("dir") String dir, @RequestParam("file") MultipartFile uploadfile) {
-        return FileTransUtil.uploadFile(uploadfile, dir);
+        return uploadThrottle.execute(() -> FileTransUtil.uploadFile(uploadfile, dir));
     }
 
     @ApiOperation("单文件上传,支持同时传入参数,Model")
     @PostMapping("/upload/single/model")
     public String singleUploadFileModel(@ModelAttribute("model") UploadModel2 model) {
-        return FileTransUtil.uploadFile(model.getFile(), model.getDir());
+        return uploadThrottle.execute(() -> FileTransUtil.uploadFile(model.getFile(), model.getDir()));
     }
 
-    @ApiOperation("多文件上传,支持同时传入参数")
+    @ApiOperation("多文件上传,支持同时传入参数,并行保存并返回每个文件的结果")
     @PostMapping("upload/multiAndparas")
-    public String uploadFileMulti(@RequestParam("dir") String dir, @RequestParam("files") MultipartFile[] uploadfiles) {
-        return FileTransUtil.uploadFiles(uploadfiles, dir);
+    public ResultVO<List<UploadResultVo>> uploadFileMulti(@RequestParam("dir") String dir, @RequestParam("files") MultipartFile[] uploadfiles) {
+        return uploadMulti(uploadfiles, dir);
     }
 
-    @ApiOperation("多文件上传,支持同时传入参数")
+    @ApiOperation("多文件上传,支持同时传入参数,并行保存并返回每个文件的结果")
     @PostMapping(value = "/upload/multi/model")
-    public String multiUploadFileModel(@ModelAttribute(("model")) UploadModel model) {
-        return FileTransUtil.uploadFiles(model.getFiles(), model.getDir());
+    public ResultVO<List<UploadResultVo>> multiUploadFileModel(@ModelAttribute(("model")) UploadModel model) {
+        return uploadMulti(model.getFiles(), model.getDir());
+    }
+
+    private ResultVO<List<UploadResultVo>> uploadMulti(MultipartFile[] uploadfiles, String dir) {
+        if (uploadfiles == null || uploadfiles.length == 0) {
+            return new ResultVO<>(-1, "文件名不能为空", null);
+        }
+        List<UploadResultVo> resultList = uploadThrottle.execute(() -> parallelUploader.uploadFiles(uploadfiles, dir), null);
+        if (resultList == null) {
+            return new ResultVO<>(-1, UploadThrottle.BUSY_MESSAGE, null);
+        }
+        long failedCount = resultList.stream().filter(result -> !result.getSuccess()).count();
+        if (failedCount > 0) {
+            return new ResultVO<>(-1, "有" + failedCount + "个文件上传失败", resultList);
+        }
+        return new ResultVO<>(0, "文件上传成功", resultList);
     }
 
-    @ApiOperation("Get下载文件")
-    @GetMapping(value = "/download/get")
-    public ResponseEntity<InputStreamResource> downloadFileGet(@RequestParam String filePath) throws IOException {
-        return FileTransUtil.downloadFile(filePath);
+    @ApiOperation("Get下载文件，支持Range断点续传和ETag/Last-Modified条件请求")
+    @RequestMapping(value = "/download/get", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadFileGet(@RequestParam String filePath, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileTransUtil.downloadFile(filePath, request, response);
     }
 
     @ApiOperation("Post下载文件")
     @PostMapping(value = "/download/post")
-    public ResponseEntity<InputStreamResource> downloadFilePost(@RequestBody DownloadQo downloadQo) throws IOException {
-        return FileTransUtil.downloadFile(downloadQo.getPath());
+    public void downloadFilePost(@RequestBody DownloadQo downloadQo, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileTransUtil.downloadFile(downloadQo.getPath(), request, response);
+    }
+
+    @ApiOperation("上传文件到按内容寻址的存储，返回文件的访问地址，相同内容的文件只存一份")
+    @PostMapping("/blob/upload")
+    public ResultVO<String> uploadBlob(@RequestParam("file") MultipartFile uploadfile) {
+        if (uploadfile.isEmpty()) {
+            return new ResultVO<>(-1, "文件不能为空", null);
+        }
+        return uploadThrottle.execute(() -> {
+            try (InputStream in = uploadfile.getInputStream()) {
+                String hash = blobStore.put(in);
+                return new ResultVO<>(0, "文件上传成功", avatarResolver.urlOf(hash));
+            } catch (IOException e) {
+                log.error("保存文件失败", e);
+                return new ResultVO<>(-1, "后台服务异常", null);
+            }
+        }, new ResultVO<>(-1, UploadThrottle.BUSY_MESSAGE, null));
+    }
+
+    @ApiOperation("按内容的SHA-256获取文件，内容永远不会变，浏览器可以一直缓存")
+    @RequestMapping(value = "/blob/{hash}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadBlob(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        File file = blobStore.get(hash);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String contentType = blobStore.contentTypeOf(file);
+        // 只有图片直接在浏览器里显示，其它类型一律当附件下载，防止上传的html被当成本站的页面执行
+        boolean image = contentType.startsWith("image/");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        FileDownloader.send(file, contentType, !image, "public, max-age=31536000, immutable", request, response);
     }
 }
@@ -0,0 +1,35 @@
+package com.huawei.l00379880.exam.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 用构造函数投影直接查出来，不是实体，不会被持久化上下文管理，流式查询几万条也不会越积越多
+ */
+@Data
+public class ExamRecordExportDTO {
+    private String examRecordId;
+    private String examJoinerId;
+    private String userUsername;
+    private String userNickname;
+    private Date examJoinDate;
+    private Integer examTimeCost;
+    private Integer examJoinScore;
+    private Integer examResultLevel;
+    private byte[] answerData;
+    private String answerOptionIds;
+
+    public ExamRecordExportDTO(String examRecordId, String examJoinerId, String userUsername, String userNickname, Date examJoinDate, Integer examTimeCost, Integer examJoinScore, Integer examResultLevel, byte[] answerData, String answerOptionIds) {
+        this.examRecordId = examRecordId;
+        this.examJoinerId = examJoinerId;
+        this.userUsername = userUsername;
+        this.userNickname = userNickname;
+        this.examJoinDate = examJoinDate;
+        this.examTimeCost = examTimeCost;
+        this.examJoinScore = examJoinScore;
+        this.examResultLevel = examResultLevel;
+        this.answerData = answerData;
+        this.answerOptionIds = answerOptionIds;
+    }
+}
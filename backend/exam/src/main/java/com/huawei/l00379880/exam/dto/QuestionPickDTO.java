@@ -0,0 +1,21 @@
+package com.huawei.l00379880.exam.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 用构造函数投影直接查出来，不加载题目描述、选项等大字段，也不进持久化上下文
+ */
+@Data
+public class QuestionPickDTO {
+    private String questionId;
+    private String questionName;
+    private Date updateTime;
+
+    public QuestionPickDTO(String questionId, String questionName, Date updateTime) {
+        this.questionId = questionId;
+        this.questionName = questionName;
+        this.updateTime = updateTime;
+    }
+}
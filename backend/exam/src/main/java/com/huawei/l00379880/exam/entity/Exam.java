@@ -9,14 +9,17 @@ package com.huawei.l00379880.exam.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 import java.util.Date;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Data
 @DynamicUpdate
 public class Exam {
@@ -35,6 +38,10 @@ public class Exam {
     private Integer examScoreJudge;
     private String examCreatorId;
     private Integer examTimeLimit;
+    /**
+     * 考试状态，和ExamStatusEnum对应：0草稿、1已发布、2已结束。发布后题目被固定到发布时的版本
+     */
+    private Integer examStatus;
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private Date examStartDate;
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
@@ -0,0 +1,55 @@
+package com.huawei.l00379880.exam.entity;
+
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Data
+@Entity
+@EntityListeners(EntityChangeListener.class)
+@IdClass(ExamQuestion.Key.class)
+@Table(indexes = {
+        // 查询"哪些考试用到了某道题"
+        @Index(name = "idx_exam_question_question_id", columnList = "question_id"),
+        // 按照题型和顺序加载一场考试的所有题目
+        @Index(name = "idx_exam_question_exam_type_sort", columnList = "exam_id,question_type_id,sort_order")
+})
+public class ExamQuestion {
+    @Id
+    @Column(name = "exam_id")
+    private String examId;
+
+    @Id
+    @Column(name = "question_id")
+    private String questionId;
+
+    /**
+     * 题目在考试中所属的题型，和QuestionEnum对应：1单选、2多选、3判断
+     */
+    @Column(name = "question_type_id")
+    private Integer questionTypeId;
+
+    /**
+     * 题目在所属题型中的顺序，从0开始
+     */
+    @Column(name = "sort_order")
+    private Integer sortOrder;
+
+    /**
+     * 考试发布时固定下来的题目版本，对应QuestionSnapshot。草稿状态的考试为null，使用题目的最新内容
+     */
+    @Column(name = "question_version")
+    private Integer questionVersion;
+
+    /**
+     * 联合主键
+     */
+    @Data
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String examId;
+        private String questionId;
+    }
+}
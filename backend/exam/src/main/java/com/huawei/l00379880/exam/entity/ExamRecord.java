@@ -8,10 +8,12 @@ package com.huawei.l00379880.exam.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Lob;
 import java.util.Date;
 
 @Data
@@ -28,10 +30,18 @@ public class ExamRecord {
     private String examId;
 
     /**
-     * 考生作答地每个题目的选项(题目和题目之间用_分隔，题目有多个选项地话用-分隔),用于查看考试详情
+     * 考生作答地每个题目的选项(题目和题目之间用_分隔，题目有多个选项地话用-分隔),用于查看考试详情。
+     * 老格式的记录才有值，新记录存在answerData中，这里是空串
      */
     private String answerOptionIds;
 
+    /**
+     * 二进制格式的作答详情，按序号引用题目和选项，格式见AnswerRecordCodec
+     */
+    @Lob
+    @JsonIgnore
+    private byte[] answerData;
+
     /**
      * 参与者，即user的id
      */
@@ -6,14 +6,17 @@
  ***********************************************************/
 package com.huawei.l00379880.exam.entity;
 
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 
 @Data
 @Entity
+@EntityListeners(EntityChangeListener.class)
 public class Page {
     @Id
     @GeneratedValue
@@ -8,15 +8,18 @@ package com.huawei.l00379880.exam.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 import java.util.Date;
 
 @Data
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @DynamicUpdate
 public class Question {
     @Id
@@ -30,6 +33,10 @@ public class Question {
     private String questionDescription;
     private String questionOptionIds;
     private String questionAnswerOptionIds;
+    /**
+     * 题目内容的版本，从1开始，每次修改题目加1。已发布的考试引用的是发布时的版本，见QuestionSnapshot
+     */
+    private Integer questionVersion;
     /**
      * 创建时间, 设计表时设置了自动插入当前时间，无需在Java代码中设置了
      */
@@ -0,0 +1,49 @@
+package com.huawei.l00379880.exam.entity;
+
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 题目的每个选项对应一行，answer标记这个选项是不是正确答案
+ */
+@Data
+@Entity
+@EntityListeners(EntityChangeListener.class)
+@IdClass(QuestionAnswer.Key.class)
+@Table(indexes = {
+        @Index(name = "idx_question_answer_question_sort", columnList = "question_id,sort_order"),
+        @Index(name = "idx_question_answer_option_id", columnList = "question_option_id")
+})
+public class QuestionAnswer {
+    @Id
+    @Column(name = "question_id")
+    private String questionId;
+
+    @Id
+    @Column(name = "question_option_id")
+    private String questionOptionId;
+
+    /**
+     * 选项在题目中的顺序，从0开始
+     */
+    @Column(name = "sort_order")
+    private Integer sortOrder;
+
+    /**
+     * 当前选项是不是题目的答案
+     */
+    private Boolean answer;
+
+    /**
+     * 联合主键
+     */
+    @Data
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String questionId;
+        private String questionOptionId;
+    }
+}
@@ -8,13 +8,16 @@ package com.huawei.l00379880.exam.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Data
 public class QuestionLevel {
     @Id
@@ -7,13 +7,16 @@
 package com.huawei.l00379880.exam.entity;
 
 
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 
 @Data
 @Entity
+@EntityListeners(EntityChangeListener.class)
 public class QuestionOption {
     @Id
     private String questionOptionId;
@@ -0,0 +1,60 @@
+package com.huawei.l00379880.exam.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 快照写入后不再修改，所以不需要EntityChangeListener
+ */
+@Data
+@Entity
+@IdClass(QuestionSnapshot.Key.class)
+public class QuestionSnapshot {
+    @Id
+    @Column(name = "question_id")
+    private String questionId;
+
+    @Id
+    @Column(name = "question_version")
+    private Integer questionVersion;
+
+    private String questionName;
+
+    private String questionDescription;
+
+    private Integer questionTypeId;
+
+    /**
+     * 按照顺序排列的选项和是否是答案，JSON数组，每个元素是一个Option
+     */
+    @Lob
+    private String optionData;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private Date createTime;
+
+    /**
+     * 联合主键
+     */
+    @Data
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String questionId;
+        private Integer questionVersion;
+    }
+
+    /**
+     * 快照中的一个选项
+     */
+    @Data
+    public static class Option {
+        private String questionOptionId;
+        private String questionOptionContent;
+        private String questionOptionDescription;
+        private Boolean answer;
+    }
+}
@@ -8,14 +8,17 @@ package com.huawei.l00379880.exam.entity;
 
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
 import lombok.Data;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 
 @Data
 @Entity
+@EntityListeners(EntityChangeListener.class)
 public class QuestionType {
     @Id
     @GeneratedValue
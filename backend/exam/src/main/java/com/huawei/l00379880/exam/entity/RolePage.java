@@ -0,0 +1,41 @@
+package com.huawei.l00379880.exam.entity;
+
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Data
+@Entity
+@EntityListeners(EntityChangeListener.class)
+@IdClass(RolePage.Key.class)
+@Table(indexes = {
+        @Index(name = "idx_role_page_role_sort", columnList = "role_id,sort_order"),
+        @Index(name = "idx_role_page_page_id", columnList = "page_id")
+})
+public class RolePage {
+    @Id
+    @Column(name = "role_id")
+    private Integer roleId;
+
+    @Id
+    @Column(name = "page_id")
+    private Integer pageId;
+
+    /**
+     * 页面在角色权限列表中的顺序，从0开始
+     */
+    @Column(name = "sort_order")
+    private Integer sortOrder;
+
+    /**
+     * 联合主键
+     */
+    @Data
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private Integer roleId;
+        private Integer pageId;
+    }
+}
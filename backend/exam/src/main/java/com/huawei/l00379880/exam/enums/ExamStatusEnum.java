@@ -0,0 +1,41 @@
+package com.huawei.l00379880.exam.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum ExamStatusEnum {
+
+    /**
+     * 考试的生命周期，草稿 -> 已发布 -> 已结束。只有已发布的考试可以交卷，发布后题目内容固定不变
+     */
+    DRAFT(0, "草稿"),
+    PUBLISHED(1, "已发布"),
+    CLOSED(2, "已结束");
+
+
+    ExamStatusEnum(Integer code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    private Integer code;
+    private String message;
+
+    /**
+     * 升级前的考试没有状态，当成已发布处理
+     *
+     * @param code 考试状态
+     * @return 考试的题目是否已经固定到某个版本
+     */
+    public static boolean isPinned(Integer code) {
+        return !DRAFT.code.equals(code);
+    }
+
+    /**
+     * @param code 考试状态
+     * @return 考试是否可以交卷
+     */
+    public static boolean isOpen(Integer code) {
+        return code == null || PUBLISHED.code.equals(code);
+    }
+}
@@ -15,7 +15,14 @@ public enum ResultEnum {
     PRODUCT_STOCK_ERR(11, "考试信息异常"),
     ORDER_STATUS_ERR(14, "考试状态异常"),
     ORDER_UPDATE_ERR(15, "考试更新异常"),
-    ORDER_DETAIL_EMPTY(16, "用户详情为空");
+    ORDER_DETAIL_EMPTY(16, "用户详情为空"),
+    SUBMISSION_BUSY(20, "提交的人数太多了，请稍后重试"),
+    SUBMISSION_NOT_FOUND(21, "提交凭证不存在或者已经过期"),
+    RECORD_LAYOUT_CHANGED(22, "考试的题目或选项已经变化，无法还原作答详情"),
+    EXAM_NOT_OPEN(23, "考试还没有发布或者已经结束"),
+    EXAM_QUESTION_DUPLICATED(24, "同一道题不能同时作为多种题型出现在考试中"),
+    EXPORT_FORBIDDEN(25, "只有考试的创建者、管理员和教师才能导出成绩"),
+    QUESTION_SNAPSHOT_MISSING(26, "考试中这道题的快照不存在");
 
     ResultEnum(Integer code, String message) {
         this.code = code;
@@ -0,0 +1,26 @@
+package com.huawei.l00379880.exam.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum SubmissionStatusEnum {
+
+    /**
+     * 答卷的处理状态，排队中 -> 已判分 -> 已完成，中间出错的话是失败。
+     * 凭证只保存在内存中，服务在入库前重启的话答卷会丢失，之后查询这个凭证得到的是未知，需要考生重新交卷
+     */
+    QUEUED(0, "排队中"),
+    GRADED(1, "已判分，正在保存"),
+    FINISHED(2, "已完成"),
+    FAILED(-1, "判分失败"),
+    UNKNOWN(-2, "没有找到这次提交，可能在保存前服务重启了，请在考试记录中确认，没有记录的话请重新交卷");
+
+
+    SubmissionStatusEnum(Integer code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    private Integer code;
+    private String message;
+}
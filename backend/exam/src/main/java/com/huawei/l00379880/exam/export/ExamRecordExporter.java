@@ -0,0 +1,312 @@
+package com.huawei.l00379880.exam.export;
+
+import com.huawei.l00379880.exam.dto.ExamRecordExportDTO;
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.Question;
+import com.huawei.l00379880.exam.entity.User;
+import com.huawei.l00379880.exam.enums.RoleEnum;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.judge.AnswerRecordCodec;
+import com.huawei.l00379880.exam.judge.ExamAnswerKey;
+import com.huawei.l00379880.exam.repository.ExamRecordRepository;
+import com.huawei.l00379880.exam.repository.ExamRepository;
+import com.huawei.l00379880.exam.repository.QuestionRepository;
+import com.huawei.l00379880.exam.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 大课一场考试有两万多份答卷，这里从数据库流式地读一行写一行，内存占用和记录数无关：
+ * <ul>
+ * <li>考试记录和考生用构造函数投影一次查出来，fetch size设置为流式读取，查出来的不是实体，不会堆积在持久化上下文里</li>
+ * <li>每道题的对错直接从二进制的作答详情中解码，不还原选项</li>
+ * <li>CSV直接写到输出流；Excel用SXSSF，内存里只保留最近的100行，其余的刷到临时文件</li>
+ * </ul>
+ * 每道题一列，答对是√，答错是×，没有作答是空
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class ExamRecordExporter {
+
+    /**
+     * SXSSF在内存中保留的行数
+     */
+    private static final int XLSX_WINDOW_SIZE = 100;
+
+    private static final String[] FIXED_HEADERS = {"记录id", "考生id", "用户名", "昵称", "交卷时间", "用时(秒)", "得分", "等级"};
+
+    private final ExamRepository examRepository;
+
+    private final ExamRecordRepository examRecordRepository;
+
+    private final QuestionRepository questionRepository;
+
+    private final AnswerKeyCache answerKeyCache;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExamRecordExporter(ExamRepository examRepository, ExamRecordRepository examRecordRepository, QuestionRepository questionRepository, AnswerKeyCache answerKeyCache, UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.examRepository = examRepository;
+        this.examRecordRepository = examRecordRepository;
+        this.questionRepository = questionRepository;
+        this.answerKeyCache = answerKeyCache;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 准备导出，考试不存在或者没有权限时抛出异常，这时候还没有往响应里写任何东西。
+     * 成绩里有所有考生的用户名和昵称，只有考试的创建者、管理员和教师能导出
+     *
+     * @param examId 考试id
+     * @param userId 当前登录的用户id
+     * @return 导出需要的考试信息
+     */
+    public Export prepare(String examId, String userId) {
+        Exam exam = examRepository.findById(examId).orElseThrow(() -> new ExamException(ResultEnum.PARAM_ERR));
+        if (!canExport(exam, userId)) {
+            throw new ExamException(ResultEnum.EXPORT_FORBIDDEN);
+        }
+        ExamAnswerKey answerKey = answerKeyCache.get(examId);
+        List<String> questionIds = new ArrayList<>(answerKey.getQuestionCount());
+        for (int i = 0; i < answerKey.getQuestionCount(); i++) {
+            questionIds.add(answerKey.questionIdAt(i));
+        }
+        Map<String, String> questionNameMap = new HashMap<>();
+        for (Question question : questionRepository.findAllById(questionIds)) {
+            questionNameMap.put(question.getQuestionId(), question.getQuestionName());
+        }
+        List<String> headers = new ArrayList<>(Arrays.asList(FIXED_HEADERS));
+        for (int i = 0; i < questionIds.size(); i++) {
+            headers.add((i + 1) + "." + questionNameMap.getOrDefault(questionIds.get(i), ""));
+        }
+        return new Export(exam, answerKey, headers);
+    }
+
+    /**
+     * 导出为UTF-8的CSV，开头带BOM，Excel直接打开不会乱码
+     *
+     * @param export prepare的结果
+     * @param out    响应的输出流，不会被关闭
+     * @return 导出的记录数
+     * @throws IOException 写出失败，一般是客户端断开了
+     */
+    public int exportCsv(Export export, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+        writeCsvLine(writer, export.headers.toArray());
+        int count;
+        try {
+            count = stream(export, cells -> {
+                try {
+                    writeCsvLine(writer, cells);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 导出为Excel
+     *
+     * @param export prepare的结果
+     * @param out    响应的输出流，不会被关闭
+     * @return 导出的记录数
+     * @throws IOException 写出失败，一般是客户端断开了
+     */
+    public int exportXlsx(Export export, OutputStream out) throws IOException {
+        // SXSSF默认不用共享字符串表，字符串直接写在单元格里，不会随着行数增长
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_WINDOW_SIZE);
+        try {
+            Sheet sheet = workbook.createSheet(safeSheetName(export.exam.getExamName()));
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < export.headers.size(); i++) {
+                headerRow.createCell(i).setCellValue(export.headers.get(i));
+            }
+            int[] rowNo = {1};
+            int count = stream(export, cells -> {
+                Row row = sheet.createRow(rowNo[0]++);
+                for (int i = 0; i < cells.length; i++) {
+                    Object value = cells[i];
+                    if (value == null) {
+                        continue;
+                    }
+                    Cell cell = row.createCell(i);
+                    if (value instanceof Number) {
+                        cell.setCellValue(((Number) value).doubleValue());
+                    } else {
+                        cell.setCellValue(value.toString());
+                    }
+                }
+            });
+            workbook.write(out);
+            out.flush();
+            return count;
+        } finally {
+            // 删掉SXSSF的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 在只读事务中流式地读取所有记录，每条记录转成一行交给rowHandler
+     */
+    private int stream(Export export, RowHandler rowHandler) {
+        ExamAnswerKey answerKey = export.answerKey;
+        int questionCount = answerKey.getQuestionCount();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT+8"));
+        Integer count = readOnlyTransaction.execute(status -> {
+            int rows = 0;
+            byte[] results = new byte[questionCount];
+            Object[] cells = new Object[FIXED_HEADERS.length + questionCount];
+            try (Stream<ExamRecordExportDTO> records = examRecordRepository.streamExportByExamId(export.exam.getExamId())) {
+                Iterator<ExamRecordExportDTO> iterator = records.iterator();
+                while (iterator.hasNext()) {
+                    ExamRecordExportDTO record = iterator.next();
+                    cells[0] = record.getExamRecordId();
+                    cells[1] = record.getExamJoinerId();
+                    cells[2] = record.getUserUsername();
+                    cells[3] = record.getUserNickname();
+                    cells[4] = record.getExamJoinDate() == null ? null : dateFormat.format(record.getExamJoinDate());
+                    cells[5] = record.getExamTimeCost();
+                    cells[6] = record.getExamJoinScore();
+                    cells[7] = record.getExamResultLevel();
+                    decodeResults(answerKey, record, results);
+                    for (int i = 0; i < questionCount; i++) {
+                        cells[FIXED_HEADERS.length + i] = results[i] == AnswerRecordCodec.CORRECT ? "√"
+                                : results[i] == AnswerRecordCodec.WRONG ? "×" : null;
+                    }
+                    rowHandler.accept(cells);
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private static void decodeResults(ExamAnswerKey answerKey, ExamRecordExportDTO record, byte[] results) {
+        Arrays.fill(results, (byte) 0);
+        try {
+            if (record.getAnswerData() != null && record.getAnswerData().length > 0) {
+                AnswerRecordCodec.decodeResults(answerKey, record.getAnswerData(), results);
+            } else {
+                // 老格式的记录
+                Map<String, List<String>> answersMap = new HashMap<>();
+                Map<String, String> resultsMap = new HashMap<>();
+                AnswerRecordCodec.decodeLegacy(record.getAnswerOptionIds(), answersMap, resultsMap);
+                for (Map.Entry<String, String> entry : resultsMap.entrySet()) {
+                    int index = answerKey.indexOf(entry.getKey());
+                    if (index >= 0) {
+                        results[index] = "True".equals(entry.getValue()) ? AnswerRecordCodec.CORRECT : AnswerRecordCodec.WRONG;
+                    }
+                }
+            }
+        } catch (ExamException e) {
+            // 考试的题目改过，这条记录的每题对错还原不出来，只导出总分
+            Arrays.fill(results, (byte) 0);
+        }
+    }
+
+    private boolean canExport(Exam exam, String userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (userId.equals(exam.getExamCreatorId())) {
+            return true;
+        }
+        Integer roleId = userRepository.findById(userId).map(User::getUserRoleId).orElse(null);
+        return RoleEnum.ADMIN.getId().equals(roleId) || RoleEnum.TEACHER.getId().equals(roleId);
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = cells[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (!(value instanceof Number) && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                // 防止用户名之类被Excel当成公式执行，Excel会忽略开头的制表符和回车，所以它们后面也可能跟着公式
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Excel的工作表名最多31个字符，不能包含[]:*?/\
+     */
+    private static String safeSheetName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return "成绩";
+        }
+        String safe = name.replaceAll("[\\[\\]:*?/\\\\]", "_");
+        return safe.length() > 31 ? safe.substring(0, 31) : safe;
+    }
+
+    /**
+     * 一行数据的处理，cells会被复用，不能保存下来
+     */
+    private interface RowHandler {
+        void accept(Object[] cells);
+    }
+
+    /**
+     * 导出需要的考试信息
+     */
+    public static final class Export {
+        private final Exam exam;
+        private final ExamAnswerKey answerKey;
+        private final List<String> headers;
+
+        Export(Exam exam, ExamAnswerKey answerKey, List<String> headers) {
+            this.exam = exam;
+            this.answerKey = answerKey;
+            this.headers = headers;
+        }
+
+        /**
+         * @return 导出的文件名，不带后缀
+         */
+        public String getFileName() {
+            return (exam.getExamName() == null ? exam.getExamId() : exam.getExamName()) + "-成绩";
+        }
+    }
+}
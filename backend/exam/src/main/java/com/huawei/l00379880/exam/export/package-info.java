@@ -0,0 +1,4 @@
+/*
+ * Description : 考试成绩的导出，流式地写CSV和Excel
+ */
+package com.huawei.l00379880.exam.export;
@@ -0,0 +1,130 @@
+package com.huawei.l00379880.exam.file;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+
+/**
+ * 考试卡片列表里每张卡片的头像都是外部地址，每个浏览器都要去外部拉一遍图片。
+ * 第一次遇到某个外部地址时在后台把图片拉到BlobStore里，之后返回给前端的都是本地地址
+ * (/file/blob/哈希)，浏览器可以永久缓存。后台还没拉完或者拉取失败时先返回原地址，不阻塞请求。
+ * 地址和哈希的对应关系只存在内存里，重启后每个地址会再拉一次，内容相同的文件不会重复存储。
+ * 内网地址和不是图片的内容会被BlobStore拒绝，这类地址按拉取失败处理，一直返回原地址
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class AvatarResolver {
+
+    /**
+     * 拉取失败的地址过多久再试(毫秒)
+     */
+    private static final long RETRY_INTERVAL = 10 * 60 * 1000L;
+
+    /**
+     * 最多记录多少个地址，头像的地址数量和考试数、用户数差不多，超过了说明数据有问题，不再拉取新的地址
+     */
+    private static final int MAX_ENTRIES = 100000;
+
+    private final BlobStore blobStore;
+
+    /**
+     * 本地地址的前缀，例如/api/file/blob/
+     */
+    private final String blobUrlPrefix;
+
+    /**
+     * 外部地址 -> 内容的SHA-256
+     */
+    private final ConcurrentMap<String, String> hashMap = new ConcurrentHashMap<>();
+
+    /**
+     * 外部地址 -> 上次拉取失败的时间，正在拉取的地址值为0
+     */
+    private final ConcurrentMap<String, Long> pendingMap = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor fetchPool;
+
+    public AvatarResolver(BlobStore blobStore, @Value("${server.servlet.context-path:}") String contextPath) {
+        this.blobStore = blobStore;
+        this.blobUrlPrefix = (contextPath == null ? "" : contextPath) + "/file/blob/";
+    }
+
+    @PostConstruct
+    public void init() {
+        fetchPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                r -> {
+                    Thread thread = new Thread(r, "exam-avatar-fetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @param url 头像地址
+     * @return 已经存到本地的话返回本地地址，否则返回原地址
+     */
+    public String resolve(String url) {
+        if (url == null || url.startsWith(blobUrlPrefix) || !(url.startsWith("http://") || url.startsWith("https://"))) {
+            return url;
+        }
+        String hash = hashMap.get(url);
+        if (hash != null) {
+            return blobUrlPrefix + hash;
+        }
+        scheduleFetch(url);
+        return url;
+    }
+
+    /**
+     * @param hash 内容的SHA-256
+     * @return 本地地址
+     */
+    public String urlOf(String hash) {
+        return blobUrlPrefix + hash;
+    }
+
+    private void scheduleFetch(String url) {
+        long now = System.currentTimeMillis();
+        Long lastFailure = pendingMap.get(url);
+        if (lastFailure != null && (lastFailure == 0 || now - lastFailure < RETRY_INTERVAL)) {
+            // 正在拉取，或者刚失败过
+            return;
+        }
+        if (hashMap.size() + pendingMap.size() >= MAX_ENTRIES) {
+            return;
+        }
+        boolean claimed = lastFailure == null ? pendingMap.putIfAbsent(url, 0L) == null : pendingMap.replace(url, lastFailure, 0L);
+        if (!claimed) {
+            return;
+        }
+        try {
+            fetchPool.execute(() -> fetch(url));
+        } catch (RejectedExecutionException e) {
+            pendingMap.remove(url);
+        }
+    }
+
+    private void fetch(String url) {
+        try {
+            String hash = blobStore.putUrl(url);
+            hashMap.put(url, hash);
+            pendingMap.remove(url);
+            log.info("头像{}已经保存到本地：{}", url, hash);
+        } catch (Exception e) {
+            pendingMap.put(url, System.currentTimeMillis());
+            log.warn("拉取头像{}失败：{}", url, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchPool.shutdownNow();
+    }
+}
@@ -0,0 +1,235 @@
+package com.huawei.l00379880.exam.file;
+
+import cn.hutool.core.util.HexUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 文件按照内容的SHA-256存放：root/ab/cd/abcd...，前两级目录按照哈希的前4个字符分片，避免一个目录下文件太多。
+ * 相同内容的文件只存一份，文件一旦写入就不会再变，所以可以让浏览器永久缓存。
+ * 写入时先写到root/tmp下的临时文件，算完哈希后再原子地移动到最终位置，读的人不会看到写了一半的文件。
+ * 存储中的文件不需要登录就能访问，所以从网络上拉取时只允许访问公网地址，并且只保存图片，
+ * 防止有人把头像地址填成内网服务的地址，通过/file/blob/把内网的数据读出来
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 拉取网络文件时最多跟随几次重定向
+     */
+    private static final int MAX_REDIRECTS = 3;
+
+    private final Path root;
+
+    private final Path tmpDir;
+
+    /**
+     * 从网络上拉取的文件的最大字节数
+     */
+    @Value("${exam.blob.max-remote-size:10485760}")
+    private long maxRemoteSize = 10 * 1024 * 1024;
+
+    /**
+     * 允许拉取的域名，用逗号隔开，配置example.com时也允许它的子域名。不配置的话允许所有公网地址
+     */
+    @Value("${exam.blob.remote-allowed-hosts:}")
+    private String[] remoteAllowedHosts = new String[0];
+
+    public BlobStore(@Value("${exam.blob.root:data/blobs}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        log.info("文件存储目录：{}", this.root);
+    }
+
+    /**
+     * 保存文件内容
+     *
+     * @param in 文件内容，调用方负责关闭
+     * @return 内容的SHA-256
+     * @throws IOException 读取或者写入失败
+     */
+    public String put(InputStream in) throws IOException {
+        return put(in, Long.MAX_VALUE);
+    }
+
+    /**
+     * 下载网络上的图片并保存。重定向由这里自己处理，每一跳都重新检查地址
+     *
+     * @param url 只支持http和https，并且只能是公网地址
+     * @return 内容的SHA-256
+     * @throws IOException 下载或者写入失败，地址不允许访问、内容不是图片或者文件太大也会失败
+     */
+    public String putUrl(String url) throws IOException {
+        URL remote = new URL(url);
+        for (int redirects = 0; ; redirects++) {
+            checkRemote(remote);
+            HttpURLConnection conn = (HttpURLConnection) remote.openConnection();
+            conn.setInstanceFollowRedirects(false);
+            conn.setConnectTimeout(5 * 1000);
+            conn.setReadTimeout(10 * 1000);
+            try {
+                int code = conn.getResponseCode();
+                if (code >= HttpURLConnection.HTTP_MULT_CHOICE && code < HttpURLConnection.HTTP_BAD_REQUEST && code != HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    String location = conn.getHeaderField("Location");
+                    if (location == null || redirects >= MAX_REDIRECTS) {
+                        throw new IOException("下载" + url + "失败，重定向次数太多或者没有目标地址");
+                    }
+                    remote = new URL(remote, location);
+                    continue;
+                }
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("下载" + url + "失败，状态码" + code);
+                }
+                String contentType = conn.getContentType();
+                if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+                    throw new IOException(url + "不是图片：" + contentType);
+                }
+                if (conn.getContentLengthLong() > maxRemoteSize) {
+                    throw new IOException(url + "太大了：" + conn.getContentLengthLong() + "字节");
+                }
+                try (InputStream in = new BufferedInputStream(conn.getInputStream())) {
+                    // 响应头可以随便写，再按内容检查一遍，和downloadBlob判断是否当成图片显示用的是同一个方法
+                    String sniffedType = URLConnection.guessContentTypeFromStream(in);
+                    if (sniffedType == null || !sniffedType.startsWith("image/")) {
+                        throw new IOException(url + "的内容不是图片：" + sniffedType);
+                    }
+                    return put(in, maxRemoteSize);
+                }
+            } finally {
+                conn.disconnect();
+            }
+        }
+    }
+
+    /**
+     * 检查地址是否允许访问：只能是http或https，域名在允许的范围内，并且解析出来的所有IP都不是本机或者内网地址。
+     * JDK会缓存域名解析的结果，紧接着建立连接时用的就是这里检查过的IP
+     */
+    private void checkRemote(URL remote) throws IOException {
+        if (!"http".equals(remote.getProtocol()) && !"https".equals(remote.getProtocol())) {
+            throw new IOException("不支持的地址：" + remote);
+        }
+        String host = remote.getHost().toLowerCase(Locale.ROOT);
+        if (host.isEmpty() || !isAllowedHost(host)) {
+            throw new IOException("不允许访问的域名：" + remote);
+        }
+        for (InetAddress address : InetAddress.getAllByName(host)) {
+            if (isInternalAddress(address)) {
+                throw new IOException("不允许访问内网地址：" + remote);
+            }
+        }
+    }
+
+    private boolean isAllowedHost(String host) {
+        if (remoteAllowedHosts.length == 0) {
+            return true;
+        }
+        for (String allowedHost : remoteAllowedHosts) {
+            String allowed = allowedHost.trim().toLowerCase(Locale.ROOT);
+            if (!allowed.isEmpty() && (host.equals(allowed) || host.endsWith("." + allowed))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInternalAddress(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        // isSiteLocalAddress只认已经废弃的fec0::/10，IPv6的内网地址是fc00::/7
+        return address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc;
+    }
+
+    /**
+     * @param hash 内容的SHA-256
+     * @return 对应的文件，不存在或者hash格式不对时返回null
+     */
+    public File get(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return null;
+        }
+        File file = pathOf(hash).toFile();
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * 根据文件开头的几个字节猜文件类型，存储时不保留文件名，所以没法按后缀判断
+     *
+     * @param file 存储中的文件
+     * @return 文件类型，猜不出来时返回application/octet-stream
+     */
+    public String contentTypeOf(File file) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            String contentType = URLConnection.guessContentTypeFromStream(in);
+            return contentType == null ? "application/octet-stream" : contentType;
+        } catch (IOException e) {
+            return "application/octet-stream";
+        }
+    }
+
+    private String put(InputStream in, long maxSize) throws IOException {
+        MessageDigest digest = newSha256();
+        Path tmp = Files.createTempFile(tmpDir, "blob", ".tmp");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    size += len;
+                    if (size > maxSize) {
+                        throw new IOException("文件超过了" + maxSize + "字节");
+                    }
+                    digest.update(buffer, 0, len);
+                    out.write(buffer, 0, len);
+                }
+            }
+            String hash = HexUtil.encodeHexStr(digest.digest());
+            Path target = pathOf(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // 别的线程同时存了相同的内容，用已有的那份就行
+                    log.debug("文件{}已经存在", hash);
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有的JDK都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.huawei.l00379880.exam.file;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 开考时所有考生会同时下载考试附件，这里尽量让每次下载都便宜：
+ * <ul>
+ * <li>带上ETag和Last-Modified，浏览器再次下载时用If-None-Match/If-Modified-Since校验，没变就返回304</li>
+ * <li>支持单个Range和If-Range，下载中断后可以从断点继续，文件变了就从头下载</li>
+ * <li>Tomcat支持sendfile时把文件交给Tomcat用sendfile发送，文件内容不经过JVM；
+ * 否则用FileChannel.transferTo发送</li>
+ * </ul>
+ * 多个Range的请求按照规范可以忽略，这里直接返回整个文件
+ *
+ * @author liangshanguang
+ */
+@Slf4j
+public final class FileDownloader {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于这个大小的文件直接写，用sendfile反而不划算
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private FileDownloader() {
+    }
+
+    /**
+     * 以附件的形式发送文件，浏览器每次使用前都要用ETag校验一下
+     *
+     * @param file     要下载的文件
+     * @param request  请求，用到其中的Range和条件请求头
+     * @param response 响应
+     * @throws IOException 文件读取或者写出异常
+     */
+    public static void send(File file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(file, "application/octet-stream", true, "private, no-cache", request, response);
+    }
+
+    /**
+     * 发送文件
+     *
+     * @param file         要下载的文件
+     * @param contentType  文件的类型
+     * @param attachment   是否以附件的形式下载，图片之类直接显示的传false
+     * @param cacheControl Cache-Control响应头
+     * @param request      请求，用到其中的Range和条件请求头
+     * @param response     响应
+     * @throws IOException 文件读取或者写出异常
+     */
+    public static void send(File file, String contentType, boolean attachment, String cacheControl, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!file.isFile() || !file.canRead()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = file.length();
+        // 文件系统的修改时间可能精确到毫秒，而HTTP的日期只精确到秒
+        long lastModified = file.lastModified() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", cacheControl);
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        if (range != null && isIfRangeMatched(request, etag, lastModified)) {
+            long[] parsed = parseRange(range, length);
+            if (parsed == null) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        if (attachment) {
+            response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", new String(file.getName().getBytes("gbk"), "iso-8859-1")));
+        }
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat在请求处理结束后用sendfile发送，结束位置不包含在内
+            request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * If-None-Match优先于If-Modified-Since
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return "*".equals(ifNoneMatch.trim()) || matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * If-Range的值和当前文件对得上时Range才有效，否则要从头下载整个文件
+     */
+    private static boolean isIfRangeMatched(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range只能用强校验，弱ETag一律不匹配
+            return ifRange.equals(etag);
+        }
+        long date = getDateHeader(request, "If-Range");
+        return date >= 0 && date == lastModified;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            // 日期格式不对的话当成没有这个请求头
+            return -1;
+        }
+    }
+
+    /**
+     * 解析Range请求头，支持"bytes=a-b"、"bytes=a-"和"bytes=-n"三种写法。
+     * 按RFC 7233，写法不对的(比如"bytes=5-3")当成没有Range，返回整个文件；
+     * 写法对但是开始位置超出文件，或者要最后0个字节时才是范围不满足
+     *
+     * @return {开始位置, 结束位置(包含)}；多个Range或者格式不对时返回空数组，表示返回整个文件；
+     * 范围不满足时返回null
+     */
+    private static long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        if (!isDigitsOrEmpty(first) || !isDigitsOrEmpty(last) || (first.isEmpty() && last.isEmpty())) {
+            return new long[0];
+        }
+        try {
+            if (first.isEmpty()) {
+                // 最后n个字节，文件比n短时返回整个文件
+                long suffix = Long.parseLong(last);
+                if (suffix == 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            if (!last.isEmpty() && Long.parseLong(last) < start) {
+                return new long[0];
+            }
+            if (start >= length) {
+                return null;
+            }
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            // 数字太大
+            return new long[0];
+        }
+    }
+
+    private static boolean isDigitsOrEmpty(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,177 @@
+package com.huawei.l00379880.exam.file;
+
+import cn.hutool.core.util.HexUtil;
+import com.huawei.l00379880.exam.utils.FileTransUtil;
+import com.huawei.l00379880.exam.vo.UploadResultVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上传一个题目图片的文件夹会有几百个文件，原来一个一个地保存，每个文件还要检查一遍目录。
+ * 这里先把所有要用到的目录一次性建好，再把文件交给有界的线程池并行保存，边保存边算SHA-256，
+ * 每个文件返回各自的结果，某个文件失败不影响其它文件。
+ * 线程池的队列满了时由请求线程自己保存，不会无限制地堆积任务
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class ParallelUploader {
+
+    @Value("${exam.upload.parallel-threads:8}")
+    private int threadCount;
+
+    @Value("${exam.upload.parallel-queue-capacity:256}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "exam-upload-" + threadNo.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 并行保存多个文件
+     *
+     * @param files 上传的文件，空文件和没有文件名的会被跳过
+     * @param dir   要保存的目录
+     * @return 每个文件的保存结果，顺序和上传的顺序一致
+     */
+    public List<UploadResultVo> uploadFiles(MultipartFile[] files, String dir) {
+        List<MultipartFile> fileList = new ArrayList<>();
+        List<Path> pathList = new ArrayList<>();
+        // 不能保存的文件的原因，能保存的是null
+        List<String> rejectList = new ArrayList<>();
+        Set<Path> pathSet = new HashSet<>();
+        Set<Path> dirSet = new HashSet<>();
+        Path root = Paths.get(dir).toAbsolutePath().normalize();
+        for (MultipartFile file : files) {
+            if (file.isEmpty() || StringUtils.isEmpty(file.getOriginalFilename())) {
+                continue;
+            }
+            Path path = root.resolve(file.getOriginalFilename().replace("\\", "/")).normalize();
+            fileList.add(file);
+            pathList.add(path);
+            // 先检查文件名，../或者绝对路径跑到目录外面的连父目录也不能建
+            if (!path.startsWith(root) || path.equals(root)) {
+                rejectList.add("文件名不合法");
+            } else if (!pathSet.add(path)) {
+                // 两个文件保存到同一个位置的话会被两个线程同时写，只保存第一个
+                rejectList.add("文件名重复");
+            } else {
+                rejectList.add(null);
+                dirSet.add(path.getParent());
+            }
+        }
+
+        // 每个目录只创建一次
+        Set<Path> failedDirSet = new HashSet<>();
+        for (Path fileDir : dirSet) {
+            try {
+                Files.createDirectories(fileDir);
+            } catch (IOException e) {
+                log.error("创建目录{}失败", fileDir, e);
+                failedDirSet.add(fileDir);
+            }
+        }
+
+        List<Future<UploadResultVo>> futureList = new ArrayList<>(fileList.size());
+        for (int i = 0; i < fileList.size(); i++) {
+            MultipartFile file = fileList.get(i);
+            Path path = pathList.get(i);
+            if (rejectList.get(i) != null) {
+                futureList.add(CompletableFuture.completedFuture(failure(file, rejectList.get(i))));
+            } else if (failedDirSet.contains(path.getParent())) {
+                futureList.add(CompletableFuture.completedFuture(failure(file, "创建目录失败")));
+            } else {
+                futureList.add(executor.submit(() -> save(file, path)));
+            }
+        }
+
+        List<UploadResultVo> resultList = new ArrayList<>(futureList.size());
+        for (int i = 0; i < futureList.size(); i++) {
+            try {
+                resultList.add(futureList.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resultList.add(failure(fileList.get(i), "上传被中断"));
+            } catch (ExecutionException e) {
+                log.error("保存文件{}失败", pathList.get(i), e.getCause());
+                resultList.add(failure(fileList.get(i), "后台服务异常"));
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 流式地保存一个文件，同时计算SHA-256
+     */
+    private static UploadResultVo save(MultipartFile file, Path path) throws IOException {
+        long start = System.nanoTime();
+        MessageDigest digest = newSha256();
+        long size;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            size = Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        long nanos = System.nanoTime() - start;
+        FileTransUtil.recordUpload(size, nanos);
+
+        UploadResultVo resultVo = new UploadResultVo();
+        resultVo.setFileName(file.getOriginalFilename());
+        resultVo.setSuccess(true);
+        resultVo.setSize(size);
+        resultVo.setSha256(HexUtil.encodeHexStr(digest.digest()));
+        resultVo.setCostMillis(TimeUnit.NANOSECONDS.toMillis(nanos));
+        return resultVo;
+    }
+
+    private static UploadResultVo failure(MultipartFile file, String message) {
+        UploadResultVo resultVo = new UploadResultVo();
+        resultVo.setFileName(file.getOriginalFilename());
+        resultVo.setSuccess(false);
+        resultVo.setMessage(message);
+        resultVo.setSize(file.getSize());
+        return resultVo;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有的JDK都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
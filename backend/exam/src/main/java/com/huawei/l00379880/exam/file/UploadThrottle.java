@@ -0,0 +1,103 @@
+package com.huawei.l00379880.exam.file;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 上传考试资料和判分跑在同一个进程里，大文件同时上传太多会占满磁盘IO和请求线程。
+ * 拿不到许可的上传等待一小会儿，还拿不到就直接拒绝，让客户端稍后重试
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class UploadThrottle {
+
+    public static final String BUSY_MESSAGE = "上传的人太多了，请稍后重试";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 同时保存文件的上传请求数
+     */
+    @Value("${exam.upload.max-concurrent:4}")
+    private int maxConcurrent;
+
+    /**
+     * 拿不到许可时最多等多久(毫秒)
+     */
+    @Value("${exam.upload.acquire-timeout-ms:3000}")
+    private long acquireTimeoutMs;
+
+    private Semaphore permits;
+
+    private Counter rejectedCounter;
+
+    public UploadThrottle(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent, true);
+        Gauge.builder("exam.upload.active", this, UploadThrottle::getActiveCount)
+                .description("正在保存文件的上传请求数")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("exam.upload.rejected")
+                .description("因为同时上传的太多被拒绝的上传请求数")
+                .register(meterRegistry);
+        log.info("文件上传限流已启动，最多同时上传{}个", maxConcurrent);
+    }
+
+    /**
+     * 拿到许可后再执行上传
+     *
+     * @param upload 上传操作，返回给前端的消息
+     * @return 上传操作的结果，拿不到许可时返回BUSY_MESSAGE
+     */
+    public String execute(Supplier<String> upload) {
+        return execute(upload, BUSY_MESSAGE);
+    }
+
+    /**
+     * 拿到许可后再执行上传
+     *
+     * @param upload     上传操作
+     * @param busyResult 拿不到许可时的返回值
+     * @return 上传操作的结果
+     */
+    public <T> T execute(Supplier<T> upload, T busyResult) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+            return busyResult;
+        }
+        try {
+            return upload.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return 正在保存文件的上传请求数
+     */
+    public int getActiveCount() {
+        return permits == null ? 0 : maxConcurrent - permits.availablePermits();
+    }
+}
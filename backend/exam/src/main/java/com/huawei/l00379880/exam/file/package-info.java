@@ -0,0 +1,4 @@
+/*
+ * Description : 考试资料的上传和下载
+ */
+package com.huawei.l00379880.exam.file;
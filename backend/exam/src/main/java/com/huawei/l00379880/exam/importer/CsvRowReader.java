@@ -0,0 +1,117 @@
+package com.huawei.l00379880.exam.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按照RFC 4180解析：逗号分隔，字段可以用双引号包起来，引号中的""表示一个双引号，引号中可以换行。
+ * 只保留当前这一行在内存里，几万行的文件也不用整个读进来
+ *
+ * @author liangshanguang
+ */
+final class CsvRowReader {
+
+    private final Reader reader;
+
+    /**
+     * 当前读到的物理行号，从1开始
+     */
+    private int lineNo = 1;
+
+    /**
+     * 最近一次next()返回的记录开始的行号
+     */
+    private int rowLineNo;
+
+    private int pushback = -2;
+
+    CsvRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return 下一条记录的所有字段，读完时返回null，空行会被跳过
+     * @throws IOException 读取失败，或者引号没有闭合
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        rowLineNo = lineNo;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNo++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                lineNo++;
+                if (!fieldStarted && field.length() == 0 && fields.isEmpty()) {
+                    // 空行
+                    rowLineNo = lineNo;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+        if (quoted) {
+            throw new IOException("第" + rowLineNo + "行的引号没有闭合");
+        }
+        if (!fieldStarted && field.length() == 0 && fields.isEmpty()) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * @return 最近一次next()返回的记录开始的行号
+     */
+    int getRowLineNo() {
+        return rowLineNo;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
@@ -0,0 +1,452 @@
+package com.huawei.l00379880.exam.importer;
+
+import cn.hutool.core.util.IdUtil;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.huawei.l00379880.exam.cache.ReferenceDataCache;
+import com.huawei.l00379880.exam.enums.QuestionEnum;
+import com.huawei.l00379880.exam.vo.QuestionCreateVo;
+import com.huawei.l00379880.exam.vo.QuestionImportErrorVo;
+import com.huawei.l00379880.exam.vo.QuestionImportResultVo;
+import com.huawei.l00379880.exam.vo.QuestionOptionCreateVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * 新开一门课要导入几千道题，在页面上一道一道地建要好几个小时。这里一次导入整个文件：
+ * <ul>
+ * <li>一边读一边解析，内存里最多只有一批题目</li>
+ * <li>每一行先在内存里校验(题型、难度、分类是否存在，选项和答案的个数是否合法)，再分配id</li>
+ * <li>每chunk-size道题一个事务，选项、题目和题目选项关联各用一次JDBC的batch insert写入</li>
+ * <li>一批写入失败时改为逐题写入，找出具体是哪几行的问题，其它行照常导入</li>
+ * </ul>
+ * 支持两种格式：
+ * <pre>
+ * JSON Lines：每行一道题，字段和创建题目的接口一样
+ *   {"name":"1+1=?","type":1,"level":1,"category":1,"score":5,"options":[{"content":"2","answer":true},{"content":"3"}]}
+ * CSV：第一行是表头，options用|分隔，answers是正确选项的字母
+ *   name,desc,score,level,type,category,options,answers
+ *   1+1=?,,5,1,1,1,2|3|4,A
+ * </pre>
+ * 直接用JDBC写入，不会触发EntityChangeListener，新导入的题目还没有被任何考试引用，不需要让缓存失效
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class QuestionImporter {
+
+    private static final String INSERT_OPTION_SQL = "insert into question_option (question_option_id, question_option_content, question_option_description) values (?, ?, ?)";
+
+    private static final String INSERT_QUESTION_SQL = "insert into question (question_id, question_name, question_score, question_creator_id, question_level_id, " +
+            "question_type_id, question_category_id, question_description, question_option_ids, question_answer_option_ids, create_time, update_time) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ANSWER_SQL = "insert into question_answer (question_id, question_option_id, sort_order, answer) values (?, ?, ?, ?)";
+
+    /**
+     * 最多返回多少条错误
+     */
+    private static final int MAX_ERRORS = 1000;
+
+    /**
+     * question_option_ids字段是varchar(256)，每个选项id占33个字符
+     */
+    private static final int MAX_OPTIONS = 7;
+
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 256;
+
+    private static final int MAX_OPTION_LENGTH = 512;
+
+    private static final List<String> CSV_REQUIRED_COLUMNS = Arrays.asList("name", "level", "type", "category", "options", "answers");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final ObjectReader questionReader;
+
+    /**
+     * 每个事务写入的题目数
+     */
+    @Value("${exam.import.chunk-size:500}")
+    private int chunkSize;
+
+    public QuestionImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ReferenceDataCache referenceDataCache, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.referenceDataCache = referenceDataCache;
+        this.questionReader = objectMapper.readerFor(QuestionCreateVo.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * 导入题目
+     *
+     * @param in        文件内容，UTF-8编码，调用方负责关闭
+     * @param csv       是否是CSV格式，否则按JSON Lines解析
+     * @param creatorId 题目的创建者
+     * @return 导入结果，包括每一行的错误
+     * @throws IOException 读取失败
+     */
+    public QuestionImportResultVo importQuestions(InputStream in, boolean csv, String creatorId) throws IOException {
+        long start = System.currentTimeMillis();
+        QuestionImportResultVo resultVo = new QuestionImportResultVo();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        skipBom(reader);
+        List<PreparedQuestion> chunk = new ArrayList<>(chunkSize);
+        RowSource source = csv ? new CsvSource(reader) : new JsonLinesSource(reader);
+        Row row;
+        while ((row = source.next()) != null) {
+            resultVo.setTotalCount(resultVo.getTotalCount() + 1);
+            if (row.error != null) {
+                addError(resultVo, row.lineNo, row.error);
+                continue;
+            }
+            String error = validate(row.question);
+            if (error != null) {
+                addError(resultVo, row.lineNo, error);
+                continue;
+            }
+            chunk.add(prepare(row.lineNo, row.question, creatorId));
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, resultVo);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, resultVo);
+        }
+        resultVo.setCostMillis(System.currentTimeMillis() - start);
+        log.info("导入题目{}道，成功{}道，失败{}道，耗时{}ms", resultVo.getTotalCount(), resultVo.getSuccessCount(), resultVo.getFailedCount(), resultVo.getCostMillis());
+        return resultVo;
+    }
+
+    /**
+     * @return 错误原因，没有问题时返回null
+     */
+    private String validate(QuestionCreateVo question) {
+        if (StringUtils.isEmpty(question.getQuestionName())) {
+            return "题目名称不能为空";
+        }
+        if (question.getQuestionName().length() > MAX_NAME_LENGTH) {
+            return "题目名称不能超过" + MAX_NAME_LENGTH + "个字";
+        }
+        if (question.getQuestionDescription() != null && question.getQuestionDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "题目描述不能超过" + MAX_DESCRIPTION_LENGTH + "个字";
+        }
+        if (question.getQuestionScore() == null || question.getQuestionScore() <= 0) {
+            return "分数必须大于0";
+        }
+        if (referenceDataCache.getQuestionType(question.getQuestionTypeId()) == null) {
+            return "题型" + question.getQuestionTypeId() + "不存在";
+        }
+        if (referenceDataCache.getQuestionLevel(question.getQuestionLevelId()) == null) {
+            return "难度" + question.getQuestionLevelId() + "不存在";
+        }
+        if (referenceDataCache.getQuestionCategory(question.getQuestionCategoryId()) == null) {
+            return "分类" + question.getQuestionCategoryId() + "不存在";
+        }
+        List<QuestionOptionCreateVo> options = question.getQuestionOptionCreateVoList();
+        if (options == null || options.size() < 2 || options.size() > MAX_OPTIONS) {
+            return "选项个数必须在2到" + MAX_OPTIONS + "之间";
+        }
+        int answerCount = 0;
+        for (QuestionOptionCreateVo option : options) {
+            if (StringUtils.isEmpty(option.getQuestionOptionContent())) {
+                return "选项内容不能为空";
+            }
+            if (option.getQuestionOptionContent().length() > MAX_OPTION_LENGTH) {
+                return "选项内容不能超过" + MAX_OPTION_LENGTH + "个字";
+            }
+            if (Boolean.TRUE.equals(option.getAnswer())) {
+                answerCount++;
+            }
+        }
+        if (QuestionEnum.CHECK.getId().equals(question.getQuestionTypeId())) {
+            if (answerCount < 1) {
+                return "多选题至少要有1个答案";
+            }
+        } else if (answerCount != 1) {
+            return "单选题和判断题必须有且只有1个答案";
+        }
+        return null;
+    }
+
+    /**
+     * 分配id，拼好要写入的三张表的数据
+     */
+    private static PreparedQuestion prepare(int lineNo, QuestionCreateVo vo, String creatorId) {
+        PreparedQuestion prepared = new PreparedQuestion(lineNo, vo, creatorId, IdUtil.simpleUUID());
+        List<QuestionOptionCreateVo> options = vo.getQuestionOptionCreateVoList();
+        StringJoiner optionIds = new StringJoiner("-");
+        StringJoiner answerOptionIds = new StringJoiner("-");
+        for (QuestionOptionCreateVo option : options) {
+            String optionId = IdUtil.simpleUUID();
+            prepared.optionIds.add(optionId);
+            optionIds.add(optionId);
+            if (Boolean.TRUE.equals(option.getAnswer())) {
+                answerOptionIds.add(optionId);
+            }
+        }
+        prepared.questionOptionIds = optionIds.toString();
+        prepared.questionAnswerOptionIds = answerOptionIds.toString();
+        return prepared;
+    }
+
+    /**
+     * 一批题目一个事务，失败的话逐题重试
+     */
+    private void flush(List<PreparedQuestion> chunk, QuestionImportResultVo resultVo) {
+        try {
+            transactionTemplate.execute(status -> {
+                insert(chunk);
+                return null;
+            });
+            resultVo.setSuccessCount(resultVo.getSuccessCount() + chunk.size());
+        } catch (Exception e) {
+            log.warn("批量导入{}道题目失败，改为逐题导入", chunk.size(), e);
+            for (PreparedQuestion prepared : chunk) {
+                try {
+                    transactionTemplate.execute(status -> {
+                        insert(Collections.singletonList(prepared));
+                        return null;
+                    });
+                    resultVo.setSuccessCount(resultVo.getSuccessCount() + 1);
+                } catch (Exception ex) {
+                    addError(resultVo, prepared.lineNo, "保存失败：" + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<PreparedQuestion> chunk) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> optionArgs = new ArrayList<>();
+        List<Object[]> questionArgs = new ArrayList<>(chunk.size());
+        List<Object[]> answerArgs = new ArrayList<>();
+        for (PreparedQuestion prepared : chunk) {
+            QuestionCreateVo vo = prepared.vo;
+            List<QuestionOptionCreateVo> options = vo.getQuestionOptionCreateVoList();
+            for (int i = 0; i < options.size(); i++) {
+                String optionId = prepared.optionIds.get(i);
+                optionArgs.add(new Object[]{optionId, options.get(i).getQuestionOptionContent(), null});
+                answerArgs.add(new Object[]{prepared.questionId, optionId, i, Boolean.TRUE.equals(options.get(i).getAnswer())});
+            }
+            questionArgs.add(new Object[]{prepared.questionId, vo.getQuestionName(), vo.getQuestionScore(), prepared.creatorId,
+                    vo.getQuestionLevelId(), vo.getQuestionTypeId(), vo.getQuestionCategoryId(), vo.getQuestionDescription(),
+                    prepared.questionOptionIds, prepared.questionAnswerOptionIds, now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, optionArgs);
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, questionArgs);
+        jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, answerArgs);
+    }
+
+    private static void addError(QuestionImportResultVo resultVo, int lineNo, String message) {
+        resultVo.setFailedCount(resultVo.getFailedCount() + 1);
+        if (resultVo.getErrorVoList().size() < MAX_ERRORS) {
+            resultVo.getErrorVoList().add(new QuestionImportErrorVo(lineNo, message));
+        }
+    }
+
+    /**
+     * Excel另存为的UTF-8 CSV开头会带BOM
+     */
+    private static void skipBom(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    /**
+     * 读到的一行，解析失败时error不为空
+     */
+    private static final class Row {
+        private final int lineNo;
+        private final QuestionCreateVo question;
+        private final String error;
+
+        Row(int lineNo, QuestionCreateVo question, String error) {
+            this.lineNo = lineNo;
+            this.question = question;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * @return 下一行，读完时返回null
+         */
+        Row next() throws IOException;
+    }
+
+    private final class JsonLinesSource implements RowSource {
+        private final BufferedReader reader;
+        private int lineNo;
+
+        JsonLinesSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                // 每行必须是一个对象，null、数字、数组这些也当成这一行格式不对，不能让整个导入失败
+                if (!line.trim().startsWith("{")) {
+                    return new Row(lineNo, null, "JSON格式不正确");
+                }
+                try {
+                    QuestionCreateVo question = questionReader.readValue(line);
+                    return new Row(lineNo, question, question == null ? "JSON格式不正确" : null);
+                } catch (IOException e) {
+                    return new Row(lineNo, null, "JSON格式不正确");
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CsvSource implements RowSource {
+        private final CsvRowReader reader;
+        private Map<String, Integer> columnIndex;
+        private String headerError;
+
+        CsvSource(BufferedReader reader) {
+            this.reader = new CsvRowReader(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (columnIndex == null) {
+                readHeader();
+            }
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+            int lineNo = reader.getRowLineNo();
+            if (headerError != null) {
+                return new Row(lineNo, null, headerError);
+            }
+            try {
+                return new Row(lineNo, toQuestion(fields), null);
+            } catch (IllegalArgumentException e) {
+                return new Row(lineNo, null, e.getMessage());
+            }
+        }
+
+        private void readHeader() throws IOException {
+            columnIndex = new HashMap<>();
+            List<String> header = reader.next();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columnIndex.put(header.get(i).trim().toLowerCase(), i);
+            }
+            for (String column : CSV_REQUIRED_COLUMNS) {
+                if (!columnIndex.containsKey(column)) {
+                    headerError = "表头缺少" + column + "列";
+                }
+            }
+        }
+
+        private QuestionCreateVo toQuestion(List<String> fields) {
+            QuestionCreateVo question = new QuestionCreateVo();
+            question.setQuestionName(field(fields, "name"));
+            question.setQuestionDescription(field(fields, "desc"));
+            String score = field(fields, "score");
+            if (!StringUtils.isEmpty(score)) {
+                question.setQuestionScore(parseInt(score, "score"));
+            }
+            question.setQuestionLevelId(parseInt(field(fields, "level"), "level"));
+            question.setQuestionTypeId(parseInt(field(fields, "type"), "type"));
+            question.setQuestionCategoryId(parseInt(field(fields, "category"), "category"));
+            String options = field(fields, "options");
+            String answers = field(fields, "answers");
+            List<QuestionOptionCreateVo> optionList = new ArrayList<>();
+            if (options != null) {
+                for (String content : options.split("\\|")) {
+                    QuestionOptionCreateVo option = new QuestionOptionCreateVo();
+                    option.setQuestionOptionContent(content.trim());
+                    optionList.add(option);
+                }
+            }
+            if (answers != null) {
+                for (char letter : answers.trim().toUpperCase().toCharArray()) {
+                    int index = letter - 'A';
+                    if (index < 0 || index >= optionList.size()) {
+                        throw new IllegalArgumentException("答案" + letter + "不是合法的选项");
+                    }
+                    optionList.get(index).setAnswer(true);
+                }
+            }
+            question.setQuestionOptionCreateVoList(optionList);
+            return question;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columnIndex.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static Integer parseInt(String value, String column) {
+            if (value == null) {
+                throw new IllegalArgumentException(column + "不能为空");
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + "必须是整数：" + value);
+            }
+        }
+    }
+
+    /**
+     * 校验通过、分配好id的题目
+     */
+    private static final class PreparedQuestion {
+        private final int lineNo;
+        private final QuestionCreateVo vo;
+        private final String creatorId;
+        private final String questionId;
+        private final List<String> optionIds = new ArrayList<>();
+        private String questionOptionIds;
+        private String questionAnswerOptionIds;
+
+        PreparedQuestion(int lineNo, QuestionCreateVo vo, String creatorId, String questionId) {
+            this.lineNo = lineNo;
+            this.vo = vo;
+            this.creatorId = creatorId;
+            this.questionId = questionId;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/*
+ * Description : 题库的批量导入，流式解析JSON Lines和CSV，分批用JDBC的batch insert写入
+ */
+package com.huawei.l00379880.exam.importer;
@@ -10,13 +10,21 @@ import com.google.gson.Gson;
 import com.huawei.l00379880.exam.utils.JwtUtils;
 import com.huawei.l00379880.exam.vo.JsonData;
 import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * https://stackoverflow.com/questions/43591582/application-properties-value-in-spring-boot-interceptor
@@ -24,14 +32,68 @@ import java.io.PrintWriter;
  * @author liangshanguang
  */
 @Component
+@Slf4j
 public class LoginInterceptor implements HandlerInterceptor {
 
+    private static final Gson GSON = new Gson();
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
     /**
      * 有上面的@Component才能使得这个属性能从pplication.yml中取得拦截器的值
      */
     @Value("${interceptors.auth-ignore-uris}")
     private String authIgnoreUris;
 
+    /**
+     * 不需要拦截的固定路径，直接查Set
+     */
+    private Set<String> ignoreExactUris;
+
+    /**
+     * 不需要拦截的Ant风格路径，比如/api/file/**
+     */
+    private String[] ignorePatterns;
+
+    /**
+     * 启动时把配置拆分好，请求时不再处理字符串
+     */
+    @PostConstruct
+    public void init() {
+        Set<String> exactUris = new HashSet<>();
+        List<String> patterns = new ArrayList<>();
+        for (String uri : authIgnoreUris.split(",")) {
+            uri = uri.trim();
+            if (uri.isEmpty()) {
+                continue;
+            }
+            if (PATH_MATCHER.isPattern(uri)) {
+                patterns.add(uri);
+            } else {
+                exactUris.add(uri);
+            }
+        }
+        ignoreExactUris = exactUris;
+        ignorePatterns = patterns.toArray(new String[0]);
+        log.info("无需拦截的接口路径：{}，路径模式：{}", ignoreExactUris, patterns);
+    }
+
+    /**
+     * @param uri 请求的路径
+     * @return 是否不需要校验token
+     */
+    boolean isIgnored(String uri) {
+        if (ignoreExactUris.contains(uri)) {
+            return true;
+        }
+        for (String pattern : ignorePatterns) {
+            if (PATH_MATCHER.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 进入controller之前进行拦截
      *
@@ -43,16 +105,11 @@ public class LoginInterceptor implements HandlerInterceptor {
      */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        System.out.println("进入拦截器啦！");
         String uri = request.getRequestURI();
-        System.out.println(uri);
-        System.out.println("无需拦截的接口路径：" + authIgnoreUris);
-        String[] authIgnoreUriArr = authIgnoreUris.split(",");
         // 登录和注册接口不需要进行token拦截和校验
-        for (String authIgnoreUri : authIgnoreUriArr) {
-            if (authIgnoreUri.equals(uri)) {
-                return true;
-            }
+        if (isIgnored(uri)) {
+            log.debug("无需拦截的接口：{}", uri);
+            return true;
         }
         // 注意要和前端适配Access-Token属性，前端会在登陆后的每个接口请求头加Access-Token属性
         String token = request.getHeader("Access-Token");
@@ -65,6 +122,7 @@ public class LoginInterceptor implements HandlerInterceptor {
             Claims claims = JwtUtils.checkJWT(token);
             if (claims == null) {
                 // 返回null说明用户篡改了token，导致校验失败
+                log.debug("token校验失败：{}", uri);
                 sendJsonMessage(response, JsonData.buildError("token无效，请重新登录"));
                 return false;
             }
@@ -77,6 +135,7 @@ public class LoginInterceptor implements HandlerInterceptor {
             request.setAttribute("username", username);
             return true;
         }
+        log.debug("请求中没有token：{}", uri);
         sendJsonMessage(response, JsonData.buildError("token为null,请先登录！"));
         return false;
     }
@@ -89,10 +148,9 @@ public class LoginInterceptor implements HandlerInterceptor {
      * @throws Exception 处理异常
      */
     public static void sendJsonMessage(HttpServletResponse response, Object obj) throws Exception {
-        Gson g = new Gson();
         response.setContentType("application/json; charset=utf-8");
         PrintWriter writer = response.getWriter();
-        writer.print(g.toJson(obj));
+        writer.print(GSON.toJson(obj));
         writer.close();
         response.flushBuffer();
     }
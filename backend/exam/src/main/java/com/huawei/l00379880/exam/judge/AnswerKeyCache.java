@@ -0,0 +1,176 @@
+package com.huawei.l00379880.exam.judge;
+
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.ExamQuestion;
+import com.huawei.l00379880.exam.entity.QuestionAnswer;
+import com.huawei.l00379880.exam.entity.QuestionSnapshot;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.repository.ExamQuestionRepository;
+import com.huawei.l00379880.exam.repository.ExamRepository;
+import com.huawei.l00379880.exam.repository.QuestionAnswerRepository;
+import com.huawei.l00379880.exam.snapshot.QuestionSnapshotStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考试、考试的题目关联或者题目的选项关联发生变化时，对应的答案会失效，下次判分时重新编译。
+ * 已发布考试的答案从题目快照编译，修改题目不会让它失效。
+ * 考试开始时大量考生同时交卷，同一场考试只由一个线程编译，其他线程等它的结果
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class AnswerKeyCache {
+
+    private final ExamRepository examRepository;
+
+    private final ExamQuestionRepository examQuestionRepository;
+
+    private final QuestionAnswerRepository questionAnswerRepository;
+
+    private final QuestionSnapshotStore questionSnapshotStore;
+
+    private final ConcurrentMap<String, FutureTask<ExamAnswerKey>> answerKeyMap = new ConcurrentHashMap<>();
+
+    /**
+     * 每次失效都加1，编译期间发生过失效的话编译结果就不留在缓存中了，防止把旧答案缓存起来
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AnswerKeyCache(ExamRepository examRepository, ExamQuestionRepository examQuestionRepository, QuestionAnswerRepository questionAnswerRepository,
+                          QuestionSnapshotStore questionSnapshotStore) {
+        this.examRepository = examRepository;
+        this.examQuestionRepository = examQuestionRepository;
+        this.questionAnswerRepository = questionAnswerRepository;
+        this.questionSnapshotStore = questionSnapshotStore;
+    }
+
+    @PostConstruct
+    public void init() {
+        EntityChangeListener.subscribe(this::onEntityChanged);
+    }
+
+    /**
+     * 获取考试的答案，缓存中没有时从数据库加载并编译
+     *
+     * @param examId 考试id
+     * @return 编译好的答案
+     */
+    public ExamAnswerKey get(String examId) {
+        FutureTask<ExamAnswerKey> task = answerKeyMap.get(examId);
+        if (task == null) {
+            long startGeneration = generation.get();
+            FutureTask<ExamAnswerKey> newTask = new FutureTask<>(() -> compile(examId));
+            task = answerKeyMap.putIfAbsent(examId, newTask);
+            if (task == null) {
+                task = newTask;
+                newTask.run();
+                if (generation.get() != startGeneration) {
+                    // 先放进去再检查：编译期间答案变了，这次的结果只给已经在等的请求用
+                    answerKeyMap.remove(examId, newTask);
+                }
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待考试" + examId + "的答案时被中断", e);
+        } catch (ExecutionException e) {
+            // 编译失败的不缓存，下次重新编译
+            answerKeyMap.remove(examId, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return 缓存的考试答案个数
+     */
+    public int size() {
+        return answerKeyMap.size();
+    }
+
+    /**
+     * 让指定考试的答案失效
+     *
+     * @param examId 考试id
+     */
+    public void invalidate(String examId) {
+        generation.incrementAndGet();
+        answerKeyMap.remove(examId);
+    }
+
+    private ExamAnswerKey compile(String examId) {
+        Exam exam = examRepository.findById(examId).orElse(null);
+        if (exam == null) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        // 题目和选项都通过关联表按索引查询，已经固定了版本的题目用快照中的选项
+        List<ExamQuestion> examQuestionList = examQuestionRepository.findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(examId);
+        Map<String, QuestionSnapshot> snapshotMap = ExamStatusEnum.isPinned(exam.getExamStatus())
+                ? questionSnapshotStore.loadPinned(examId) : Collections.emptyMap();
+        List<QuestionAnswer> questionAnswerList = new ArrayList<>();
+        List<String> liveQuestionIds = new ArrayList<>();
+        for (ExamQuestion examQuestion : examQuestionList) {
+            QuestionSnapshot snapshot = snapshotMap.get(examQuestion.getQuestionId());
+            if (snapshot != null) {
+                questionAnswerList.addAll(questionSnapshotStore.questionAnswersOf(snapshot));
+            } else {
+                liveQuestionIds.add(examQuestion.getQuestionId());
+            }
+        }
+        if (!liveQuestionIds.isEmpty()) {
+            questionAnswerList.addAll(questionAnswerRepository.findByQuestionIdInOrderBySortOrderAsc(liveQuestionIds));
+        }
+        ExamAnswerKey answerKey = ExamAnswerKey.compile(exam, examQuestionList, questionAnswerList, liveQuestionIds.isEmpty());
+        log.info("编译考试{}的答案，共{}道题，{}道来自快照", examId, answerKey.getQuestionCount(), snapshotMap.size());
+        return answerKey;
+    }
+
+    private void onEntityChanged(Object entity) {
+        if (entity instanceof Exam) {
+            invalidate(((Exam) entity).getExamId());
+        } else if (entity instanceof ExamQuestion) {
+            invalidate(((ExamQuestion) entity).getExamId());
+        } else if (entity instanceof QuestionAnswer) {
+            // 选项或者答案变了
+            String questionId = ((QuestionAnswer) entity).getQuestionId();
+            generation.incrementAndGet();
+            // 题目变化的频率很低，直接遍历找出用到这道题的考试
+            for (Map.Entry<String, FutureTask<ExamAnswerKey>> entry : answerKeyMap.entrySet()) {
+                FutureTask<ExamAnswerKey> task = entry.getValue();
+                if (!task.isDone()) {
+                    // 还在编译的由generation处理
+                    continue;
+                }
+                try {
+                    ExamAnswerKey answerKey = task.get();
+                    if (!answerKey.isPinned() && answerKey.indexOf(questionId) >= 0) {
+                        answerKeyMap.remove(entry.getKey(), task);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    answerKeyMap.remove(entry.getKey(), task);
+                }
+            }
+        }
+    }
+}
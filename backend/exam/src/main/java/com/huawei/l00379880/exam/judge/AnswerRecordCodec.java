@@ -0,0 +1,278 @@
+package com.huawei.l00379880.exam.judge;
+
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 老格式把作答详情存成"题目id@True_选项id-选项id$..."的字符串，每个id都是32位的UUID，
+ * 一道题就要一百多个字节。新格式按照ExamAnswerKey中的序号引用题目和选项，对错用bitmap存：
+ * <pre>
+ * 版本号(1字节) | 题目和选项排列的校验和(4字节) | 作答的题目数n(varint) | 对错bitmap(ceil(n/8)字节) |
+ * n个作答：题目序号(varint) 选项个数m(varint) m个选项序号(varint)
+ * </pre>
+ * 一道题一般只要三四个字节。老格式的记录仍然可以解码，解析时只用indexOf，不用正则
+ *
+ * @author liangshanguang
+ */
+public final class AnswerRecordCodec {
+
+    /**
+     * 当前的格式版本
+     */
+    public static final byte VERSION_1 = 1;
+
+    /**
+     * decodeResults输出的答对和答错
+     */
+    public static final byte CORRECT = 1;
+
+    public static final byte WRONG = 2;
+
+    private static final int HEADER_LENGTH = 5;
+
+    private AnswerRecordCodec() {
+    }
+
+    /**
+     * @param answerKey 考试答案，决定题目和选项的序号
+     * @return 新的编码器，一份答卷用一个
+     */
+    public static Encoder encoder(ExamAnswerKey answerKey) {
+        return new Encoder(answerKey);
+    }
+
+    /**
+     * 解码二进制格式的作答详情
+     *
+     * @param answerKey  考试答案，必须和编码时的题目、选项排列一致
+     * @param data       二进制的作答详情
+     * @param answersMap 输出：题目id -> 考生选择的选项id
+     * @param resultsMap 输出：题目id -> True / False
+     */
+    public static void decode(ExamAnswerKey answerKey, byte[] data, Map<String, List<String>> answersMap, Map<String, String> resultsMap) {
+        if (data.length < HEADER_LENGTH || data[0] != VERSION_1) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        int layoutHash = ((data[1] & 0xFF) << 24) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 8) | (data[4] & 0xFF);
+        if (layoutHash != answerKey.getLayoutHash()) {
+            // 考试的题目或者选项被改过，序号已经对不上了
+            throw new ExamException(ResultEnum.RECORD_LAYOUT_CHANGED);
+        }
+        Reader reader = new Reader(data, HEADER_LENGTH);
+        int count = reader.readVarInt();
+        int bitmapOffset = reader.position;
+        reader.position += (count + 7) >>> 3;
+        if (reader.position > data.length) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        for (int i = 0; i < count; i++) {
+            int index = reader.readVarInt();
+            if (index >= answerKey.getQuestionCount()) {
+                throw new ExamException(ResultEnum.RECORD_LAYOUT_CHANGED);
+            }
+            int optionCount = reader.readVarInt();
+            List<String> optionIdList = new ArrayList<>(optionCount);
+            for (int j = 0; j < optionCount; j++) {
+                int optionIndex = reader.readVarInt();
+                if (optionIndex >= answerKey.optionCountOf(index)) {
+                    throw new ExamException(ResultEnum.RECORD_LAYOUT_CHANGED);
+                }
+                optionIdList.add(answerKey.optionIdAt(index, optionIndex));
+            }
+            String questionId = answerKey.questionIdAt(index);
+            boolean correct = (data[bitmapOffset + (i >>> 3)] & (1 << (i & 7))) != 0;
+            answersMap.put(questionId, optionIdList);
+            resultsMap.put(questionId, correct ? "True" : "False");
+        }
+    }
+
+    /**
+     * 只解码每道题的对错，不还原选项，导出成绩时用
+     *
+     * @param answerKey 考试答案，必须和编码时的题目、选项排列一致
+     * @param data      二进制的作答详情
+     * @param results   输出：下标是题目序号，没有作答的是0，答对的是CORRECT，答错的是WRONG，长度不能小于题目数
+     */
+    public static void decodeResults(ExamAnswerKey answerKey, byte[] data, byte[] results) {
+        if (data.length < HEADER_LENGTH || data[0] != VERSION_1) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        int layoutHash = ((data[1] & 0xFF) << 24) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 8) | (data[4] & 0xFF);
+        if (layoutHash != answerKey.getLayoutHash()) {
+            throw new ExamException(ResultEnum.RECORD_LAYOUT_CHANGED);
+        }
+        Reader reader = new Reader(data, HEADER_LENGTH);
+        int count = reader.readVarInt();
+        int bitmapOffset = reader.position;
+        reader.position += (count + 7) >>> 3;
+        if (reader.position > data.length) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        for (int i = 0; i < count; i++) {
+            int index = reader.readVarInt();
+            if (index >= answerKey.getQuestionCount()) {
+                throw new ExamException(ResultEnum.RECORD_LAYOUT_CHANGED);
+            }
+            int optionCount = reader.readVarInt();
+            for (int j = 0; j < optionCount; j++) {
+                reader.readVarInt();
+            }
+            boolean correct = (data[bitmapOffset + (i >>> 3)] & (1 << (i & 7))) != 0;
+            results[index] = correct ? CORRECT : WRONG;
+        }
+    }
+
+    /**
+     * 解码老格式的作答详情："题目id@True_选项id-选项id$题目id@False_$..."
+     *
+     * @param answerOptionIds 老格式的字符串
+     * @param answersMap      输出：题目id -> 考生选择的选项id
+     * @param resultsMap      输出：题目id -> True / False
+     */
+    public static void decodeLegacy(String answerOptionIds, Map<String, List<String>> answersMap, Map<String, String> resultsMap) {
+        if (answerOptionIds == null || answerOptionIds.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        int length = answerOptionIds.length();
+        while (start < length) {
+            int end = answerOptionIds.indexOf('$', start);
+            if (end < 0) {
+                end = length;
+            }
+            int at = answerOptionIds.indexOf('@', start);
+            int underscore = answerOptionIds.indexOf('_', start);
+            if (at > start && at < end) {
+                String questionId = answerOptionIds.substring(start, at);
+                int resultEnd = underscore > at && underscore < end ? underscore : end;
+                List<String> optionIdList = new ArrayList<>();
+                if (resultEnd < end) {
+                    splitOptions(answerOptionIds, resultEnd + 1, end, optionIdList);
+                }
+                answersMap.put(questionId, optionIdList);
+                resultsMap.put(questionId, answerOptionIds.substring(at + 1, resultEnd));
+            }
+            start = end + 1;
+        }
+    }
+
+    private static void splitOptions(String str, int from, int to, List<String> optionIdList) {
+        int start = from;
+        while (start < to) {
+            int end = str.indexOf('-', start);
+            if (end < 0 || end > to) {
+                end = to;
+            }
+            if (end > start) {
+                optionIdList.add(str.substring(start, end));
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * 把一份答卷的作答逐题编码成二进制
+     */
+    public static final class Encoder {
+        private final ExamAnswerKey answerKey;
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        private byte[] bitmap = new byte[8];
+        private int count;
+
+        private Encoder(ExamAnswerKey answerKey) {
+            this.answerKey = answerKey;
+        }
+
+        /**
+         * 记录一道题的作答，不属于这道题的选项没法用序号表示，会被丢掉(这种作答一定是错的)
+         *
+         * @param index         题目序号
+         * @param correct       是否答对
+         * @param userOptionIds 考生选择的选项id
+         */
+        public void add(int index, boolean correct, List<String> userOptionIds) {
+            writeVarInt(entries, index);
+            int[] optionIndexes = new int[userOptionIds == null ? 0 : userOptionIds.size()];
+            int optionCount = 0;
+            if (userOptionIds != null) {
+                for (String optionId : userOptionIds) {
+                    int optionIndex = answerKey.optionIndexOf(index, optionId);
+                    if (optionIndex >= 0) {
+                        optionIndexes[optionCount++] = optionIndex;
+                    }
+                }
+            }
+            writeVarInt(entries, optionCount);
+            for (int i = 0; i < optionCount; i++) {
+                writeVarInt(entries, optionIndexes[i]);
+            }
+            if ((count >>> 3) >= bitmap.length) {
+                bitmap = Arrays.copyOf(bitmap, bitmap.length * 2);
+            }
+            if (correct) {
+                bitmap[count >>> 3] |= 1 << (count & 7);
+            }
+            count++;
+        }
+
+        /**
+         * @return 编码好的二进制
+         */
+        public byte[] toBytes() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_LENGTH + 5 + bitmap.length + entries.size());
+            out.write(VERSION_1);
+            int layoutHash = answerKey.getLayoutHash();
+            out.write(layoutHash >>> 24);
+            out.write(layoutHash >>> 16);
+            out.write(layoutHash >>> 8);
+            out.write(layoutHash);
+            writeVarInt(out, count);
+            out.write(bitmap, 0, (count + 7) >>> 3);
+            byte[] entryBytes = entries.toByteArray();
+            out.write(entryBytes, 0, entryBytes.length);
+            return out.toByteArray();
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * 顺序读取varint
+     */
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= data.length) {
+                    throw new ExamException(ResultEnum.PARAM_ERR);
+                }
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+    }
+}
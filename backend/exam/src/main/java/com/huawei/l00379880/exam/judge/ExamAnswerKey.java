@@ -0,0 +1,300 @@
+package com.huawei.l00379880.exam.judge;
+
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.ExamQuestion;
+import com.huawei.l00379880.exam.entity.QuestionAnswer;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.enums.QuestionEnum;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * 考试中的每道题按照单选、多选、判断的顺序编号为0~n-1，每道题的选项按照关联表中的顺序编号为0~63，
+ * 正确答案存成一个long的bitmap。判分时把考生的作答也转成bitmap，和正确答案比较是否相等即可，
+ * 不需要再拆分字符串、排序和拼接
+ *
+ * @author liangshanguang
+ */
+public final class ExamAnswerKey {
+
+    /**
+     * 一道题最多支持的选项个数(long的位数)
+     */
+    public static final int MAX_OPTION_COUNT = Long.SIZE;
+
+    private final String examId;
+
+    /**
+     * 题目序号到题目id
+     */
+    private final String[] questionIds;
+
+    /**
+     * 题目id到题目序号
+     */
+    private final Map<String, Integer> questionIndexMap;
+
+    /**
+     * 每道题答对的得分
+     */
+    private final int[] scores;
+
+    /**
+     * 第i道题的选项在optionIds中的范围是[optionOffsets[i], optionOffsets[i+1])
+     */
+    private final int[] optionOffsets;
+
+    /**
+     * 所有题目的选项id平铺到一个数组中
+     */
+    private final String[] optionIds;
+
+    /**
+     * 每道题的正确答案bitmap，第k位为1表示第k个选项是答案
+     */
+    private final long[] answerMasks;
+
+    /**
+     * 题目和选项排列的校验和，二进制的作答记录按序号引用题目和选项，用它确认解码时排列没有变
+     */
+    private final int layoutHash;
+
+    /**
+     * 所有题目都来自发布时固定下来的快照，修改题目不会影响这份答案
+     */
+    private final boolean pinned;
+
+    /**
+     * 编译时考试是否可以交卷，考试状态变化时答案会重新编译
+     */
+    private final boolean open;
+
+    private ExamAnswerKey(String examId, String[] questionIds, Map<String, Integer> questionIndexMap, int[] scores, int[] optionOffsets, String[] optionIds, long[] answerMasks,
+                          boolean pinned, boolean open) {
+        this.examId = examId;
+        this.questionIds = questionIds;
+        this.questionIndexMap = questionIndexMap;
+        this.scores = scores;
+        this.optionOffsets = optionOffsets;
+        this.optionIds = optionIds;
+        this.answerMasks = answerMasks;
+        this.layoutHash = computeLayoutHash(questionIds, optionOffsets, optionIds);
+        this.pinned = pinned;
+        this.open = open;
+    }
+
+    private static int computeLayoutHash(String[] questionIds, int[] optionOffsets, String[] optionIds) {
+        CRC32 crc32 = new CRC32();
+        for (int i = 0; i < questionIds.length; i++) {
+            crc32.update(questionIds[i].getBytes(StandardCharsets.UTF_8));
+            // 用不会出现在id中的字节分隔，避免拼接后碰巧相同
+            crc32.update('@');
+            for (int j = optionOffsets[i]; j < optionOffsets[i + 1]; j++) {
+                crc32.update(optionIds[j].getBytes(StandardCharsets.UTF_8));
+                crc32.update('-');
+            }
+            crc32.update('$');
+        }
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * 把考试和考试下的题目编译成答案
+     *
+     * @param exam            考试
+     * @param examQuestions   考试和题目的关联，需要按照题型、出题顺序排好序
+     * @param questionAnswers 考试下所有题目的选项关联，需要按照选项顺序排好序
+     * @param pinned          选项关联是否全部来自题目快照
+     * @return 编译好的答案
+     */
+    public static ExamAnswerKey compile(Exam exam, List<ExamQuestion> examQuestions, List<QuestionAnswer> questionAnswers, boolean pinned) {
+        Map<String, List<QuestionAnswer>> questionAnswerMap = new HashMap<>();
+        for (QuestionAnswer questionAnswer : questionAnswers) {
+            questionAnswerMap.computeIfAbsent(questionAnswer.getQuestionId(), k -> new ArrayList<>()).add(questionAnswer);
+        }
+        // 1.去掉没有选项的题目(题目已经被删掉了)，剩下的按照单选、多选、判断的顺序编号
+        List<ExamQuestion> examQuestionList = new ArrayList<>();
+        for (ExamQuestion examQuestion : examQuestions) {
+            if (questionAnswerMap.containsKey(examQuestion.getQuestionId())) {
+                examQuestionList.add(examQuestion);
+            }
+        }
+        int questionCount = examQuestionList.size();
+        String[] questionIds = new String[questionCount];
+        Map<String, Integer> questionIndexMap = new HashMap<>(questionCount * 2);
+        int[] scores = new int[questionCount];
+        int[] optionOffsets = new int[questionCount + 1];
+        long[] answerMasks = new long[questionCount];
+        List<String> optionIdList = new ArrayList<>();
+        // 2.展开每道题的选项并计算正确答案的bitmap
+        for (int i = 0; i < questionCount; i++) {
+            ExamQuestion examQuestion = examQuestionList.get(i);
+            String questionId = examQuestion.getQuestionId();
+            questionIds[i] = questionId;
+            questionIndexMap.put(questionId, i);
+            scores[i] = sectionScore(exam, examQuestion.getQuestionTypeId());
+            optionOffsets[i] = optionIdList.size();
+            List<QuestionAnswer> options = questionAnswerMap.get(questionId);
+            if (options.size() > MAX_OPTION_COUNT) {
+                throw new IllegalStateException("题目" + questionId + "的选项超过了" + MAX_OPTION_COUNT + "个");
+            }
+            for (int bit = 0; bit < options.size(); bit++) {
+                QuestionAnswer option = options.get(bit);
+                optionIdList.add(option.getQuestionOptionId());
+                if (Boolean.TRUE.equals(option.getAnswer())) {
+                    answerMasks[i] |= 1L << bit;
+                }
+            }
+        }
+        optionOffsets[questionCount] = optionIdList.size();
+        return new ExamAnswerKey(exam.getExamId(), questionIds, Collections.unmodifiableMap(questionIndexMap),
+                scores, optionOffsets, optionIdList.toArray(new String[0]), answerMasks, pinned, ExamStatusEnum.isOpen(exam.getExamStatus()));
+    }
+
+    /**
+     * 获取题型对应的每题分数
+     */
+    private static int sectionScore(Exam exam, Integer questionTypeId) {
+        Integer score = null;
+        if (QuestionEnum.RADIO.getId().equals(questionTypeId)) {
+            score = exam.getExamScoreRadio();
+        } else if (QuestionEnum.CHECK.getId().equals(questionTypeId)) {
+            score = exam.getExamScoreCheck();
+        } else if (QuestionEnum.JUDGE.getId().equals(questionTypeId)) {
+            score = exam.getExamScoreJudge();
+        }
+        return score == null ? 0 : score;
+    }
+
+    public String getExamId() {
+        return examId;
+    }
+
+    /**
+     * @return 题目是否全部固定在发布时的版本
+     */
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    /**
+     * @return 考试是否可以交卷
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @return 考试的题目个数
+     */
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    /**
+     * 获取题目的序号
+     *
+     * @param questionId 题目id
+     * @return 题目序号，不是这场考试的题目时返回-1
+     */
+    public int indexOf(String questionId) {
+        Integer index = questionIndexMap.get(questionId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param index 题目序号
+     * @return 题目id
+     */
+    public String questionIdAt(int index) {
+        return questionIds[index];
+    }
+
+    /**
+     * @param index 题目序号
+     * @return 这道题答对的得分
+     */
+    public int scoreOf(int index) {
+        return scores[index];
+    }
+
+    /**
+     * 获取选项在题目中的序号
+     *
+     * @param index    题目序号
+     * @param optionId 选项id
+     * @return 选项序号，不是这道题的选项时返回-1
+     */
+    public int optionIndexOf(int index, String optionId) {
+        int from = optionOffsets[index];
+        int to = optionOffsets[index + 1];
+        // 一道题一般只有几个选项，顺序查找比哈希更快
+        for (int i = from; i < to; i++) {
+            if (optionIds[i].equals(optionId)) {
+                return i - from;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index 题目序号
+     * @return 这道题的选项个数
+     */
+    public int optionCountOf(int index) {
+        return optionOffsets[index + 1] - optionOffsets[index];
+    }
+
+    /**
+     * @param index       题目序号
+     * @param optionIndex 选项序号
+     * @return 选项id
+     */
+    public String optionIdAt(int index, int optionIndex) {
+        return optionIds[optionOffsets[index] + optionIndex];
+    }
+
+    /**
+     * @return 题目和选项排列的校验和
+     */
+    public int getLayoutHash() {
+        return layoutHash;
+    }
+
+    /**
+     * @param index 题目序号
+     * @return 这道题的正确答案bitmap
+     */
+    public long answerMaskOf(int index) {
+        return answerMasks[index];
+    }
+
+    /**
+     * 判断考生对某道题的作答是否正确
+     *
+     * @param index         题目序号
+     * @param userOptionIds 考生选择的选项id
+     * @return 作答完全正确时返回true
+     */
+    public boolean isCorrect(int index, List<String> userOptionIds) {
+        long mask = 0L;
+        if (userOptionIds != null) {
+            for (String optionId : userOptionIds) {
+                int bit = optionIndexOf(index, optionId);
+                if (bit < 0) {
+                    // 选了不属于这道题的选项
+                    return false;
+                }
+                long flag = 1L << bit;
+                if ((mask & flag) != 0) {
+                    // 重复提交了同一个选项，和原来按字符串比较的结果保持一致，判为错误
+                    return false;
+                }
+                mask |= flag;
+            }
+        }
+        return mask == answerMasks[index];
+    }
+}
@@ -0,0 +1,359 @@
+package com.huawei.l00379880.exam.judge;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.enums.SubmissionStatusEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.leaderboard.ExamLeaderboard;
+import com.huawei.l00379880.exam.repository.ExamRecordRepository;
+import com.huawei.l00379880.exam.service.ExamService;
+import com.huawei.l00379880.exam.vo.SubmissionTicketVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 考试结束时所有考生会同时交卷，每个请求都同步判分并单独insert一条记录会把连接池打满。
+ * 异步模式下请求只负责把答卷放进有界队列并立即返回凭证，判分线程池判完分后交给单独的写线程，
+ * 写线程攒够一批(或者等到超时)再用JDBC的batch insert一次写入，前端凭凭证轮询结果。
+ * 凭证就是考试记录的id，内存中的凭证丢了(比如服务重启)也能从exam_record中查到已经入库的结果。
+ * 排队中和判完分还没入库的答卷只在内存中，正常停机时会先处理完，进程崩溃的话会丢失，
+ * 这时查询凭证返回UNKNOWN，提示考生到考试记录中确认并重新交卷
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class SubmissionQueue {
+
+    private static final String INSERT_SQL = "insert into exam_record (exam_record_id, exam_id, answer_option_ids, answer_data, exam_joiner_id, " +
+            "exam_join_date, exam_time_cost, exam_join_score, exam_result_level) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 已经结束的提交保留多久(毫秒)，超时后就查不到了
+     */
+    private static final long FINISHED_TTL = 30 * 60 * 1000L;
+
+    /**
+     * 多久清理一次过期的提交(毫秒)
+     */
+    private static final long PURGE_INTERVAL = 60 * 1000L;
+
+    private final ExamService examService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExamLeaderboard examLeaderboard;
+
+    private final ExamRecordRepository examRecordRepository;
+
+    /**
+     * 关闭异步模式时提交的答卷直接同步判分
+     */
+    @Value("${exam.submission.async-enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${exam.submission.worker-count:4}")
+    private int workerCount;
+
+    @Value("${exam.submission.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${exam.submission.batch-size:100}")
+    private int batchSize;
+
+    @Value("${exam.submission.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final ConcurrentMap<String, Submission> submissionMap = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor judgePool;
+
+    private BlockingQueue<Submission> writeQueue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private long lastPurgeTime;
+
+    /**
+     * 因为队列满了被拒绝的提交数
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public SubmissionQueue(ExamService examService, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ExamLeaderboard examLeaderboard, ExamRecordRepository examRecordRepository) {
+        this.examService = examService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.examLeaderboard = examLeaderboard;
+        this.examRecordRepository = examRecordRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        judgePool = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "exam-judge-" + threadNo.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "exam-record-writer");
+        writerThread.start();
+        log.info("异步交卷队列已启动，判分线程{}个，队列容量{}，批量大小{}", workerCount, queueCapacity, batchSize);
+    }
+
+    /**
+     * 提交答卷
+     *
+     * @param userId     考试人
+     * @param examId     参与的考试
+     * @param answersMap 作答情况
+     * @return 提交凭证
+     */
+    public SubmissionTicketVo submit(String userId, String examId, HashMap<String, List<String>> answersMap) {
+        Submission submission = new Submission(IdUtil.simpleUUID(), userId, examId, answersMap);
+        if (!asyncEnabled) {
+            // 没有开启异步模式，直接同步判分入库
+            submission.record = examService.judge(userId, examId, answersMap);
+            submission.finish(SubmissionStatusEnum.FINISHED);
+            return submission.toVo();
+        }
+        submissionMap.put(submission.ticket, submission);
+        try {
+            judgePool.execute(() -> grade(submission));
+        } catch (RejectedExecutionException e) {
+            submissionMap.remove(submission.ticket);
+            rejectedCount.incrementAndGet();
+            throw new ExamException(ResultEnum.SUBMISSION_BUSY);
+        }
+        return submission.toVo();
+    }
+
+    /**
+     * 查询提交的处理状态
+     *
+     * @param userId 考试人，只能查自己的提交
+     * @param ticket 提交凭证
+     * @return 提交的状态，完成后带上考试记录；内存和数据库中都没有时返回UNKNOWN
+     * @throws ExamException 凭证是别人的，当成不存在
+     */
+    public SubmissionTicketVo getStatus(String userId, String ticket) {
+        Submission submission = submissionMap.get(ticket);
+        if (submission != null) {
+            if (!submission.userId.equals(userId)) {
+                throw new ExamException(ResultEnum.SUBMISSION_NOT_FOUND);
+            }
+            return submission.toVo();
+        }
+        // 内存中没有的话看是不是已经入库了(凭证过期或者服务重启过)
+        SubmissionTicketVo ticketVo = new SubmissionTicketVo();
+        ticketVo.setTicket(ticket);
+        ExamRecord record = examRecordRepository.findById(ticket).orElse(null);
+        if (record != null) {
+            if (!userId.equals(record.getExamJoinerId())) {
+                throw new ExamException(ResultEnum.SUBMISSION_NOT_FOUND);
+            }
+            ticketVo.setStatus(SubmissionStatusEnum.FINISHED.getCode());
+            ticketVo.setMessage(SubmissionStatusEnum.FINISHED.getMessage());
+            ticketVo.setExamRecord(record);
+        } else {
+            ticketVo.setStatus(SubmissionStatusEnum.UNKNOWN.getCode());
+            ticketVo.setMessage(SubmissionStatusEnum.UNKNOWN.getMessage());
+        }
+        return ticketVo;
+    }
+
+    /**
+     * @return 等待判分的答卷数
+     */
+    public int getJudgeQueueSize() {
+        return judgePool == null ? 0 : judgePool.getQueue().size();
+    }
+
+    /**
+     * @return 判完分等待写入的考试记录数
+     */
+    public int getWriteQueueSize() {
+        return writeQueue == null ? 0 : writeQueue.size();
+    }
+
+    /**
+     * @return 还能查询到的提交数
+     */
+    public int getTicketCount() {
+        return submissionMap.size();
+    }
+
+    /**
+     * @return 因为队列满了被拒绝的提交数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void grade(Submission submission) {
+        try {
+            ExamRecord record = examService.grade(submission.userId, submission.examId, submission.answersMap);
+            // 用凭证作为考试记录的id，内存中的凭证丢了也能查到结果
+            record.setExamRecordId(submission.ticket);
+            submission.record = record;
+            // 判完分答卷就用不到了，释放掉
+            submission.answersMap = null;
+            submission.status = SubmissionStatusEnum.GRADED;
+            // 写线程跟不上时这里会阻塞，进而让判分队列满掉，新的提交会被拒绝
+            writeQueue.put(submission);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            submission.fail("服务正在停止，答卷没有保存，请重新交卷");
+        } catch (ExamException e) {
+            // 比如考试已经结束，重新交卷也没用
+            submission.fail(e.getMessage());
+        } catch (Exception e) {
+            log.error("考试{}的答卷{}判分失败", submission.examId, submission.ticket, e);
+            submission.fail("判分时服务器出错，请重新交卷");
+        }
+    }
+
+    private void writeLoop() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !writeQueue.isEmpty()) {
+            try {
+                Submission first = writeQueue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    writeQueue.drainTo(batch, batchSize - 1);
+                    flush(batch);
+                    batch.clear();
+                }
+                purgeFinished();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("保存考试记录的线程出现异常", e);
+            }
+        }
+    }
+
+    /**
+     * 一批考试记录用一次batch insert写入，失败的话再逐条写入，找出具体是哪条出的问题
+     */
+    private void flush(List<Submission> batch) {
+        try {
+            transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    (ps, submission) -> setParameters(ps, submission.record)));
+            // 整批提交成功后再更新排行榜
+            for (Submission submission : batch) {
+                examLeaderboard.offer(submission.record);
+                submission.finish(SubmissionStatusEnum.FINISHED);
+            }
+        } catch (Exception e) {
+            log.warn("批量保存{}条考试记录失败，改为逐条保存", batch.size(), e);
+            for (Submission submission : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, ps -> setParameters(ps, submission.record));
+                    examLeaderboard.offer(submission.record);
+                    submission.finish(SubmissionStatusEnum.FINISHED);
+                } catch (Exception ex) {
+                    log.error("保存考试记录{}失败", submission.record.getExamRecordId(), ex);
+                    submission.fail("保存考试记录失败，请重新交卷");
+                }
+            }
+        }
+    }
+
+    private static void setParameters(PreparedStatement ps, ExamRecord record) throws SQLException {
+        ps.setString(1, record.getExamRecordId());
+        ps.setString(2, record.getExamId());
+        ps.setString(3, record.getAnswerOptionIds());
+        ps.setBytes(4, record.getAnswerData());
+        ps.setString(5, record.getExamJoinerId());
+        ps.setTimestamp(6, new Timestamp(record.getExamJoinDate().getTime()));
+        ps.setObject(7, record.getExamTimeCost(), Types.INTEGER);
+        ps.setObject(8, record.getExamJoinScore(), Types.INTEGER);
+        ps.setObject(9, record.getExamResultLevel(), Types.INTEGER);
+    }
+
+    private void purgeFinished() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeTime < PURGE_INTERVAL) {
+            return;
+        }
+        lastPurgeTime = now;
+        submissionMap.values().removeIf(submission -> submission.finishTime > 0 && now - submission.finishTime > FINISHED_TTL);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 先让判分线程把手头的答卷判完，写线程把队列里的记录写完再退出
+        judgePool.shutdown();
+        judgePool.awaitTermination(30, TimeUnit.SECONDS);
+        running = false;
+        writerThread.join(30 * 1000L);
+        log.info("异步交卷队列已关闭");
+    }
+
+    /**
+     * 一次提交
+     */
+    private static final class Submission {
+        private final String ticket;
+        private final String userId;
+        private final String examId;
+        private volatile HashMap<String, List<String>> answersMap;
+        private volatile SubmissionStatusEnum status = SubmissionStatusEnum.QUEUED;
+        private volatile ExamRecord record;
+        private volatile long finishTime;
+        private volatile String failReason;
+
+        Submission(String ticket, String userId, String examId, HashMap<String, List<String>> answersMap) {
+            this.ticket = ticket;
+            this.userId = userId;
+            this.examId = examId;
+            this.answersMap = answersMap;
+        }
+
+        void finish(SubmissionStatusEnum finalStatus) {
+            status = finalStatus;
+            finishTime = System.currentTimeMillis();
+        }
+
+        void fail(String reason) {
+            failReason = reason;
+            finish(SubmissionStatusEnum.FAILED);
+        }
+
+        SubmissionTicketVo toVo() {
+            SubmissionTicketVo ticketVo = new SubmissionTicketVo();
+            ticketVo.setTicket(ticket);
+            SubmissionStatusEnum current = status;
+            ticketVo.setStatus(current.getCode());
+            ticketVo.setMessage(current.getMessage());
+            if (current == SubmissionStatusEnum.FINISHED) {
+                ticketVo.setExamRecord(record);
+            } else if (current == SubmissionStatusEnum.FAILED) {
+                ticketVo.setReason(failReason);
+            }
+            return ticketVo;
+        }
+    }
+}
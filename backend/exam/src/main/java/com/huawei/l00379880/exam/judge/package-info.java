@@ -0,0 +1,4 @@
+/*
+ * Description : 考试判分相关，把考试的答案预编译成紧凑的结构，判分时只做位运算
+ */
+package com.huawei.l00379880.exam.judge;
@@ -0,0 +1,199 @@
+package com.huawei.l00379880.exam.leaderboard;
+
+import com.huawei.l00379880.exam.cache.EntityChangeListener;
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.repository.ExamRecordRepository;
+import com.huawei.l00379880.exam.repository.ExamRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 考试期间老师会不停地刷新排行榜，每次都按分数扫描、排序exam_record太浪费。
+ * 这里每场考试在内存中维护一个ScoreBoard，同步交卷在事务提交后、异步交卷在批量写入后放入新成绩。
+ * 启动完成后把已发布考试的排行榜从exam_record重建出来，已结束的考试第一次查看时再加载，
+ * 已结束的考试不会再有人交卷，加载后就不会再变，也留在内存中；草稿和不存在的考试直接报错，不建排行榜。
+ * 考试被修改、结束或者删除后丢掉它的排行榜，下次用到时重新校验并加载。
+ * 加载在ConcurrentHashMap的锁外面执行，同一场考试同时只有一个请求在加载，其他请求等它的结果。
+ * 加载和放入成绩都是幂等的(每个考生只保留最好的一次)，加载期间提交的成绩不会丢也不会重复
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class ExamLeaderboard implements ApplicationRunner {
+
+    private final ExamRecordRepository examRecordRepository;
+
+    private final ExamRepository examRepository;
+
+    private final ConcurrentMap<String, FutureTask<ScoreBoard>> boardMap = new ConcurrentHashMap<>();
+
+    public ExamLeaderboard(ExamRecordRepository examRecordRepository, ExamRepository examRepository) {
+        this.examRecordRepository = examRecordRepository;
+        this.examRepository = examRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        EntityChangeListener.subscribe(this::onEntityChanged);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        for (Exam exam : examRepository.findByExamStatus(ExamStatusEnum.PUBLISHED.getCode())) {
+            total += board(exam.getExamId()).size();
+        }
+        log.info("重建{}场已发布考试的排行榜，共{}名考生，耗时{}ms", boardMap.size(), total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 放入一条考试记录。在事务中调用时等事务提交后再放入，回滚了的成绩不会出现在排行榜中
+     *
+     * @param examRecord 已经保存的考试记录
+     */
+    public void offer(ExamRecord examRecord) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    doOffer(examRecord);
+                }
+            });
+        } else {
+            doOffer(examRecord);
+        }
+    }
+
+    /**
+     * @param examId 考试id
+     * @param k      取多少名
+     * @return 前k名的成绩，按排名顺序
+     */
+    public List<LeaderboardEntry> top(String examId, int k) {
+        return k <= 0 ? Collections.emptyList() : board(examId).top(k);
+    }
+
+    /**
+     * @param examId 考试id
+     * @param userId 考生id
+     * @return 考生的最好成绩，没有交过卷的返回null
+     */
+    public LeaderboardEntry get(String examId, String userId) {
+        return board(examId).get(userId);
+    }
+
+    /**
+     * @param examId 考试id
+     * @param userId 考生id
+     * @return 考生的名次，从1开始，同分同名次，没有交过卷的返回0
+     */
+    public int rankOf(String examId, String userId) {
+        return board(examId).rankOf(userId);
+    }
+
+    /**
+     * @param examId 考试id
+     * @return 参加排名的人数
+     */
+    public int size(String examId) {
+        return board(examId).size();
+    }
+
+    /**
+     * 只更新已经在内存中的排行榜。不在内存中的等第一次用到时加载，
+     * 那时这条记录已经提交了，会从exam_record中读出来
+     */
+    private void doOffer(ExamRecord examRecord) {
+        FutureTask<ScoreBoard> task = boardMap.get(examRecord.getExamId());
+        if (task == null) {
+            return;
+        }
+        try {
+            task.get().offer(new LeaderboardEntry(examRecord.getExamJoinerId(), examRecord.getExamJoinScore(),
+                    examRecord.getExamTimeCost(), examRecord.getExamJoinDate()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 加载失败的由board()清理，下次加载时会读到这条记录
+            log.warn("考试{}的排行榜加载失败，成绩等下次加载时再放入", examRecord.getExamId());
+        }
+    }
+
+    /**
+     * 获取考试的排行榜，第一次用到时从考试记录加载。加载时同一场考试的其他请求和放入的成绩会等它加载完。
+     * 一个请求要查多项数据时先拿到排行榜再查，不要分几次调用top、size、rankOf，它们每次都重新找一遍排行榜
+     *
+     * @param examId 考试id
+     * @return 考试的排行榜，只能读
+     * @throws ExamException 考试不存在或者还是草稿
+     */
+    public ScoreBoard board(String examId) {
+        FutureTask<ScoreBoard> task = boardMap.get(examId);
+        if (task == null) {
+            FutureTask<ScoreBoard> newTask = new FutureTask<>(() -> load(examId));
+            task = boardMap.putIfAbsent(examId, newTask);
+            if (task == null) {
+                task = newTask;
+                // 在map的锁外面扫描exam_record，不会挡住其他考试的排行榜
+                newTask.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待考试" + examId + "的排行榜时被中断", e);
+        } catch (ExecutionException e) {
+            // 加载失败的不缓存，下次重新加载
+            boardMap.remove(examId, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 先校验考试，草稿和不存在的考试不建排行榜，防止随便传个examId就在内存里留下一个空的排行榜
+     */
+    private ScoreBoard load(String examId) {
+        Exam exam = examRepository.findById(examId).orElseThrow(() -> new ExamException(ResultEnum.PARAM_ERR));
+        if (!ExamStatusEnum.isPinned(exam.getExamStatus())) {
+            throw new ExamException(ResultEnum.EXAM_NOT_OPEN);
+        }
+        ScoreBoard board = new ScoreBoard();
+        for (LeaderboardEntry entry : examRecordRepository.findLeaderboardEntryByExamId(examId)) {
+            board.offer(entry);
+        }
+        return board;
+    }
+
+    /**
+     * 考试有任何变更(结束、退回草稿、删除)都丢掉它的排行榜，下次用到时按新的状态重新加载。
+     * 通知是在事务提交后发出的，之后开始的加载一定能读到新的状态
+     */
+    private void onEntityChanged(Object entity) {
+        if (entity instanceof Exam) {
+            boardMap.remove(((Exam) entity).getExamId());
+        }
+    }
+}
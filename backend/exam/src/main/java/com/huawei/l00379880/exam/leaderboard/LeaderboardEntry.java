@@ -0,0 +1,64 @@
+package com.huawei.l00379880.exam.leaderboard;
+
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * 创建后不再修改，可以在排行榜的跳表中放心共享
+ *
+ * @author liangshanguang
+ */
+public final class LeaderboardEntry {
+
+    /**
+     * 排行榜的顺序：分数高的在前，同分的用时少的在前，再相同的先交卷的在前，最后按考生id保证没有两个条目相等
+     */
+    static final Comparator<LeaderboardEntry> ORDER = Comparator.comparingInt(LeaderboardEntry::getScore).reversed()
+            .thenComparingInt(LeaderboardEntry::getTimeCost)
+            .thenComparingLong(LeaderboardEntry::getJoinTime)
+            .thenComparing(LeaderboardEntry::getUserId);
+
+    private final String userId;
+
+    private final int score;
+
+    /**
+     * 考试用时，没有记录用时的排在同分的最后
+     */
+    private final int timeCost;
+
+    private final long joinTime;
+
+    /**
+     * 给ExamRecordRepository中的构造器表达式查询用，也用于交卷后直接从考试记录构造
+     */
+    public LeaderboardEntry(String userId, Integer score, Integer timeCost, Date joinDate) {
+        this.userId = userId;
+        this.score = score == null ? 0 : Math.max(score, 0);
+        this.timeCost = timeCost == null ? Integer.MAX_VALUE : timeCost;
+        this.joinTime = joinDate == null ? Long.MAX_VALUE : joinDate.getTime();
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getTimeCost() {
+        return timeCost;
+    }
+
+    public long getJoinTime() {
+        return joinTime;
+    }
+
+    /**
+     * @return 这个成绩是否比other排得更靠前
+     */
+    boolean betterThan(LeaderboardEntry other) {
+        return ORDER.compare(this, other) < 0;
+    }
+}
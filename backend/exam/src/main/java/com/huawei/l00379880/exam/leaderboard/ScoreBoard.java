@@ -0,0 +1,151 @@
+package com.huawei.l00379880.exam.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 每个考生只保留最好的一次成绩。前k名直接按顺序遍历跳表，O(log n + k)，不加锁；
+ * 某个考生的名次是"分数比他高的人数+1"(同分同名次)，分数都是不大的非负整数，
+ * 用下标是分数的树状数组统计人数，O(log 最高分)。跳表本身不能按下标定位，所以另外维护这个计数。
+ * 交卷远比查看排行榜少，更新时加写锁保证跳表、每人的成绩和计数三者一致。
+ * 只有ExamLeaderboard能放入成绩，其他地方拿到的只能读
+ *
+ * @author liangshanguang
+ */
+public final class ScoreBoard {
+
+    private final ConcurrentSkipListSet<LeaderboardEntry> ranking = new ConcurrentSkipListSet<>(LeaderboardEntry.ORDER);
+
+    /**
+     * 考生id -> 最好的一次成绩
+     */
+    private final Map<String, LeaderboardEntry> bestMap = new HashMap<>();
+
+    /**
+     * 树状数组，下标score + 1处统计得了score分的人数，长度是2的幂，分数超出时翻倍重建
+     */
+    private int[] tree = new int[128];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    ScoreBoard() {
+    }
+
+    /**
+     * 放入一次成绩，不比这个考生已有的成绩好时忽略，所以同一条记录放入多次也没关系
+     *
+     * @param entry 成绩
+     * @return 排行榜是否发生了变化
+     */
+    boolean offer(LeaderboardEntry entry) {
+        lock.writeLock().lock();
+        try {
+            LeaderboardEntry old = bestMap.get(entry.getUserId());
+            if (old != null && !entry.betterThan(old)) {
+                return false;
+            }
+            ensureCapacity(entry.getScore());
+            if (old != null) {
+                ranking.remove(old);
+                add(old.getScore(), -1);
+            }
+            bestMap.put(entry.getUserId(), entry);
+            ranking.add(entry);
+            add(entry.getScore(), 1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 考生的最好成绩，没有交过卷的返回null
+     */
+    public LeaderboardEntry get(String userId) {
+        lock.readLock().lock();
+        try {
+            return bestMap.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 考生的名次，从1开始，同分同名次，没有交过卷的返回0
+     */
+    public int rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            LeaderboardEntry entry = bestMap.get(userId);
+            if (entry == null) {
+                return 0;
+            }
+            return bestMap.size() - countAtMost(entry.getScore()) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 前k名，遍历时有人交卷的话看到的可能是交卷前或者交卷后的顺序，对实时刷新的排行榜没有影响
+     *
+     * @param k 取多少名
+     * @return 按排行榜顺序排好的成绩
+     */
+    public List<LeaderboardEntry> top(int k) {
+        List<LeaderboardEntry> entryList = new ArrayList<>(Math.min(k, 64));
+        Iterator<LeaderboardEntry> iterator = ranking.iterator();
+        while (entryList.size() < k && iterator.hasNext()) {
+            entryList.add(iterator.next());
+        }
+        return entryList;
+    }
+
+    /**
+     * @return 参加排名的人数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bestMap.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(int score, int delta) {
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @return 分数不超过score的人数
+     */
+    private int countAtMost(int score) {
+        int count = 0;
+        for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int score) {
+        if (score + 1 < tree.length) {
+            return;
+        }
+        int length = tree.length;
+        while (score + 1 >= length) {
+            length <<= 1;
+        }
+        tree = new int[length];
+        for (LeaderboardEntry entry : bestMap.values()) {
+            add(entry.getScore(), 1);
+        }
+    }
+}
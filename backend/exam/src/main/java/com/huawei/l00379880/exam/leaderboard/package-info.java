@@ -0,0 +1,4 @@
+/*
+ * Description : 考试的实时排行榜，交卷时增量更新，不用每次都扫描考试记录再排序
+ */
+package com.huawei.l00379880.exam.leaderboard;
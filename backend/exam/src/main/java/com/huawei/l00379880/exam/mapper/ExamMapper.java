@@ -0,0 +1,41 @@
+package com.huawei.l00379880.exam.mapper;
+
+import com.huawei.l00379880.exam.entity.Exam;
+import com.huawei.l00379880.exam.vo.ExamCardVo;
+import com.huawei.l00379880.exam.vo.ExamCreateVo;
+import com.huawei.l00379880.exam.vo.ExamVo;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * 和原来的BeanUtils.copyProperties一样只复制同名同类型的属性，其余属性由调用方自己设置。
+ * 实现类ExamMapperImpl在编译期生成，就是一串普通的getter和setter调用
+ *
+ * @author liangshanguang
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ExamMapper {
+
+    ExamMapper INSTANCE = Mappers.getMapper(ExamMapper.class);
+
+    /**
+     * 考试列表中的一场考试，创建者和题目列表由调用方设置
+     */
+    ExamVo toExamVo(Exam exam);
+
+    /**
+     * 考生看到的考试卡片
+     */
+    ExamCardVo toExamCardVo(Exam exam);
+
+    /**
+     * 创建考试时前端提交的名称、描述、限时和各题型的分数，id、创建者和题目由调用方设置
+     */
+    Exam toExam(ExamCreateVo examCreateVo);
+
+    /**
+     * 复制一份考试，返回给前端前要改头像地址，不能直接改查出来的实体，否则会被Hibernate写回数据库
+     */
+    Exam copyExam(Exam exam);
+}
@@ -0,0 +1,49 @@
+package com.huawei.l00379880.exam.mapper;
+
+import com.huawei.l00379880.exam.entity.Question;
+import com.huawei.l00379880.exam.entity.QuestionOption;
+import com.huawei.l00379880.exam.vo.*;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * 只映射名字相同的属性，创建者、难度、分类、选项列表这些由调用方设置
+ *
+ * @author liangshanguang
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface QuestionMapper {
+
+    QuestionMapper INSTANCE = Mappers.getMapper(QuestionMapper.class);
+
+    /**
+     * 题目列表中的一道题
+     */
+    QuestionVo toQuestionVo(Question question);
+
+    /**
+     * 考试中的一道题，只有id和题干
+     */
+    ExamQuestionSelectVo toExamQuestionSelectVo(Question question);
+
+    /**
+     * 题目的一个选项，是否是答案由调用方根据QuestionAnswer设置
+     */
+    QuestionOptionVo toQuestionOptionVo(QuestionOption questionOption);
+
+    /**
+     * 更新题目时前端提交的选项
+     */
+    QuestionOption toQuestionOption(QuestionOptionVo questionOptionVo);
+
+    /**
+     * 创建题目，id、选项和版本由调用方设置
+     */
+    Question toQuestion(QuestionCreateVo questionCreateVo);
+
+    /**
+     * 前端提交的简化版创建题目参数，创建者由调用方设置，分数用QuestionCreateVo的默认值
+     */
+    QuestionCreateVo toQuestionCreateVo(QuestionCreateSimplifyVo questionCreateSimplifyVo);
+}
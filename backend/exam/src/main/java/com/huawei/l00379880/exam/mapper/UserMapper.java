@@ -0,0 +1,57 @@
+package com.huawei.l00379880.exam.mapper;
+
+import com.huawei.l00379880.exam.entity.Action;
+import com.huawei.l00379880.exam.entity.Page;
+import com.huawei.l00379880.exam.entity.Role;
+import com.huawei.l00379880.exam.entity.User;
+import com.huawei.l00379880.exam.vo.*;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+/**
+ * 头像地址、角色和权限树由调用方设置。密码不在VO中，不会被复制出去
+ *
+ * @author liangshanguang
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserMapper {
+
+    UserMapper INSTANCE = Mappers.getMapper(UserMapper.class);
+
+    UserVo toUserVo(User user);
+
+    UserInfoVo toUserInfoVo(User user);
+
+    /**
+     * 复制一份用户，返回给前端前要改头像地址，不能直接改查出来的实体，否则会被Hibernate写回数据库
+     */
+    User copyUser(User user);
+
+    /**
+     * 角色的名称和描述，页面列表由调用方设置
+     */
+    RoleVo toRoleVo(Role role);
+
+    /**
+     * 页面的名称和描述，操作列表由调用方设置
+     */
+    PageVo toPageVo(Page page);
+
+    ActionVo toActionVo(Action action);
+
+    /**
+     * 深拷贝权限树，缓存中的权限树是共享的，返回给每个请求的都是拷贝
+     */
+    RoleVo copyRoleVo(RoleVo roleVo);
+
+    List<PageVo> copyPageVoList(List<PageVo> pageVoList);
+
+    PageVo copyPageVo(PageVo pageVo);
+
+    List<ActionVo> copyActionVoList(List<ActionVo> actionVoList);
+
+    ActionVo copyActionVo(ActionVo actionVo);
+}
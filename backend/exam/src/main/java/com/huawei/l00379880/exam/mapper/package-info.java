@@ -0,0 +1,4 @@
+/*
+ * Description : 实体和VO之间的转换，由MapStruct在编译期生成实现类，代替BeanUtils.copyProperties
+ */
+package com.huawei.l00379880.exam.mapper;
@@ -0,0 +1,75 @@
+package com.huawei.l00379880.exam.metrics;
+
+import com.huawei.l00379880.exam.cache.PaperSnapshotCache;
+import com.huawei.l00379880.exam.cache.PermissionTreeCache;
+import com.huawei.l00379880.exam.cache.ReferenceDataCache;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.judge.SubmissionQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 考试当天主要看交卷队列的积压：exam.submission.judge.queue持续接近队列容量时，新的交卷会被拒绝
+ *
+ * @author liangshanguang
+ */
+@Component
+public class ExamMetricsBinder implements MeterBinder {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final AnswerKeyCache answerKeyCache;
+
+    private final PermissionTreeCache permissionTreeCache;
+
+    private final PaperSnapshotCache paperSnapshotCache;
+
+    private final SubmissionQueue submissionQueue;
+
+    public ExamMetricsBinder(ReferenceDataCache referenceDataCache, AnswerKeyCache answerKeyCache, PermissionTreeCache permissionTreeCache, PaperSnapshotCache paperSnapshotCache, SubmissionQueue submissionQueue) {
+        this.referenceDataCache = referenceDataCache;
+        this.answerKeyCache = answerKeyCache;
+        this.permissionTreeCache = permissionTreeCache;
+        this.paperSnapshotCache = paperSnapshotCache;
+        this.submissionQueue = submissionQueue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("exam.cache.requests", referenceDataCache, ReferenceDataCache::getHitCount)
+                .description("基础数据缓存的访问次数")
+                .tags("cache", "reference", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("exam.cache.requests", referenceDataCache, ReferenceDataCache::getMissCount)
+                .description("基础数据缓存的访问次数")
+                .tags("cache", "reference", "result", "miss")
+                .register(registry);
+        Gauge.builder("exam.cache.size", answerKeyCache, AnswerKeyCache::size)
+                .description("缓存中的条目数")
+                .tag("cache", "answer-key")
+                .register(registry);
+        Gauge.builder("exam.cache.size", permissionTreeCache, PermissionTreeCache::size)
+                .description("缓存中的条目数")
+                .tag("cache", "permission-tree")
+                .register(registry);
+        Gauge.builder("exam.cache.size", paperSnapshotCache, PaperSnapshotCache::size)
+                .description("缓存中的条目数")
+                .tag("cache", "paper-snapshot")
+                .register(registry);
+        Gauge.builder("exam.submission.judge.queue", submissionQueue, SubmissionQueue::getJudgeQueueSize)
+                .description("等待判分的答卷数")
+                .register(registry);
+        Gauge.builder("exam.submission.write.queue", submissionQueue, SubmissionQueue::getWriteQueueSize)
+                .description("判完分等待写入数据库的考试记录数")
+                .register(registry);
+        Gauge.builder("exam.submission.tickets", submissionQueue, SubmissionQueue::getTicketCount)
+                .description("还能查询到的交卷凭证数")
+                .register(registry);
+        FunctionCounter.builder("exam.submission.rejected", submissionQueue, SubmissionQueue::getRejectedCount)
+                .description("因为队列满了被拒绝的交卷数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.huawei.l00379880.exam.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求开始时开始统计当前线程的SQL计数，结束时清理掉并按接口模板(比如/exam/detail/{id})记录语句数和语句总耗时。
+ * 某个接口的exam.sql.queries.per.request随着数据量上涨，就说明出现了N+1查询
+ *
+ * @author liangshanguang
+ */
+@Component
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestSqlMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlQueryCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long[] sqlMetrics = SqlQueryCounter.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // 没有匹配到controller的请求(静态资源、404等)不统计，避免uri标签无限增长
+            if (pattern != null) {
+                String uri = pattern.toString();
+                DistributionSummary.builder("exam.sql.queries.per.request")
+                        .description("每个请求执行的SQL语句数")
+                        .tag("uri", uri)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(sqlMetrics[0]);
+                Timer.builder("exam.sql.time.per.request")
+                        .description("每个请求执行SQL语句的总耗时")
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(sqlMetrics[1], TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
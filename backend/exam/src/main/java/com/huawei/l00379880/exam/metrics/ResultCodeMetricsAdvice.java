@@ -0,0 +1,56 @@
+package com.huawei.l00379880.exam.metrics;
+
+import com.huawei.l00379880.exam.vo.ResultVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * controller出错时一般也返回HTTP 200，只是ResultVO的code不是0，所以http.server.requests的status标签看不出失败。
+ * 这里对每个接口按照controller方法和结果码计数，code非0的比例升高就可以告警
+ *
+ * @author liangshanguang
+ */
+@ControllerAdvice
+public class ResultCodeMetricsAdvice implements ResponseBodyAdvice<Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    public ResultCodeMetricsAdvice(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ResultVO.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof ResultVO) {
+            Integer code = ((ResultVO<?>) body).getCode();
+            Object pattern = request instanceof ServletServerHttpRequest
+                    ? ((ServletServerHttpRequest) request).getServletRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)
+                    : null;
+            Counter.builder("exam.api.results")
+                    .description("接口返回的业务结果码")
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .tag("method", returnType.getExecutable().getDeclaringClass().getSimpleName() + "." + returnType.getExecutable().getName())
+                    .tag("code", String.valueOf(code))
+                    .tag("outcome", code != null && code == 0 ? "success" : "failure")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,40 @@
+package com.huawei.l00379880.exam.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 在Hikari连接池外面再包一层代理，所有经过JPA和JdbcTemplate的语句都会被统计到。
+ * 连接池本身的指标(hikaricp.connections.*)由Spring Boot通过unwrap找到连接池后注册，不受代理影响
+ *
+ * @author liangshanguang
+ */
+@Component
+public class SqlMetricsDataSourcePostProcessor implements BeanPostProcessor {
+
+    /**
+     * BeanPostProcessor创建得很早，MeterRegistry要延迟获取
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    public SqlMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create((DataSource) bean)
+                    .name(beanName)
+                    .listener(new SqlQueryCounter(meterRegistryProvider.getObject()))
+                    .build();
+        }
+        return bean;
+    }
+}
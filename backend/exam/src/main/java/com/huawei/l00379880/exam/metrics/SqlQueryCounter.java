@@ -0,0 +1,108 @@
+package com.huawei.l00379880.exam.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.listener.QueryType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * datasource-proxy的监听器，每条语句执行完后：
+ * 1.按语句类型(select/insert/update/delete)记录耗时
+ * 2.如果当前线程正在处理请求，累加到请求的计数中，请求结束时由RequestSqlMetricsFilter按接口汇总，用来发现N+1查询。
+ * 交卷队列、头像下载等线程池里执行的语句不属于任何请求，只记录耗时不计数
+ *
+ * @author liangshanguang
+ */
+public class SqlQueryCounter implements QueryExecutionListener {
+
+    /**
+     * 当前请求执行的语句数，下标0是语句数，1是总耗时(纳秒)。只在RequestSqlMetricsFilter的范围内有值
+     */
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 语句开始执行的时间存在ExecutionInfo里，before和after拿到的是同一个ExecutionInfo
+     */
+    private static final String START_NANOS = SqlQueryCounter.class.getName() + ".startNanos";
+
+    private final Timer selectTimer;
+    private final Timer insertTimer;
+    private final Timer updateTimer;
+    private final Timer deleteTimer;
+    private final Timer otherTimer;
+
+    public SqlQueryCounter(MeterRegistry meterRegistry) {
+        selectTimer = statementTimer(meterRegistry, "select");
+        insertTimer = statementTimer(meterRegistry, "insert");
+        updateTimer = statementTimer(meterRegistry, "update");
+        deleteTimer = statementTimer(meterRegistry, "delete");
+        otherTimer = statementTimer(meterRegistry, "other");
+    }
+
+    private static Timer statementTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("exam.sql.statements")
+                .description("SQL语句的执行耗时")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        // getElapsedTime只精确到毫秒，大部分语句都会记成0，所以自己用nanoTime计时
+        long elapsedNanos = startNanos == null ? TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()) : System.nanoTime() - startNanos;
+        // batch执行时一次调用包含多条语句，按第一条的类型统计
+        String firstQuery = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        timerOf(QueryUtils.getQueryType(firstQuery)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long[] current = CURRENT.get();
+        if (current != null) {
+            current[0] += Math.max(1, execInfo.getBatchSize());
+            current[1] += elapsedNanos;
+        }
+    }
+
+    private Timer timerOf(QueryType queryType) {
+        switch (queryType) {
+            case SELECT:
+                return selectTimer;
+            case INSERT:
+                return insertTimer;
+            case UPDATE:
+                return updateTimer;
+            case DELETE:
+                return deleteTimer;
+            default:
+                return otherTimer;
+        }
+    }
+
+    /**
+     * 开始统计当前请求的语句数
+     */
+    static void begin() {
+        CURRENT.set(new long[2]);
+    }
+
+    /**
+     * 结束统计并清理当前线程，之后这个线程执行的语句不再计数
+     *
+     * @return 从begin以来执行的语句数和总耗时(纳秒)
+     */
+    static long[] end() {
+        long[] current = CURRENT.get();
+        CURRENT.remove();
+        return current == null ? new long[2] : current;
+    }
+}
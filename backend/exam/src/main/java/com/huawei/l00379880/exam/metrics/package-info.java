@@ -0,0 +1,4 @@
+/*
+ * Description : 监控指标，通过/actuator/prometheus暴露给Prometheus抓取
+ */
+package com.huawei.l00379880.exam.metrics;
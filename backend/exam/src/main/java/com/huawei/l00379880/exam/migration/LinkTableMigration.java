@@ -0,0 +1,187 @@
+package com.huawei.l00379880.exam.migration;
+
+import com.huawei.l00379880.exam.enums.QuestionEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * 考试的题目、题目的选项和答案、角色的页面原来都是用-连接的id字符串存在主表中，查询时只能整列取出再拆分。
+ * 现在这些关系存到了exam_question、question_answer和role_page三张关联表中，
+ * 应用启动时如果某张关联表还是空的而主表有数据，就把主表中的字符串拆开写入关联表。
+ * 新增和修改时两边都会写，所以迁移只会在升级后第一次启动时真正执行。
+ * 多个节点同时启动时用MySQL的命名锁串行化，拿到锁之后再判断是否需要迁移，后拿到锁的节点会看到关联表已经有数据而直接跳过
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class LinkTableMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String LOCK_NAME = "exam_link_table_migration";
+
+    /**
+     * 等待其他节点迁移完成的最长时间，单位秒
+     */
+    private static final int LOCK_TIMEOUT = 300;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public LinkTableMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // 命名锁是绑定在连接上的，放在事务里执行才能保证加锁、迁移和解锁用的是同一个连接
+        transactionTemplate.execute(status -> {
+            Integer locked = jdbcTemplate.queryForObject("select get_lock(?, ?)", Integer.class, LOCK_NAME, LOCK_TIMEOUT);
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("等待关联表迁移锁超时，请确认其他节点的迁移是否已经完成后重新启动");
+            }
+            try {
+                migrateExamQuestion();
+                migrateQuestionAnswer();
+                migrateRolePage();
+            } finally {
+                jdbcTemplate.queryForObject("select release_lock(?)", Integer.class, LOCK_NAME);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 考试的三个题型字符串 -> exam_question
+     */
+    private void migrateExamQuestion() {
+        if (!needMigrate("exam_question", "exam")) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query("select exam_id, exam_question_ids_radio, exam_question_ids_check, exam_question_ids_judge from exam", rs -> {
+            String examId = rs.getString(1);
+            List<String> radioIdList = splitIds(rs.getString(2));
+            List<String> checkIdList = splitIds(rs.getString(3));
+            List<String> judgeIdList = splitIds(rs.getString(4));
+            // 现在创建考试时会拒绝跨题型的重复题目，但是老数据里可能有，这种情况以最后出现的题型为准
+            Map<String, QuestionEnum> questionTypeMap = new HashMap<>();
+            putQuestionType(questionTypeMap, radioIdList, QuestionEnum.RADIO);
+            putQuestionType(questionTypeMap, checkIdList, QuestionEnum.CHECK);
+            putQuestionType(questionTypeMap, judgeIdList, QuestionEnum.JUDGE);
+            addExamQuestions(rows, questionTypeMap, examId, radioIdList, QuestionEnum.RADIO);
+            addExamQuestions(rows, questionTypeMap, examId, checkIdList, QuestionEnum.CHECK);
+            addExamQuestions(rows, questionTypeMap, examId, judgeIdList, QuestionEnum.JUDGE);
+        });
+        insert("exam_question", "insert into exam_question (exam_id, question_id, question_type_id, sort_order) values (?, ?, ?, ?)", rows);
+    }
+
+    private static void putQuestionType(Map<String, QuestionEnum> questionTypeMap, List<String> questionIdList, QuestionEnum questionType) {
+        for (String questionId : questionIdList) {
+            questionTypeMap.put(questionId, questionType);
+        }
+    }
+
+    /**
+     * 同一题型中重复的题只保留第一次出现的位置，顺序号从0开始连续编号，和创建考试时的逻辑一致
+     */
+    private static void addExamQuestions(List<Object[]> rows, Map<String, QuestionEnum> questionTypeMap, String examId, List<String> questionIdList, QuestionEnum questionType) {
+        int sortOrder = 0;
+        for (String questionId : questionIdList) {
+            if (questionTypeMap.get(questionId) == questionType) {
+                // 用过之后移除，后面同一题型里再出现就会被跳过
+                questionTypeMap.remove(questionId);
+                rows.add(new Object[]{examId, questionId, questionType.getId(), sortOrder++});
+            }
+        }
+    }
+
+    /**
+     * 题目的选项和答案字符串 -> question_answer
+     */
+    private void migrateQuestionAnswer() {
+        if (!needMigrate("question_answer", "question")) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query("select question_id, question_option_ids, question_answer_option_ids from question", rs -> {
+            String questionId = rs.getString(1);
+            Set<String> answerIdSet = new HashSet<>(splitIds(rs.getString(3)));
+            // 选项id重复的话只保留第一个
+            Set<String> optionIdSet = new LinkedHashSet<>(splitIds(rs.getString(2)));
+            int sortOrder = 0;
+            for (String optionId : optionIdSet) {
+                rows.add(new Object[]{questionId, optionId, sortOrder++, answerIdSet.contains(optionId)});
+            }
+        });
+        insert("question_answer", "insert into question_answer (question_id, question_option_id, sort_order, answer) values (?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * 角色的页面字符串 -> role_page
+     */
+    private void migrateRolePage() {
+        if (!needMigrate("role_page", "role")) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query("select role_id, role_page_ids from role", rs -> {
+            int roleId = rs.getInt(1);
+            Set<String> pageIdSet = new LinkedHashSet<>(splitIds(rs.getString(2)));
+            int sortOrder = 0;
+            for (String pageId : pageIdSet) {
+                rows.add(new Object[]{roleId, Integer.parseInt(pageId), sortOrder++});
+            }
+        });
+        insert("role_page", "insert into role_page (role_id, page_id, sort_order) values (?, ?, ?)", rows);
+    }
+
+    /**
+     * 关联表是空的并且主表有数据时才需要迁移
+     */
+    private boolean needMigrate(String linkTable, String sourceTable) {
+        Long linkCount = jdbcTemplate.queryForObject("select count(*) from " + linkTable, Long.class);
+        if (linkCount != null && linkCount > 0) {
+            return false;
+        }
+        Long sourceCount = jdbcTemplate.queryForObject("select count(*) from " + sourceTable, Long.class);
+        return sourceCount != null && sourceCount > 0;
+    }
+
+    /**
+     * 分批写入，和迁移锁在同一个事务中，中途失败的话所有关联表一起回滚，下次启动重新迁移
+     */
+    private void insert(String linkTable, String sql, List<Object[]> rows) {
+        transactionTemplate.execute(status -> {
+            for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+            }
+            return null;
+        });
+        log.info("已把{}条数据迁移到关联表{}中", rows.size(), linkTable);
+    }
+
+    /**
+     * 把用-连接起来的id字符串拆分成id列表，会忽略空串
+     */
+    private static List<String> splitIds(String ids) {
+        List<String> idList = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return idList;
+        }
+        for (String id : ids.split("-")) {
+            if (!id.isEmpty()) {
+                idList.add(id);
+            }
+        }
+        return idList;
+    }
+}
@@ -0,0 +1,58 @@
+package com.huawei.l00379880.exam.migration;
+
+import com.huawei.l00379880.exam.entity.ExamQuestion;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
+import com.huawei.l00379880.exam.repository.ExamQuestionRepository;
+import com.huawei.l00379880.exam.snapshot.QuestionSnapshotStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 升级前的考试在数据库迁移时被当成已发布，但是它们的题目关联还没有版本号。
+ * 应用启动完成后(在LinkTableMigration写好关联表之后)逐场考试固定题目的版本并写入快照，
+ * 每场考试一个事务，通过JPA保存，各个缓存会收到变更通知。已经固定过的考试查不出来，所以只会执行一次
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class QuestionVersionMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExamQuestionRepository examQuestionRepository;
+
+    private final QuestionSnapshotStore questionSnapshotStore;
+
+    public QuestionVersionMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ExamQuestionRepository examQuestionRepository, QuestionSnapshotStore questionSnapshotStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.examQuestionRepository = examQuestionRepository;
+        this.questionSnapshotStore = questionSnapshotStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> examIds = jdbcTemplate.queryForList("select distinct eq.exam_id from exam_question eq join exam e on e.exam_id = eq.exam_id " +
+                "where e.exam_status <> ? and eq.question_version is null", String.class, ExamStatusEnum.DRAFT.getCode());
+        for (String examId : examIds) {
+            transactionTemplate.execute(status -> {
+                List<ExamQuestion> examQuestionList = examQuestionRepository.findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(examId);
+                questionSnapshotStore.pin(examQuestionList);
+                examQuestionRepository.saveAll(examQuestionList);
+                return null;
+            });
+        }
+        if (!examIds.isEmpty()) {
+            log.info("已把{}场已发布考试的题目固定到当前版本", examIds.size());
+        }
+    }
+}
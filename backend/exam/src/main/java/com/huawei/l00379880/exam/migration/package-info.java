@@ -0,0 +1,4 @@
+/*
+ * Description : 数据迁移，启动时把老数据补齐到新的表结构中
+ */
+package com.huawei.l00379880.exam.migration;
@@ -0,0 +1,35 @@
+package com.huawei.l00379880.exam.qo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionPickQo {
+    /**
+     * 题型id，必填，参考QuestionEnum
+     */
+    private Integer typeId;
+    /**
+     * 题目分类id，为空表示不限
+     */
+    private Integer categoryId;
+    /**
+     * 题目难度id，为空表示不限
+     */
+    private Integer levelId;
+    /**
+     * 题干中包含的关键字，为空表示不限
+     */
+    private String keyword;
+    /**
+     * 上一页返回的nextCursor，第一页不传
+     */
+    private String cursor;
+    /**
+     * 每页的题目数
+     */
+    private Integer pageSize;
+}
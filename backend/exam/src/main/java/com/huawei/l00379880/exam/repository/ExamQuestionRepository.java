@@ -0,0 +1,25 @@
+package com.huawei.l00379880.exam.repository;
+
+import com.huawei.l00379880.exam.entity.ExamQuestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ExamQuestionRepository extends JpaRepository<ExamQuestion, ExamQuestion.Key> {
+    /**
+     * 获取一场考试的所有题目，按照单选、多选、判断的顺序排列，每种题型内部按照出题顺序排列
+     *
+     * @param examId 考试id
+     * @return 考试下的题目关联
+     */
+    List<ExamQuestion> findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(String examId);
+
+    /**
+     * 批量获取多场考试的所有题目
+     *
+     * @param examIds 考试id集合
+     * @return 这些考试下的题目关联
+     */
+    List<ExamQuestion> findByExamIdInOrderByQuestionTypeIdAscSortOrderAsc(Collection<String> examIds);
+}
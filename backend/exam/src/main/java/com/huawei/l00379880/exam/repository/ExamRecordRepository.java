@@ -6,10 +6,21 @@
  ***********************************************************/
 package com.huawei.l00379880.exam.repository;
 
+import com.huawei.l00379880.exam.dto.ExamRecordExportDTO;
 import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.leaderboard.LeaderboardEntry;
+import com.huawei.l00379880.exam.vo.ExamRecordVo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExamRecordRepository extends JpaRepository<ExamRecord, String> {
     /**
@@ -19,4 +30,54 @@ public interface ExamRecordRepository extends JpaRepository<ExamRecord, String>
      * @return 用户参加过的所有考试
      */
     List<ExamRecord> findByExamJoinerId(String userId);
+
+    /**
+     * 一次查询获取指定用户的所有考试记录以及记录对应的考试
+     *
+     * @param userId 用户id
+     * @param sort   排序方式，比如按照examJoinDate降序
+     * @return 考试记录和考试组成的Vo，user属性需要调用方自己设置
+     */
+    @Query("select new com.huawei.l00379880.exam.vo.ExamRecordVo(r.examRecordId, r.examId, r.examJoinerId, r.examJoinDate, r.examTimeCost, " +
+            "r.examJoinScore, r.examResultLevel, e.examId, e.examName, e.examAvatar, e.examDescription, e.examScore, e.examTimeLimit) " +
+            "from ExamRecord r left join Exam e on e.examId = r.examId " +
+            "where r.examJoinerId = :userId")
+    List<ExamRecordVo> findExamRecordVoByExamJoinerId(@Param("userId") String userId, Sort sort);
+
+    /**
+     * 分页获取指定用户的考试记录以及记录对应的考试
+     *
+     * @param userId   用户id
+     * @param pageable 分页和排序
+     * @return 考试记录和考试组成的Vo，user属性需要调用方自己设置
+     */
+    @Query(value = "select new com.huawei.l00379880.exam.vo.ExamRecordVo(r.examRecordId, r.examId, r.examJoinerId, r.examJoinDate, r.examTimeCost, " +
+            "r.examJoinScore, r.examResultLevel, e.examId, e.examName, e.examAvatar, e.examDescription, e.examScore, e.examTimeLimit) " +
+            "from ExamRecord r left join Exam e on e.examId = r.examId " +
+            "where r.examJoinerId = :userId",
+            countQuery = "select count(r) from ExamRecord r where r.examJoinerId = :userId")
+    Page<ExamRecordVo> findExamRecordVoByExamJoinerId(@Param("userId") String userId, Pageable pageable);
+
+    /**
+     * 流式地获取一场考试的所有考试记录和考生信息，按交卷时间排序，必须在事务中使用并且用完后关闭。
+     * MySQL驱动只有fetch size是Integer.MIN_VALUE时才会一行一行地读，否则会把结果全部读到内存里
+     *
+     * @param examId 考试id
+     * @return 考试记录的流
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.huawei.l00379880.exam.dto.ExamRecordExportDTO(r.examRecordId, r.examJoinerId, u.userUsername, u.userNickname, " +
+            "r.examJoinDate, r.examTimeCost, r.examJoinScore, r.examResultLevel, r.answerData, r.answerOptionIds) " +
+            "from ExamRecord r left join User u on u.userId = r.examJoinerId where r.examId = :examId order by r.examJoinDate")
+    Stream<ExamRecordExportDTO> streamExportByExamId(@Param("examId") String examId);
+
+    /**
+     * 一场考试的所有成绩，用于重建排行榜，同一个考生的多次成绩由调用方取最好的。走idx_exam_record_exam_score
+     *
+     * @param examId 考试id
+     * @return 每条考试记录的考生、分数、用时和交卷时间
+     */
+    @Query("select new com.huawei.l00379880.exam.leaderboard.LeaderboardEntry(r.examJoinerId, r.examJoinScore, r.examTimeCost, r.examJoinDate) " +
+            "from ExamRecord r where r.examId = :examId")
+    List<LeaderboardEntry> findLeaderboardEntryByExamId(@Param("examId") String examId);
 }
@@ -9,5 +9,14 @@ package com.huawei.l00379880.exam.repository;
 import com.huawei.l00379880.exam.entity.Exam;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ExamRepository extends JpaRepository<Exam, String> {
+    /**
+     * 获取指定状态的所有考试
+     *
+     * @param examStatus 考试状态，见ExamStatusEnum
+     * @return 考试列表
+     */
+    List<Exam> findByExamStatus(Integer examStatus);
 }
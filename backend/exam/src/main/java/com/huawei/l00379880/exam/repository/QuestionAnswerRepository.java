@@ -0,0 +1,25 @@
+package com.huawei.l00379880.exam.repository;
+
+import com.huawei.l00379880.exam.entity.QuestionAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface QuestionAnswerRepository extends JpaRepository<QuestionAnswer, QuestionAnswer.Key> {
+    /**
+     * 获取一道题的所有选项关联，按照选项顺序排列
+     *
+     * @param questionId 题目id
+     * @return 选项关联列表
+     */
+    List<QuestionAnswer> findByQuestionIdOrderBySortOrderAsc(String questionId);
+
+    /**
+     * 批量获取多道题的选项关联，按照选项顺序排列
+     *
+     * @param questionIds 题目id集合
+     * @return 选项关联列表
+     */
+    List<QuestionAnswer> findByQuestionIdInOrderBySortOrderAsc(Collection<String> questionIds);
+}
@@ -8,6 +8,19 @@ package com.huawei.l00379880.exam.repository;
 
 import com.huawei.l00379880.exam.entity.QuestionOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface QuestionOptionRepository extends JpaRepository<QuestionOption, String> {
+    /**
+     * 通过题目和选项的关联表批量获取多道题的所有选项
+     *
+     * @param questionIds 题目id集合
+     * @return 这些题目的所有选项，顺序以关联表的sortOrder为准，需要调用方自己排
+     */
+    @Query("select o from QuestionAnswer qa, QuestionOption o where o.questionOptionId = qa.questionOptionId and qa.questionId in :questionIds")
+    List<QuestionOption> findByQuestionIdIn(@Param("questionIds") Collection<String> questionIds);
 }
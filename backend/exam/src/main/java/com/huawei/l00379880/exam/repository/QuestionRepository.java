@@ -6,11 +6,50 @@
  ***********************************************************/
 package com.huawei.l00379880.exam.repository;
 
+import com.huawei.l00379880.exam.dto.QuestionPickDTO;
 import com.huawei.l00379880.exam.entity.Question;
+import com.huawei.l00379880.exam.vo.ExamQuestionSelectVo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 
 public interface QuestionRepository extends JpaRepository<Question, String> {
-    List<Question> findByQuestionTypeId(Integer id);
+    /**
+     * 某种题型的所有题目，只查id和题干，按更新时间倒序，走idx_question_type_update_time
+     *
+     * @param typeId 题型id
+     * @return 题目的下拉选项
+     */
+    @Query("select new com.huawei.l00379880.exam.vo.ExamQuestionSelectVo(q.questionId, q.questionName) from Question q " +
+            "where q.questionTypeId = :typeId order by q.updateTime desc, q.questionId desc")
+    List<ExamQuestionSelectVo> findSelectVoByQuestionTypeId(@Param("typeId") Integer typeId);
+
+    /**
+     * 按(更新时间, id)做键集分页：从上一页最后一道题之后接着往下取，不用offset，
+     * 翻到多深都是沿着idx_question_type_update_time往后扫pageable.size行
+     *
+     * @param typeId     题型id
+     * @param categoryId 分类id，null表示不限
+     * @param levelId    难度id，null表示不限
+     * @param keyword    已经转义并加上%的like模式，转义符是!，null表示不限
+     * @param afterTime  上一页最后一道题的更新时间，第一页传一个足够大的时间
+     * @param afterId    上一页最后一道题的id，第一页传空串
+     * @param pageable   只用来限制条数，页码固定为0
+     * @return 一页题目
+     */
+    @Query("select new com.huawei.l00379880.exam.dto.QuestionPickDTO(q.questionId, q.questionName, q.updateTime) from Question q " +
+            "where q.questionTypeId = :typeId " +
+            "and (:categoryId is null or q.questionCategoryId = :categoryId) " +
+            "and (:levelId is null or q.questionLevelId = :levelId) " +
+            "and (:keyword is null or q.questionName like :keyword escape '!') " +
+            "and (q.updateTime < :afterTime or (q.updateTime = :afterTime and q.questionId < :afterId)) " +
+            "order by q.updateTime desc, q.questionId desc")
+    List<QuestionPickDTO> pickByQuestionTypeId(@Param("typeId") Integer typeId, @Param("categoryId") Integer categoryId,
+                                               @Param("levelId") Integer levelId, @Param("keyword") String keyword,
+                                               @Param("afterTime") Date afterTime, @Param("afterId") String afterId,
+                                               Pageable pageable);
 }
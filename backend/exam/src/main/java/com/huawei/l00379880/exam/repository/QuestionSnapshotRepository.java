@@ -0,0 +1,19 @@
+package com.huawei.l00379880.exam.repository;
+
+import com.huawei.l00379880.exam.entity.QuestionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface QuestionSnapshotRepository extends JpaRepository<QuestionSnapshot, QuestionSnapshot.Key> {
+    /**
+     * 一次查出考试固定下来的所有题目快照
+     *
+     * @param examId 考试id
+     * @return 考试中已经固定了版本的题目的快照，顺序不确定
+     */
+    @Query("select s from ExamQuestion eq, QuestionSnapshot s where s.questionId = eq.questionId and s.questionVersion = eq.questionVersion and eq.examId = :examId")
+    List<QuestionSnapshot> findByExamId(@Param("examId") String examId);
+}
@@ -0,0 +1,16 @@
+package com.huawei.l00379880.exam.repository;
+
+import com.huawei.l00379880.exam.entity.RolePage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RolePageRepository extends JpaRepository<RolePage, RolePage.Key> {
+    /**
+     * 获取角色能访问的所有页面，按照页面顺序排列
+     *
+     * @param roleId 角色id
+     * @return 角色和页面的关联列表
+     */
+    List<RolePage> findByRoleIdOrderBySortOrderAsc(Integer roleId);
+}
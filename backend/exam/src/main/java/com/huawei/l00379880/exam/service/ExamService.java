@@ -8,6 +8,7 @@ package com.huawei.l00379880.exam.service;
 
 import com.huawei.l00379880.exam.entity.Exam;
 import com.huawei.l00379880.exam.entity.ExamRecord;
+import com.huawei.l00379880.exam.qo.QuestionPickQo;
 import com.huawei.l00379880.exam.vo.*;
 
 import java.util.HashMap;
@@ -52,6 +53,15 @@ public interface ExamService {
      */
     QuestionDetailVo getQuestionDetail(String id);
 
+    /**
+     * 获取考试中的问题详情，已发布的考试返回发布时固定下来的版本，不带答案
+     *
+     * @param examId     考试的id
+     * @param questionId 问题的id
+     * @return 问题详情的封装VO
+     */
+    QuestionDetailVo getQuestionDetail(String examId, String questionId);
+
     /**
      * 获取问题的列表
      *
@@ -68,6 +78,15 @@ public interface ExamService {
      */
     ExamQuestionTypeVo getExamQuestionType();
 
+    /**
+     * 创建考试时按题型分页选题，可以再按分类、难度和题干关键字过滤。
+     * 用上一页返回的游标接着往下翻，题库再大每页的开销也不变
+     *
+     * @param questionPickQo 查询条件和游标
+     * @return 一页题目的id和题干
+     */
+    QuestionPickPageVo pickQuestions(QuestionPickQo questionPickQo);
+
     /**
      * 根据前端组装的参数进行考试创建
      *
@@ -78,7 +97,23 @@ public interface ExamService {
     Exam create(ExamCreateVo examCreateVo, String userId);
 
     /**
-     * 获取考试卡片列表
+     * 发布草稿状态的考试，考试中的题目会被固定到当前版本，之后修改题目不影响这场考试
+     *
+     * @param examId 考试id
+     * @return 发布后的考试
+     */
+    Exam publish(String examId);
+
+    /**
+     * 结束已发布的考试，结束后不能再交卷
+     *
+     * @param examId 考试id
+     * @return 结束后的考试
+     */
+    Exam close(String examId);
+
+    /**
+     * 获取考试卡片列表，只包含已发布的考试
      *
      * @return 考试卡片列表
      */
@@ -102,6 +137,34 @@ public interface ExamService {
      */
     ExamRecord judge(String userId, String examId, HashMap<String, List<String>> answersMap);
 
+    /**
+     * 根据用户提交的作答信息进行判分，只判分不保存考试记录，供异步提交时批量保存用
+     *
+     * @param userId     考试人
+     * @param examId     参与的考试
+     * @param answersMap 作答情况
+     * @return 本次考试记录(还没有入库)
+     */
+    ExamRecord grade(String userId, String examId, HashMap<String, List<String>> answersMap);
+
+    /**
+     * 获取考试排行榜的前几名，每个考生按最好的一次成绩排名
+     *
+     * @param examId 考试id
+     * @param top    取多少名
+     * @return 排行榜
+     */
+    LeaderboardVo getLeaderboard(String examId, Integer top);
+
+    /**
+     * 获取考生在考试排行榜中的名次
+     *
+     * @param examId 考试id
+     * @param userId 考生id
+     * @return 考生的名次和最好成绩，没有交过卷的返回null
+     */
+    LeaderboardEntryVo getLeaderboardRank(String examId, String userId);
+
     /**
      * 根据用户id获取此用户的所有考试信息
      *
@@ -110,6 +173,16 @@ public interface ExamService {
      */
     List<ExamRecordVo> getExamRecordList(String userId);
 
+    /**
+     * 分页获取用户的考试信息，按照参加考试的时间降序排列
+     *
+     * @param userId   用户id
+     * @param pageNo   页码编号，为null时返回全部
+     * @param pageSize 页面大小
+     * @return 该用户指定页的考试记录
+     */
+    List<ExamRecordVo> getExamRecordList(String userId, Integer pageNo, Integer pageSize);
+
     /**
      * 获取指定某次考试记录的详情
      *
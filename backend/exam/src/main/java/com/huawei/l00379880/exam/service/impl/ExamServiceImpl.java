@@ -6,14 +6,33 @@
  ***********************************************************/
 package com.huawei.l00379880.exam.service.impl;
 
+import cn.hutool.core.codec.Base64;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import com.huawei.l00379880.exam.cache.ReferenceDataCache;
+import com.huawei.l00379880.exam.dto.QuestionPickDTO;
 import com.huawei.l00379880.exam.entity.*;
+import com.huawei.l00379880.exam.enums.ExamStatusEnum;
 import com.huawei.l00379880.exam.enums.QuestionEnum;
+import com.huawei.l00379880.exam.enums.ResultEnum;
+import com.huawei.l00379880.exam.exception.ExamException;
+import com.huawei.l00379880.exam.file.AvatarResolver;
+import com.huawei.l00379880.exam.judge.AnswerKeyCache;
+import com.huawei.l00379880.exam.judge.AnswerRecordCodec;
+import com.huawei.l00379880.exam.judge.ExamAnswerKey;
+import com.huawei.l00379880.exam.leaderboard.ExamLeaderboard;
+import com.huawei.l00379880.exam.leaderboard.LeaderboardEntry;
+import com.huawei.l00379880.exam.leaderboard.ScoreBoard;
+import com.huawei.l00379880.exam.mapper.ExamMapper;
+import com.huawei.l00379880.exam.mapper.QuestionMapper;
+import com.huawei.l00379880.exam.mapper.UserMapper;
+import com.huawei.l00379880.exam.qo.QuestionPickQo;
 import com.huawei.l00379880.exam.repository.*;
 import com.huawei.l00379880.exam.service.ExamService;
+import com.huawei.l00379880.exam.snapshot.QuestionSnapshotStore;
 import com.huawei.l00379880.exam.vo.*;
-import org.springframework.beans.BeanUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -26,6 +45,25 @@ import java.util.*;
 @Transactional
 public class ExamServiceImpl implements ExamService {
 
+    /**
+     * 分页选题时每页的默认题目数和上限
+     */
+    private static final int PICK_DEFAULT_PAGE_SIZE = 20;
+
+    private static final int PICK_MAX_PAGE_SIZE = 100;
+
+    /**
+     * 第一页的游标，比任何题目的更新时间都大，又在MySQL的datetime范围内(9999-12-31)
+     */
+    private static final Date PICK_FIRST_TIME = new Date(253402214400000L);
+
+    /**
+     * 排行榜默认和最多返回的名次数
+     */
+    private static final int LEADERBOARD_DEFAULT_TOP = 10;
+
+    private static final int LEADERBOARD_MAX_TOP = 100;
+
     private final ExamRepository examRepository;
 
     private final ExamRecordRepository examRecordRepository;
@@ -34,23 +72,65 @@ public class ExamServiceImpl implements ExamService {
 
     private final UserRepository userRepository;
 
-    private final QuestionLevelRepository questionLevelRepository;
+    private final QuestionOptionRepository questionOptionRepository;
+
+    /**
+     * 考试和题目的关联
+     */
+    private final ExamQuestionRepository examQuestionRepository;
+
+    /**
+     * 题目和选项的关联，包含选项是否是答案
+     */
+    private final QuestionAnswerRepository questionAnswerRepository;
 
-    private final QuestionTypeRepository questionTypeRepository;
+    /**
+     * 题目难度、类型和分类这些基础数据直接从缓存中取
+     */
+    private final ReferenceDataCache referenceDataCache;
 
-    private final QuestionCategoryRepository questionCategoryRepository;
+    /**
+     * 预编译好的考试答案，用于判分
+     */
+    private final AnswerKeyCache answerKeyCache;
 
-    private final QuestionOptionRepository questionOptionRepository;
+    /**
+     * 发布考试时固定题目的版本
+     */
+    private final QuestionSnapshotStore questionSnapshotStore;
 
-    public ExamServiceImpl(QuestionRepository questionRepository, UserRepository userRepository, QuestionLevelRepository questionLevelRepository, QuestionTypeRepository questionTypeRepository, QuestionCategoryRepository questionCategoryRepository, QuestionOptionRepository questionOptionRepository, ExamRepository examRepository, ExamRecordRepository examRecordRepository) {
+    /**
+     * 考试的头像换成本地存储的地址
+     */
+    private final AvatarResolver avatarResolver;
+
+    /**
+     * 交卷保存后更新考试的排行榜
+     */
+    private final ExamLeaderboard examLeaderboard;
+
+    /**
+     * 判分耗时，同步和异步交卷都会经过grade
+     */
+    private final Timer gradeTimer;
+
+    public ExamServiceImpl(QuestionRepository questionRepository, UserRepository userRepository, QuestionOptionRepository questionOptionRepository, ExamQuestionRepository examQuestionRepository, QuestionAnswerRepository questionAnswerRepository, ExamRepository examRepository, ExamRecordRepository examRecordRepository, ReferenceDataCache referenceDataCache, AnswerKeyCache answerKeyCache, QuestionSnapshotStore questionSnapshotStore, AvatarResolver avatarResolver, ExamLeaderboard examLeaderboard, MeterRegistry meterRegistry) {
         this.questionRepository = questionRepository;
         this.userRepository = userRepository;
-        this.questionLevelRepository = questionLevelRepository;
-        this.questionTypeRepository = questionTypeRepository;
-        this.questionCategoryRepository = questionCategoryRepository;
         this.questionOptionRepository = questionOptionRepository;
+        this.examQuestionRepository = examQuestionRepository;
+        this.questionAnswerRepository = questionAnswerRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.answerKeyCache = answerKeyCache;
+        this.questionSnapshotStore = questionSnapshotStore;
+        this.avatarResolver = avatarResolver;
+        this.examLeaderboard = examLeaderboard;
         this.examRepository = examRepository;
         this.examRecordRepository = examRecordRepository;
+        this.gradeTimer = Timer.builder("exam.grade")
+                .description("一份答卷的判分耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
@@ -71,78 +151,132 @@ public class ExamServiceImpl implements ExamService {
         questionPageVo.setTotalPage(questionPage.getTotalPages());
         // 当前页的问题列表
         List<Question> questionList = questionPage.getContent();
-        // 需要自定义的question列表
-        List<QuestionVo> questionVoList = new ArrayList<>();
-        // 循环完成每个属性的定制
+        // 按批次组装当前页的问题，查询次数固定，和页大小无关
+        questionPageVo.setQuestionVoList(assembleQuestionVoList(questionList));
+        return questionPageVo;
+    }
+
+    /**
+     * 批量组装问题的Vo列表。先把当前页所有问题用到的创建者和选项的id收集起来，
+     * 每种数据只用一条IN查询取回，再在内存中拼接，避免每个问题都单独查库(N+1问题)
+     *
+     * @param questionList 问题列表
+     * @return 组装好的问题Vo列表，顺序和questionList一致
+     */
+    private List<QuestionVo> assembleQuestionVoList(List<Question> questionList) {
+        if (questionList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 1.收集当前页用到的所有id，难度、类型和分类在基础数据缓存中，不需要查库
+        Set<String> creatorIdSet = new HashSet<>();
+        Set<String> questionIdSet = new HashSet<>();
+        for (Question question : questionList) {
+            creatorIdSet.add(question.getQuestionCreatorId());
+            questionIdSet.add(question.getQuestionId());
+        }
+
+        // 2.每种数据一次性查出来，放到以id为键的Map中
+        Map<String, User> userMap = new HashMap<>();
+        for (User user : userRepository.findAllById(creatorIdSet)) {
+            userMap.put(user.getUserId(), user);
+        }
+        // 选项的顺序和是否是答案在关联表中，选项的内容再用一条join查询取出来
+        Map<String, List<QuestionAnswer>> questionAnswerMap = loadQuestionAnswerMap(questionIdSet);
+        Map<String, QuestionOption> optionMap = loadOptionMap(questionIdSet);
+
+        // 3.在内存中完成每个问题的拼接
+        List<QuestionVo> questionVoList = new ArrayList<>(questionList.size());
         for (Question question : questionList) {
-            QuestionVo questionVo = new QuestionVo();
             // 先复制能复制的属性
-            BeanUtils.copyProperties(question, questionVo);
+            QuestionVo questionVo = QuestionMapper.INSTANCE.toQuestionVo(question);
             // 设置问题的创建者
             questionVo.setQuestionCreator(
-                    Objects.requireNonNull(
-                            userRepository.findById(
-                                    question.getQuestionCreatorId()
-                            ).orElse(null)
-                    ).getUserUsername());
-
+                    Objects.requireNonNull(userMap.get(question.getQuestionCreatorId())).getUserUsername()
+            );
             // 设置问题的难度
             questionVo.setQuestionLevel(
-                    Objects.requireNonNull(
-                            questionLevelRepository.findById(
-                                    question.getQuestionLevelId()
-                            ).orElse(null)
-                    ).getQuestionLevelDescription());
-
+                    Objects.requireNonNull(referenceDataCache.getQuestionLevel(question.getQuestionLevelId())).getQuestionLevelDescription()
+            );
             // 设置题目的类别，比如单选、多选、判断等
             questionVo.setQuestionType(
-                    Objects.requireNonNull(
-                            questionTypeRepository.findById(
-                                    question.getQuestionTypeId()
-                            ).orElse(null)
-                    ).getQuestionTypeDescription());
-
+                    Objects.requireNonNull(referenceDataCache.getQuestionType(question.getQuestionTypeId())).getQuestionTypeDescription()
+            );
             // 设置题目分类，比如数学、语文、英语、生活、人文等
             questionVo.setQuestionCategory(
-                    Objects.requireNonNull(
-                            questionCategoryRepository.findById(
-                                    question.getQuestionCategoryId()
-                            ).orElse(null)
-                    ).getQuestionCategoryName()
+                    Objects.requireNonNull(referenceDataCache.getQuestionCategory(question.getQuestionCategoryId())).getQuestionCategoryName()
             );
 
-            // 选项的自定义Vo列表
+            // 根据关联表设置optionVo的isAnswer属性，选项按照关联表中的顺序排列
             List<QuestionOptionVo> optionVoList = new ArrayList<>();
-
-            // 获得所有的选项列表
-            List<QuestionOption> optionList = questionOptionRepository.findAllById(
-                    Arrays.asList(question.getQuestionOptionIds().split("-"))
-            );
-
-            // 获取所有的答案列表optionList中每个option的isAnswer选项
-            List<QuestionOption> answerList = questionOptionRepository.findAllById(
-                    Arrays.asList(question.getQuestionAnswerOptionIds().split("-"))
-            );
-
-            // 根据选项和答案的id相同设置optionVo的isAnswer属性
-            for (QuestionOption option : optionList) {
-                QuestionOptionVo optionVo = new QuestionOptionVo();
-                BeanUtils.copyProperties(option, optionVo);
-                for (QuestionOption answer : answerList) {
-                    if (option.getQuestionOptionId().equals(answer.getQuestionOptionId())) {
-                        optionVo.setAnswer(true);
-                    }
+            for (QuestionAnswer questionAnswer : questionAnswerMap.getOrDefault(question.getQuestionId(), Collections.emptyList())) {
+                QuestionOption option = optionMap.get(questionAnswer.getQuestionOptionId());
+                if (option == null) {
+                    continue;
                 }
+                QuestionOptionVo optionVo = QuestionMapper.INSTANCE.toQuestionOptionVo(option);
+                optionVo.setAnswer(Boolean.TRUE.equals(questionAnswer.getAnswer()));
                 optionVoList.add(optionVo);
             }
-
             // 设置题目的所有选项
             questionVo.setQuestionOptionVoList(optionVoList);
 
             questionVoList.add(questionVo);
         }
-        questionPageVo.setQuestionVoList(questionVoList);
-        return questionPageVo;
+        return questionVoList;
+    }
+
+    /**
+     * 批量查询题目的选项关联，按题目分组，组内按照选项顺序排列
+     *
+     * @param questionIds 题目id集合
+     * @return 题目id到选项关联列表的Map
+     */
+    private Map<String, List<QuestionAnswer>> loadQuestionAnswerMap(Collection<String> questionIds) {
+        Map<String, List<QuestionAnswer>> questionAnswerMap = new HashMap<>();
+        // 空的IN查询在MySQL中是语法错误
+        if (questionIds.isEmpty()) {
+            return questionAnswerMap;
+        }
+        for (QuestionAnswer questionAnswer : questionAnswerRepository.findByQuestionIdInOrderBySortOrderAsc(questionIds)) {
+            questionAnswerMap.computeIfAbsent(questionAnswer.getQuestionId(), k -> new ArrayList<>()).add(questionAnswer);
+        }
+        return questionAnswerMap;
+    }
+
+    /**
+     * 批量查询题目的所有选项
+     *
+     * @param questionIds 题目id集合
+     * @return 选项id到选项的Map
+     */
+    private Map<String, QuestionOption> loadOptionMap(Collection<String> questionIds) {
+        Map<String, QuestionOption> optionMap = new HashMap<>();
+        if (questionIds.isEmpty()) {
+            return optionMap;
+        }
+        for (QuestionOption option : questionOptionRepository.findByQuestionIdIn(questionIds)) {
+            optionMap.put(option.getQuestionOptionId(), option);
+        }
+        return optionMap;
+    }
+
+    /**
+     * 把用-连接起来的id字符串拆分成id列表，会忽略空串(比如末尾多出来的-)
+     *
+     * @param ids 用-连接起来的id字符串
+     * @return id列表
+     */
+    private static List<String> splitIds(String ids) {
+        List<String> idList = new ArrayList<>();
+        if (StrUtil.isEmpty(ids)) {
+            return idList;
+        }
+        for (String id : ids.split("-")) {
+            if (!id.isEmpty()) {
+                idList.add(id);
+            }
+        }
+        return idList;
     }
 
     @Override
@@ -155,8 +289,7 @@ public class ExamServiceImpl implements ExamService {
         int size = questionOptionVoList.size();
         for (int i = 0; i < questionOptionVoList.size(); i++) {
             QuestionOptionVo questionOptionVo = questionOptionVoList.get(i);
-            QuestionOption questionOption = new QuestionOption();
-            BeanUtils.copyProperties(questionOptionVo, questionOption);
+            QuestionOption questionOption = QuestionMapper.INSTANCE.toQuestionOption(questionOptionVo);
             questionOptionList.add(questionOption);
             if (questionOptionVo.getAnswer()) {
                 if (i != size - 1) {
@@ -175,18 +308,27 @@ public class ExamServiceImpl implements ExamService {
         assert question != null;
         question.setQuestionName(questionName);
         question.setQuestionAnswerOptionIds(questionAnswerOptionIds.toString());
+        // 题目内容变了，版本加1，已发布的考试仍然使用发布时的版本
+        question.setQuestionVersion(question.getQuestionVersion() == null ? 2 : question.getQuestionVersion() + 1);
         questionRepository.save(question);
 
         // 2.更新所有的option
         questionOptionRepository.saveAll(questionOptionList);
+
+        // 3.更新关联表中选项是否是答案
+        Set<String> answerIdSet = new HashSet<>(splitIds(question.getQuestionAnswerOptionIds()));
+        List<QuestionAnswer> questionAnswerList = questionAnswerRepository.findByQuestionIdOrderBySortOrderAsc(question.getQuestionId());
+        for (QuestionAnswer questionAnswer : questionAnswerList) {
+            questionAnswer.setAnswer(answerIdSet.contains(questionAnswer.getQuestionOptionId()));
+        }
+        questionAnswerRepository.saveAll(questionAnswerList);
     }
 
     @Override
     public void questionCreate(QuestionCreateVo questionCreateVo) {
         // 问题创建
-        Question question = new Question();
         // 把能复制的属性都复制过来
-        BeanUtils.copyProperties(questionCreateVo, question);
+        Question question = QuestionMapper.INSTANCE.toQuestion(questionCreateVo);
         // 设置下questionOptionIds和questionAnswerOptionIds，需要自己用Hutool生成下
         List<QuestionOption> questionOptionList = new ArrayList<>();
         List<QuestionOptionCreateVo> questionOptionCreateVoList = questionCreateVo.getQuestionOptionCreateVoList();
@@ -200,39 +342,47 @@ public class ExamServiceImpl implements ExamService {
         }
         // 把选项都存起来，然后才能用于下面设置Question的questionOptionIds和questionAnswerOptionIds
         questionOptionRepository.saveAll(questionOptionList);
-        String questionOptionIds = "";
-        String questionAnswerOptionIds = "";
+        // 自己生成问题的id
+        question.setQuestionId(IdUtil.simpleUUID());
+        question.setQuestionVersion(1);
+        StringJoiner questionOptionIds = new StringJoiner("-");
+        StringJoiner questionAnswerOptionIds = new StringJoiner("-");
+        List<QuestionAnswer> questionAnswerList = new ArrayList<>();
         // 经过上面的saveAll方法，所有的option的主键id都已经持久化了
         for (int i = 0; i < questionOptionCreateVoList.size(); i++) {
             // 获取指定选项
             QuestionOptionCreateVo questionOptionCreateVo = questionOptionCreateVoList.get(i);
             // 获取保存后的指定对象
             QuestionOption questionOption = questionOptionList.get(i);
-            questionOptionIds += questionOption.getQuestionOptionId() + "-";
+            questionOptionIds.add(questionOption.getQuestionOptionId());
             if (questionOptionCreateVo.getAnswer()) {
                 // 如果是答案的话
-                questionAnswerOptionIds += questionOption.getQuestionOptionId() + "-";
+                questionAnswerOptionIds.add(questionOption.getQuestionOptionId());
             }
+            // 题目和选项的关联
+            QuestionAnswer questionAnswer = new QuestionAnswer();
+            questionAnswer.setQuestionId(question.getQuestionId());
+            questionAnswer.setQuestionOptionId(questionOption.getQuestionOptionId());
+            questionAnswer.setSortOrder(i);
+            questionAnswer.setAnswer(Boolean.TRUE.equals(questionOptionCreateVo.getAnswer()));
+            questionAnswerList.add(questionAnswer);
         }
-        // 把字符串最后面的"-"给去掉
-        questionAnswerOptionIds = replaceLastSeparator(questionAnswerOptionIds);
-        questionOptionIds = replaceLastSeparator(questionOptionIds);
         // 设置选项id组成的字符串
-        question.setQuestionOptionIds(questionOptionIds);
+        question.setQuestionOptionIds(questionOptionIds.toString());
         // 设置答案选项id组成的字符串
-        question.setQuestionAnswerOptionIds(questionAnswerOptionIds);
-        // 自己生成问题的id
-        question.setQuestionId(IdUtil.simpleUUID());
+        question.setQuestionAnswerOptionIds(questionAnswerOptionIds.toString());
         // 保存问题到数据库
         questionRepository.save(question);
+        // 保存题目和选项的关联
+        questionAnswerRepository.saveAll(questionAnswerList);
     }
 
     @Override
     public QuestionSelectionVo getSelections() {
         QuestionSelectionVo questionSelectionVo = new QuestionSelectionVo();
-        questionSelectionVo.setQuestionCategoryList(questionCategoryRepository.findAll());
-        questionSelectionVo.setQuestionLevelList(questionLevelRepository.findAll());
-        questionSelectionVo.setQuestionTypeList(questionTypeRepository.findAll());
+        questionSelectionVo.setQuestionCategoryList(referenceDataCache.listQuestionCategories());
+        questionSelectionVo.setQuestionLevelList(referenceDataCache.listQuestionLevels());
+        questionSelectionVo.setQuestionTypeList(referenceDataCache.listQuestionTypes());
 
         return questionSelectionVo;
     }
@@ -260,20 +410,55 @@ public class ExamServiceImpl implements ExamService {
         // 问题类型，单选题/多选题/判断题
         questionDetailVo.setType(
                 Objects.requireNonNull(
-                        questionTypeRepository.findById(
-                                question.getQuestionTypeId()
-                        ).orElse(null)
+                        referenceDataCache.getQuestionType(question.getQuestionTypeId())
                 ).getQuestionTypeDescription()
         );
-        // 获取当前问题的选项
-        String optionIdsStr = trimMiddleLine(question.getQuestionOptionIds());
-        String[] optionIds = optionIdsStr.split("-");
-        // 获取选项列表
-        List<QuestionOption> optionList = questionOptionRepository.findAllById(Arrays.asList(optionIds));
+        // 获取当前问题的选项，按照关联表中的顺序排列
+        List<String> optionIdList = new ArrayList<>();
+        for (QuestionAnswer questionAnswer : questionAnswerRepository.findByQuestionIdOrderBySortOrderAsc(id)) {
+            optionIdList.add(questionAnswer.getQuestionOptionId());
+        }
+        Map<String, QuestionOption> optionMap = new HashMap<>();
+        for (QuestionOption option : questionOptionRepository.findAllById(optionIdList)) {
+            optionMap.put(option.getQuestionOptionId(), option);
+        }
+        List<QuestionOption> optionList = new ArrayList<>();
+        for (String optionId : optionIdList) {
+            QuestionOption option = optionMap.get(optionId);
+            if (option != null) {
+                optionList.add(option);
+            }
+        }
         questionDetailVo.setOptions(optionList);
         return questionDetailVo;
     }
 
+    @Override
+    public QuestionDetailVo getQuestionDetail(String examId, String questionId) {
+        ExamQuestion.Key examQuestionKey = new ExamQuestion.Key();
+        examQuestionKey.setExamId(examId);
+        examQuestionKey.setQuestionId(questionId);
+        // 不是这场考试的题目不返回，避免借考试的接口查看任意题目
+        ExamQuestion examQuestion = examQuestionRepository.findById(examQuestionKey).orElseThrow(() -> new ExamException(ResultEnum.PARAM_ERR));
+        if (examQuestion.getQuestionVersion() == null) {
+            // 草稿状态的考试还没有固定版本，用题目的最新内容
+            return getQuestionDetail(questionId);
+        }
+        QuestionSnapshot snapshot = questionSnapshotStore.get(questionId, examQuestion.getQuestionVersion());
+        if (snapshot == null) {
+            throw new ExamException(ResultEnum.QUESTION_SNAPSHOT_MISSING);
+        }
+        QuestionDetailVo questionDetailVo = new QuestionDetailVo();
+        questionDetailVo.setId(questionId);
+        questionDetailVo.setName(snapshot.getQuestionName());
+        questionDetailVo.setDescription(snapshot.getQuestionDescription());
+        QuestionType questionType = referenceDataCache.getQuestionType(snapshot.getQuestionTypeId());
+        questionDetailVo.setType(questionType == null ? null : questionType.getQuestionTypeDescription());
+        // 不带答案
+        questionDetailVo.setOptions(questionSnapshotStore.displayOptionsOf(snapshot));
+        return questionDetailVo;
+    }
+
     @Override
     public ExamPageVo getExamList(Integer pageNo, Integer pageSize) {
         // 获取考试列表
@@ -293,105 +478,156 @@ public class ExamServiceImpl implements ExamService {
         examPageVo.setTotalPage(examPage.getTotalPages());
         // 取出当前页的考试列表
         List<Exam> examList = examPage.getContent();
-        // 需要自定义的exam列表
-        List<ExamVo> examVoList = new ArrayList<>();
-        // 循环完成每个属性的定制
+        // 按批次组装当前页的考试，查询次数固定，和页大小无关
+        examPageVo.setExamVoList(assembleExamVoList(examList));
+        return examPageVo;
+    }
+
+    /**
+     * 批量组装考试的Vo列表。创建者、考试题目关联和题目各用一条IN查询取回，再在内存中拼接
+     *
+     * @param examList 考试列表
+     * @return 组装好的考试Vo列表，顺序和examList一致
+     */
+    private List<ExamVo> assembleExamVoList(List<Exam> examList) {
+        if (examList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 1.收集当前页的考试和创建者id
+        Set<String> creatorIdSet = new HashSet<>();
+        Set<String> examIdSet = new HashSet<>();
+        for (Exam exam : examList) {
+            creatorIdSet.add(exam.getExamCreatorId());
+            examIdSet.add(exam.getExamId());
+        }
+        Map<String, User> userMap = new HashMap<>();
+        for (User user : userRepository.findAllById(creatorIdSet)) {
+            userMap.put(user.getUserId(), user);
+        }
+        // 2.一次查出所有考试的题目关联，已经按照题型和顺序排好了
+        Map<String, List<ExamQuestion>> examQuestionMap = new HashMap<>();
+        Set<String> questionIdSet = new HashSet<>();
+        for (ExamQuestion examQuestion : examQuestionRepository.findByExamIdInOrderByQuestionTypeIdAscSortOrderAsc(examIdSet)) {
+            examQuestionMap.computeIfAbsent(examQuestion.getExamId(), k -> new ArrayList<>()).add(examQuestion);
+            questionIdSet.add(examQuestion.getQuestionId());
+        }
+        Map<String, Question> questionMap = new HashMap<>();
+        for (Question question : questionRepository.findAllById(questionIdSet)) {
+            questionMap.put(question.getQuestionId(), question);
+        }
+
+        // 3.在内存中完成每场考试的拼接
+        List<ExamVo> examVoList = new ArrayList<>(examList.size());
         for (Exam exam : examList) {
-            ExamVo examVo = new ExamVo();
             // 先尽量复制能复制的所有属性
-            BeanUtils.copyProperties(exam, examVo);
+            ExamVo examVo = ExamMapper.INSTANCE.toExamVo(exam);
+            examVo.setExamAvatar(avatarResolver.resolve(exam.getExamAvatar()));
             // 设置问题的创建者
             examVo.setExamCreator(
-                    Objects.requireNonNull(
-                            userRepository.findById(
-                                    exam.getExamCreatorId()
-                            ).orElse(null)
-                    ).getUserUsername()
+                    Objects.requireNonNull(userMap.get(exam.getExamCreatorId())).getUserUsername()
             );
-
-            // 获取所有单选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoRadioList上
+            // 把题目按照题型分到单选、多选、判断三个列表中
             List<ExamQuestionSelectVo> radioQuestionVoList = new ArrayList<>();
-            List<Question> radioQuestionList = questionRepository.findAllById(
-                    Arrays.asList(exam.getExamQuestionIdsRadio().split("-"))
-            );
-            for (Question question : radioQuestionList) {
-                ExamQuestionSelectVo radioQuestionVo = new ExamQuestionSelectVo();
-                BeanUtils.copyProperties(question, radioQuestionVo);
-                radioQuestionVoList.add(radioQuestionVo);
-            }
-            examVo.setExamQuestionSelectVoRadioList(radioQuestionVoList);
-
-            // 获取所有多选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoCheckList上
             List<ExamQuestionSelectVo> checkQuestionVoList = new ArrayList<>();
-            List<Question> checkQuestionList = questionRepository.findAllById(
-                    Arrays.asList(exam.getExamQuestionIdsCheck().split("-"))
-            );
-            for (Question question : checkQuestionList) {
-                ExamQuestionSelectVo checkQuestionVo = new ExamQuestionSelectVo();
-                BeanUtils.copyProperties(question, checkQuestionVo);
-                checkQuestionVoList.add(checkQuestionVo);
-            }
-            examVo.setExamQuestionSelectVoCheckList(checkQuestionVoList);
-
-            // 获取所有多选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoJudgeList上
             List<ExamQuestionSelectVo> judgeQuestionVoList = new ArrayList<>();
-            List<Question> judgeQuestionList = questionRepository.findAllById(
-                    Arrays.asList(exam.getExamQuestionIdsJudge().split("-"))
-            );
-            for (Question question : judgeQuestionList) {
-                ExamQuestionSelectVo judgeQuestionVo = new ExamQuestionSelectVo();
-                BeanUtils.copyProperties(question, judgeQuestionVo);
-                judgeQuestionVoList.add(judgeQuestionVo);
+            for (ExamQuestion examQuestion : examQuestionMap.getOrDefault(exam.getExamId(), Collections.emptyList())) {
+                Question question = questionMap.get(examQuestion.getQuestionId());
+                if (question == null) {
+                    continue;
+                }
+                ExamQuestionSelectVo questionVo = QuestionMapper.INSTANCE.toExamQuestionSelectVo(question);
+                if (QuestionEnum.RADIO.getId().equals(examQuestion.getQuestionTypeId())) {
+                    radioQuestionVoList.add(questionVo);
+                } else if (QuestionEnum.CHECK.getId().equals(examQuestion.getQuestionTypeId())) {
+                    checkQuestionVoList.add(questionVo);
+                } else if (QuestionEnum.JUDGE.getId().equals(examQuestion.getQuestionTypeId())) {
+                    judgeQuestionVoList.add(questionVo);
+                }
             }
+            examVo.setExamQuestionSelectVoRadioList(radioQuestionVoList);
+            examVo.setExamQuestionSelectVoCheckList(checkQuestionVoList);
             examVo.setExamQuestionSelectVoJudgeList(judgeQuestionVoList);
 
             // 把examVo加到examVoList中
             examVoList.add(examVo);
         }
-        examPageVo.setExamVoList(examVoList);
-        return examPageVo;
+        return examVoList;
     }
 
     @Override
     public ExamQuestionTypeVo getExamQuestionType() {
+        // 只投影出id和题干，不再把整道题加载成实体再复制属性。题库很大时请用pickQuestions分页选题
         ExamQuestionTypeVo examQuestionTypeVo = new ExamQuestionTypeVo();
-        // 获取所有单选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoRadioList上
-        List<ExamQuestionSelectVo> radioQuestionVoList = new ArrayList<>();
-        List<Question> radioQuestionList = questionRepository.findByQuestionTypeId(QuestionEnum.RADIO.getId());
-        for (Question question : radioQuestionList) {
-            ExamQuestionSelectVo radioQuestionVo = new ExamQuestionSelectVo();
-            BeanUtils.copyProperties(question, radioQuestionVo);
-            radioQuestionVoList.add(radioQuestionVo);
-        }
-        examQuestionTypeVo.setExamQuestionSelectVoRadioList(radioQuestionVoList);
-
-        // 获取所有多选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoCheckList上
-        List<ExamQuestionSelectVo> checkQuestionVoList = new ArrayList<>();
-        List<Question> checkQuestionList = questionRepository.findByQuestionTypeId(QuestionEnum.CHECK.getId());
-        for (Question question : checkQuestionList) {
-            ExamQuestionSelectVo checkQuestionVo = new ExamQuestionSelectVo();
-            BeanUtils.copyProperties(question, checkQuestionVo);
-            checkQuestionVoList.add(checkQuestionVo);
-        }
-        examQuestionTypeVo.setExamQuestionSelectVoCheckList(checkQuestionVoList);
-
-        // 获取所有多选题列表，并赋值到ExamVo的属性ExamQuestionSelectVoJudgeList上
-        List<ExamQuestionSelectVo> judgeQuestionVoList = new ArrayList<>();
-        List<Question> judgeQuestionList = questionRepository.findByQuestionTypeId(QuestionEnum.JUDGE.getId());
-        for (Question question : judgeQuestionList) {
-            ExamQuestionSelectVo judgeQuestionVo = new ExamQuestionSelectVo();
-            BeanUtils.copyProperties(question, judgeQuestionVo);
-            judgeQuestionVoList.add(judgeQuestionVo);
-        }
-        examQuestionTypeVo.setExamQuestionSelectVoJudgeList(judgeQuestionVoList);
+        examQuestionTypeVo.setExamQuestionSelectVoRadioList(questionRepository.findSelectVoByQuestionTypeId(QuestionEnum.RADIO.getId()));
+        examQuestionTypeVo.setExamQuestionSelectVoCheckList(questionRepository.findSelectVoByQuestionTypeId(QuestionEnum.CHECK.getId()));
+        examQuestionTypeVo.setExamQuestionSelectVoJudgeList(questionRepository.findSelectVoByQuestionTypeId(QuestionEnum.JUDGE.getId()));
         return examQuestionTypeVo;
     }
 
+    @Override
+    public QuestionPickPageVo pickQuestions(QuestionPickQo questionPickQo) {
+        if (questionPickQo.getTypeId() == null) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+        int pageSize = questionPickQo.getPageSize() == null || questionPickQo.getPageSize() <= 0
+                ? PICK_DEFAULT_PAGE_SIZE : Math.min(questionPickQo.getPageSize(), PICK_MAX_PAGE_SIZE);
+        // 第一页从最新的题目开始
+        Date afterTime = PICK_FIRST_TIME;
+        String afterId = "";
+        if (!StrUtil.isEmpty(questionPickQo.getCursor())) {
+            String cursor = decodeCursor(questionPickQo.getCursor());
+            int split = cursor.indexOf('_');
+            if (split <= 0) {
+                throw new ExamException(ResultEnum.PARAM_ERR);
+            }
+            try {
+                afterTime = new Date(Long.parseLong(cursor.substring(0, split)));
+            } catch (NumberFormatException e) {
+                throw new ExamException(ResultEnum.PARAM_ERR);
+            }
+            afterId = cursor.substring(split + 1);
+        }
+        String keyword = null;
+        if (!StrUtil.isBlank(questionPickQo.getKeyword())) {
+            // 转义like的通配符，关键字按字面匹配
+            keyword = "%" + questionPickQo.getKeyword().trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        }
+        // 多取一条判断是否还有下一页
+        List<QuestionPickDTO> pickList = questionRepository.pickByQuestionTypeId(questionPickQo.getTypeId(), questionPickQo.getCategoryId(),
+                questionPickQo.getLevelId(), keyword, afterTime, afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = pickList.size() > pageSize;
+        if (hasMore) {
+            pickList = pickList.subList(0, pageSize);
+        }
+        List<ExamQuestionSelectVo> items = new ArrayList<>(pickList.size());
+        for (QuestionPickDTO pick : pickList) {
+            items.add(new ExamQuestionSelectVo(pick.getQuestionId(), pick.getQuestionName()));
+        }
+        QuestionPickPageVo questionPickPageVo = new QuestionPickPageVo();
+        questionPickPageVo.setItems(items);
+        questionPickPageVo.setHasMore(hasMore);
+        if (hasMore) {
+            QuestionPickDTO last = pickList.get(pickList.size() - 1);
+            questionPickPageVo.setNextCursor(Base64.encodeUrlSafe(last.getUpdateTime().getTime() + "_" + last.getQuestionId()));
+        }
+        return questionPickPageVo;
+    }
+
+    /**
+     * 游标是"更新时间毫秒数_题目id"的URL安全Base64，前端只需原样传回
+     */
+    private static String decodeCursor(String cursor) {
+        try {
+            return Base64.decodeStr(cursor);
+        } catch (RuntimeException e) {
+            throw new ExamException(ResultEnum.PARAM_ERR);
+        }
+    }
+
     @Override
     public Exam create(ExamCreateVo examCreateVo, String userId) {
         // 在线考试系统创建
-        Exam exam = new Exam();
-        BeanUtils.copyProperties(examCreateVo, exam);
+        Exam exam = ExamMapper.INSTANCE.toExam(examCreateVo);
         exam.setExamId(IdUtil.simpleUUID());
         exam.setExamCreatorId(userId);
         exam.setCreateTime(new Date());
@@ -399,34 +635,18 @@ public class ExamServiceImpl implements ExamService {
         // Todo:这两个日志后面是要在前端传入的，这里暂时定为当前日期
         exam.setExamStartDate(new Date());
         exam.setExamEndDate(new Date());
-        String radioIdsStr = "";
-        String checkIdsStr = "";
-        String judgeIdsStr = "";
-        List<ExamQuestionSelectVo> radios = examCreateVo.getRadios();
-        List<ExamQuestionSelectVo> checks = examCreateVo.getChecks();
-        List<ExamQuestionSelectVo> judges = examCreateVo.getJudges();
-        int radioCnt = 0, checkCnt = 0, judgeCnt = 0;
-        for (ExamQuestionSelectVo radio : radios) {
-            if (radio.getChecked()) {
-                radioIdsStr += radio.getQuestionId() + "-";
-                radioCnt++;
-            }
-        }
-        radioIdsStr = replaceLastSeparator(radioIdsStr);
-        for (ExamQuestionSelectVo check : checks) {
-            if (check.getChecked()) {
-                checkIdsStr += check.getQuestionId() + "-";
-                checkCnt++;
-            }
-        }
-        checkIdsStr = replaceLastSeparator(checkIdsStr);
-        for (ExamQuestionSelectVo judge : judges) {
-            if (judge.getChecked()) {
-                judgeIdsStr += judge.getQuestionId() + "-";
-                judgeCnt++;
-            }
-        }
-        judgeIdsStr = replaceLastSeparator(judgeIdsStr);
+        // 默认创建后直接发布，和原来的行为一致
+        boolean draft = Boolean.TRUE.equals(examCreateVo.getDraft());
+        exam.setExamStatus(draft ? ExamStatusEnum.DRAFT.getCode() : ExamStatusEnum.PUBLISHED.getCode());
+        // 考试和题目的关联。同一题型中重复选中的题只算一次，同一道题出现在多个题型中的直接拒绝，
+        // 否则总分会比判分时能拿到的分数高，题目的顺序号也会不连续
+        Map<String, ExamQuestion> examQuestionMap = new LinkedHashMap<>();
+        int radioCnt = addExamQuestions(examQuestionMap, exam.getExamId(), examCreateVo.getRadios(), QuestionEnum.RADIO);
+        int checkCnt = addExamQuestions(examQuestionMap, exam.getExamId(), examCreateVo.getChecks(), QuestionEnum.CHECK);
+        int judgeCnt = addExamQuestions(examQuestionMap, exam.getExamId(), examCreateVo.getJudges(), QuestionEnum.JUDGE);
+        String radioIdsStr = joinQuestionIds(examQuestionMap.values(), QuestionEnum.RADIO);
+        String checkIdsStr = joinQuestionIds(examQuestionMap.values(), QuestionEnum.CHECK);
+        String judgeIdsStr = joinQuestionIds(examQuestionMap.values(), QuestionEnum.JUDGE);
         exam.setExamQuestionIds(radioIdsStr + "-" + checkIdsStr + "-" + judgeIdsStr);
         // 设置各个题目的id
         exam.setExamQuestionIdsRadio(radioIdsStr);
@@ -437,16 +657,97 @@ public class ExamServiceImpl implements ExamService {
         int examScore = radioCnt * exam.getExamScoreRadio() + checkCnt * exam.getExamScoreCheck() + judgeCnt * exam.getExamScoreJudge();
         exam.setExamScore(examScore);
         examRepository.save(exam);
+        if (!draft) {
+            questionSnapshotStore.pin(examQuestionMap.values());
+        }
+        // 保存考试和题目的关联
+        examQuestionRepository.saveAll(examQuestionMap.values());
         return exam;
     }
 
+    @Override
+    public Exam publish(String examId) {
+        Exam exam = examRepository.findById(examId).orElseThrow(() -> new ExamException(ResultEnum.PARAM_ERR));
+        if (!ExamStatusEnum.DRAFT.getCode().equals(exam.getExamStatus())) {
+            throw new ExamException(ResultEnum.ORDER_STATUS_ERR);
+        }
+        List<ExamQuestion> examQuestionList = examQuestionRepository.findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(examId);
+        questionSnapshotStore.pin(examQuestionList);
+        examQuestionRepository.saveAll(examQuestionList);
+        exam.setExamStatus(ExamStatusEnum.PUBLISHED.getCode());
+        return examRepository.save(exam);
+    }
+
+    @Override
+    public Exam close(String examId) {
+        Exam exam = examRepository.findById(examId).orElseThrow(() -> new ExamException(ResultEnum.PARAM_ERR));
+        if (!ExamStatusEnum.PUBLISHED.getCode().equals(exam.getExamStatus())) {
+            throw new ExamException(ResultEnum.ORDER_STATUS_ERR);
+        }
+        exam.setExamStatus(ExamStatusEnum.CLOSED.getCode());
+        return examRepository.save(exam);
+    }
+
+    /**
+     * 把一种题型中选中的题目加入考试，顺序号从0开始连续编号
+     *
+     * @return 这种题型实际加入的题目数
+     */
+    private static int addExamQuestions(Map<String, ExamQuestion> examQuestionMap, String examId, List<ExamQuestionSelectVo> selectVoList, QuestionEnum questionType) {
+        int count = 0;
+        if (selectVoList == null) {
+            return count;
+        }
+        for (ExamQuestionSelectVo selectVo : selectVoList) {
+            if (!Boolean.TRUE.equals(selectVo.getChecked())) {
+                continue;
+            }
+            ExamQuestion existing = examQuestionMap.get(selectVo.getQuestionId());
+            if (existing != null) {
+                if (!questionType.getId().equals(existing.getQuestionTypeId())) {
+                    throw new ExamException(ResultEnum.EXAM_QUESTION_DUPLICATED);
+                }
+                continue;
+            }
+            examQuestionMap.put(selectVo.getQuestionId(), newExamQuestion(examId, selectVo.getQuestionId(), questionType, count));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return 某种题型的题目id按顺序用-连接起来
+     */
+    private static String joinQuestionIds(Collection<ExamQuestion> examQuestions, QuestionEnum questionType) {
+        StringBuilder builder = new StringBuilder();
+        for (ExamQuestion examQuestion : examQuestions) {
+            if (questionType.getId().equals(examQuestion.getQuestionTypeId())) {
+                if (builder.length() > 0) {
+                    builder.append('-');
+                }
+                builder.append(examQuestion.getQuestionId());
+            }
+        }
+        return builder.toString();
+    }
+
+    private static ExamQuestion newExamQuestion(String examId, String questionId, QuestionEnum questionType, int sortOrder) {
+        ExamQuestion examQuestion = new ExamQuestion();
+        examQuestion.setExamId(examId);
+        examQuestion.setQuestionId(questionId);
+        examQuestion.setQuestionTypeId(questionType.getId());
+        examQuestion.setSortOrder(sortOrder);
+        return examQuestion;
+    }
+
     @Override
     public List<ExamCardVo> getExamCardList() {
-        List<Exam> examList = examRepository.findAll();
+        // 考生只能看到已发布的考试
+        List<Exam> examList = examRepository.findByExamStatus(ExamStatusEnum.PUBLISHED.getCode());
         List<ExamCardVo> examCardVoList = new ArrayList<>();
         for (Exam exam : examList) {
-            ExamCardVo examCardVo = new ExamCardVo();
-            BeanUtils.copyProperties(exam, examCardVo);
+            ExamCardVo examCardVo = ExamMapper.INSTANCE.toExamCardVo(exam);
+            examCardVo.setExamAvatar(avatarResolver.resolve(exam.getExamAvatar()));
             examCardVoList.add(examCardVo);
         }
         return examCardVoList;
@@ -456,110 +757,172 @@ public class ExamServiceImpl implements ExamService {
     public ExamDetailVo getExamDetail(String id) {
         Exam exam = examRepository.findById(id).orElse(null);
         ExamDetailVo examDetailVo = new ExamDetailVo();
-        examDetailVo.setExam(exam);
         assert exam != null;
-        examDetailVo.setRadioIds(exam.getExamQuestionIdsRadio().split("-"));
-        examDetailVo.setCheckIds(exam.getExamQuestionIdsCheck().split("-"));
-        examDetailVo.setJudgeIds(exam.getExamQuestionIdsJudge().split("-"));
+        // 改头像地址前先复制一份，不改查出来的实体
+        Exam examCopy = ExamMapper.INSTANCE.copyExam(exam);
+        examCopy.setExamAvatar(avatarResolver.resolve(exam.getExamAvatar()));
+        examDetailVo.setExam(examCopy);
+        // 从关联表中按照题型取出题目id，已经按照出题顺序排好了
+        List<String> radioIdList = new ArrayList<>();
+        List<String> checkIdList = new ArrayList<>();
+        List<String> judgeIdList = new ArrayList<>();
+        for (ExamQuestion examQuestion : examQuestionRepository.findByExamIdOrderByQuestionTypeIdAscSortOrderAsc(id)) {
+            if (QuestionEnum.RADIO.getId().equals(examQuestion.getQuestionTypeId())) {
+                radioIdList.add(examQuestion.getQuestionId());
+            } else if (QuestionEnum.CHECK.getId().equals(examQuestion.getQuestionTypeId())) {
+                checkIdList.add(examQuestion.getQuestionId());
+            } else if (QuestionEnum.JUDGE.getId().equals(examQuestion.getQuestionTypeId())) {
+                judgeIdList.add(examQuestion.getQuestionId());
+            }
+        }
+        examDetailVo.setRadioIds(radioIdList.toArray(new String[0]));
+        examDetailVo.setCheckIds(checkIdList.toArray(new String[0]));
+        examDetailVo.setJudgeIds(judgeIdList.toArray(new String[0]));
         return examDetailVo;
     }
 
     @Override
     public ExamRecord judge(String userId, String examId, HashMap<String, List<String>> answersMap) {
+        ExamRecord examRecord = grade(userId, examId, answersMap);
+        examRecordRepository.save(examRecord);
+        examLeaderboard.offer(examRecord);
+        return examRecord;
+    }
+
+    @Override
+    public LeaderboardVo getLeaderboard(String examId, Integer top) {
+        int k = top == null || top <= 0 ? LEADERBOARD_DEFAULT_TOP : Math.min(top, LEADERBOARD_MAX_TOP);
+        // 前几名和总人数从同一个排行榜取
+        ScoreBoard board = examLeaderboard.board(examId);
+        List<LeaderboardEntry> entryList = board.top(k);
+        // 只查这一页考生的用户名
+        Set<String> userIds = new HashSet<>();
+        for (LeaderboardEntry entry : entryList) {
+            userIds.add(entry.getUserId());
+        }
+        Map<String, User> userMap = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            userMap.put(user.getUserId(), user);
+        }
+        List<LeaderboardEntryVo> entryVoList = new ArrayList<>(entryList.size());
+        int rank = 0;
+        int previousScore = -1;
+        for (int i = 0; i < entryList.size(); i++) {
+            LeaderboardEntry entry = entryList.get(i);
+            // 排行榜按分数从高到低，分数变了名次才变，同分同名次
+            if (entry.getScore() != previousScore) {
+                rank = i + 1;
+                previousScore = entry.getScore();
+            }
+            entryVoList.add(toLeaderboardEntryVo(entry, rank, userMap.get(entry.getUserId())));
+        }
+        LeaderboardVo leaderboardVo = new LeaderboardVo();
+        leaderboardVo.setExamId(examId);
+        leaderboardVo.setTotal(board.size());
+        leaderboardVo.setEntries(entryVoList);
+        return leaderboardVo;
+    }
+
+    @Override
+    public LeaderboardEntryVo getLeaderboardRank(String examId, String userId) {
+        ScoreBoard board = examLeaderboard.board(examId);
+        LeaderboardEntry entry = board.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        return toLeaderboardEntryVo(entry, board.rankOf(userId), user);
+    }
+
+    private static LeaderboardEntryVo toLeaderboardEntryVo(LeaderboardEntry entry, int rank, User user) {
+        LeaderboardEntryVo entryVo = new LeaderboardEntryVo();
+        entryVo.setRank(rank);
+        entryVo.setUserId(entry.getUserId());
+        if (user != null) {
+            entryVo.setUserUsername(user.getUserUsername());
+            entryVo.setUserNickname(user.getUserNickname());
+        }
+        entryVo.setScore(entry.getScore());
+        entryVo.setTimeCost(entry.getTimeCost() == Integer.MAX_VALUE ? null : entry.getTimeCost());
+        entryVo.setJoinDate(entry.getJoinTime() == Long.MAX_VALUE ? null : new Date(entry.getJoinTime()));
+        return entryVo;
+    }
+
+    @Override
+    public ExamRecord grade(String userId, String examId, HashMap<String, List<String>> answersMap) {
+        return gradeTimer.record(() -> doGrade(userId, examId, answersMap));
+    }
+
+    private ExamRecord doGrade(String userId, String examId, HashMap<String, List<String>> answersMap) {
         // 开始考试判分啦~~~
-        // 1.首先获取考试对象和选项数组
-        ExamDetailVo examDetailVo = getExamDetail(examId);
-        Exam exam = examDetailVo.getExam();
-        // 2.然后获取该考试下所有的题目信息
-        List<String> questionIds = new ArrayList<>();
-        // 2.1 题目id的数组
-        List<String> radioIdList = Arrays.asList(examDetailVo.getRadioIds());
-        List<String> checkIdList = Arrays.asList(examDetailVo.getCheckIds());
-        List<String> judgeIdList = Arrays.asList(examDetailVo.getJudgeIds());
-        questionIds.addAll(radioIdList);
-        questionIds.addAll(checkIdList);
-        questionIds.addAll(judgeIdList);
-        // 2.2 每种题目的分数
-        int radioScore = exam.getExamScoreRadio();
-        int checkScore = exam.getExamScoreCheck();
-        int judgeScore = exam.getExamScoreJudge();
-        // 2.3 根据问题id的数组拿到所有的问题对象，供下面步骤用
-        List<Question> questionList = questionRepository.findAllById(questionIds);
-        Map<String, Question> questionMap = new HashMap<>();
-        for (Question question : questionList) {
-            questionMap.put(question.getQuestionId(), question);
+        // 1.获取预编译好的考试答案，每场考试只在第一次判分时编译一次
+        ExamAnswerKey answerKey = answerKeyCache.get(examId);
+        if (!answerKey.isOpen()) {
+            // 草稿和已经结束的考试不能交卷
+            throw new ExamException(ResultEnum.EXAM_NOT_OPEN);
         }
-        // 3.根据正确答案和用户作答信息进行判分
-        Set<String> questionIdsAnswer = answersMap.keySet();
-        // 存储当前考试每个题目的得分情况
-        Map<String, Integer> judgeMap = new HashMap<>();
-        // 考生作答地每个题目的选项(题目和题目之间用$分隔，题目有多个选项地话用-分隔,题目和选项之间用_分隔),用于查看考试详情
-        // 例子：题目1的id_作答选项1-作答选项2&题目2的id_作答选项1&题目3_作答选项1-作答选项2-作答选项3
-        StringBuilder answerOptionIdsSb = new StringBuilder();
+        // 2.根据正确答案和用户作答信息进行判分，作答详情按照题目和选项的序号编码成二进制，用于查看考试详情
+        AnswerRecordCodec.Encoder encoder = AnswerRecordCodec.encoder(answerKey);
         // 用户此次考试的总分
         int totalScore = 0;
-        for (String questionId : questionIdsAnswer) {
-            // 获取用户作答地这个题的答案信息
-            Question question = questionMap.get(questionId);
-            // 获取答案选项
-            String questionAnswerOptionIds = replaceLastSeparator(question.getQuestionAnswerOptionIds());
-            List<String> questionAnswerOptionIdList = Arrays.asList(questionAnswerOptionIds.split("-"));
-            Collections.sort(questionAnswerOptionIdList);
-            String answerStr = listConcat(questionAnswerOptionIdList);
-            // 获取用户作答
-            List<String> questionUserOptionIdList = answersMap.get(questionId);
-            Collections.sort(questionUserOptionIdList);
-            String userStr = listConcat(questionUserOptionIdList);
-            // 判断questionAnswerOptionIds和answersMap里面的答案是否相等
-            if (answerStr.equals(userStr)) {
-                // 说明题目作答正确,下面根据题型给分
-                int score = 0;
-                if (radioIdList.contains(questionId)) {
-                    score = radioScore;
-                }
-                if (checkIdList.contains(questionId)) {
-                    score = checkScore;
-                }
-                if (judgeIdList.contains(questionId)) {
-                    score = judgeScore;
-                }
-                // 累计本次考试得分
-                totalScore += score;
-                // True代表题目答对
-                answerOptionIdsSb.append(questionId + "@True_" + userStr + "$");
-                judgeMap.put(questionId, score);
-            } else {
-                // 说明题目作答错误,直接判零分,False代表题目答错
-                answerOptionIdsSb.append(questionId + "@False_" + userStr + "$");
-                judgeMap.put(questionId, 0);
+        for (Map.Entry<String, List<String>> entry : answersMap.entrySet()) {
+            String questionId = entry.getKey();
+            int index = answerKey.indexOf(questionId);
+            if (index < 0) {
+                // 提交了不属于这场考试的题目
+                throw new ExamException(ResultEnum.PARAM_ERR);
             }
+            List<String> questionUserOptionIdList = entry.getValue();
+            // 用bitmap判断作答是否正确
+            boolean correct = answerKey.isCorrect(index, questionUserOptionIdList);
+            if (correct) {
+                // 说明题目作答正确,累计本次考试得分
+                totalScore += answerKey.scoreOf(index);
+            }
+            encoder.add(index, correct, questionUserOptionIdList);
         }
-        // 4.计算得分，记录本次考试结果，存到ExamRecord中
+        // 3.计算得分，记录本次考试结果，封装到ExamRecord中
         ExamRecord examRecord = new ExamRecord();
         examRecord.setExamRecordId(IdUtil.simpleUUID());
         examRecord.setExamId(examId);
-        // 注意去掉最后可能有的&_-
-        examRecord.setAnswerOptionIds(replaceLastSeparator(answerOptionIdsSb.toString()));
+        // 老格式的字符串列不能为null，新记录写空串
+        examRecord.setAnswerOptionIds("");
+        examRecord.setAnswerData(encoder.toBytes());
         examRecord.setExamJoinerId(userId);
         examRecord.setExamJoinDate(new Date());
         examRecord.setExamJoinScore(totalScore);
-        examRecordRepository.save(examRecord);
         return examRecord;
     }
 
     @Override
     public List<ExamRecordVo> getExamRecordList(String userId) {
-        // 获取指定用户下的考试记录列表
-        List<ExamRecord> examRecordList = examRecordRepository.findByExamJoinerId(userId);
-        List<ExamRecordVo> examRecordVoList = new ArrayList<>();
-        for (ExamRecord examRecord : examRecordList) {
-            ExamRecordVo examRecordVo = new ExamRecordVo();
-            Exam exam = examRepository.findById(examRecord.getExamId()).orElse(null);
-            examRecordVo.setExam(exam);
-            User user = userRepository.findById(userId).orElse(null);
+        return getExamRecordList(userId, null, null);
+    }
+
+    @Override
+    public List<ExamRecordVo> getExamRecordList(String userId, Integer pageNo, Integer pageSize) {
+        // 按照参加考试的日期降序排列
+        Sort sort = new Sort(Sort.Direction.DESC, "examJoinDate");
+        // 考试记录和对应的考试用一条join查询取出来
+        List<ExamRecordVo> examRecordVoList;
+        if (pageNo == null || pageSize == null) {
+            examRecordVoList = examRecordRepository.findExamRecordVoByExamJoinerId(userId, sort);
+        } else {
+            // 注意前端面页面的分页是从1开始的，后端是从0开始地，所以要减去1哈
+            PageRequest pageRequest = PageRequest.of(pageNo - 1, pageSize, sort);
+            examRecordVoList = examRecordRepository.findExamRecordVoByExamJoinerId(userId, pageRequest).getContent();
+        }
+        // 所有记录都是同一个用户的，查一次就够了
+        User user = userRepository.findById(userId).map(UserMapper.INSTANCE::copyUser).orElse(null);
+        if (user != null) {
+            user.setUserAvatar(avatarResolver.resolve(user.getUserAvatar()));
+        }
+        for (ExamRecordVo examRecordVo : examRecordVoList) {
             examRecordVo.setUser(user);
-            examRecordVo.setExamRecord(examRecord);
-            examRecordVoList.add(examRecordVo);
+            // 记录中的考试是查询时新建的对象，不是实体，可以直接改
+            if (examRecordVo.getExam() != null) {
+                examRecordVo.getExam().setExamAvatar(avatarResolver.resolve(examRecordVo.getExam().getExamAvatar()));
+            }
         }
         return examRecordVoList;
     }
@@ -574,68 +937,29 @@ public class ExamServiceImpl implements ExamService {
         HashMap<String, List<String>> answersMap = new HashMap<>();
         HashMap<String, String> resultsMap = new HashMap<>();
         assert record != null;
-        String answersStr = record.getAnswerOptionIds();
-        // $分隔题目,因为$在正则中有特殊用途(行尾)，所以需要括起来
-        String[] questionArr = answersStr.split("[$]");
-        for (String questionStr : questionArr) {
-            System.out.println(questionStr);
-            // 区分开题目标题和选项
-            String[] questionTitleResultAndOption = questionStr.split("_");
-            String[] questionTitleAndResult = questionTitleResultAndOption[0].split("@");
-            String[] questionOptions = questionTitleResultAndOption[1].split("-");
-            // 题目：答案选项
-            answersMap.put(questionTitleAndResult[0], Arrays.asList(questionOptions));
-            // 题目：True / False
-            resultsMap.put(questionTitleAndResult[0], questionTitleAndResult[1]);
+        if (record.getAnswerData() != null) {
+            // 新格式按照序号引用题目和选项，需要用考试答案还原成id
+            AnswerRecordCodec.decode(answerKeyCache.get(record.getExamId()), record.getAnswerData(), answersMap, resultsMap);
+        } else {
+            // 老格式的字符串记录
+            AnswerRecordCodec.decodeLegacy(record.getAnswerOptionIds(), answersMap, resultsMap);
         }
         recordDetailVo.setAnswersMap(answersMap);
         recordDetailVo.setResultsMap(resultsMap);
-        // 下面再计算正确答案的map
-        ExamDetailVo examDetailVo = getExamDetail(record.getExamId());
-        List<String> questionIdList = new ArrayList<>();
-        questionIdList.addAll(Arrays.asList(examDetailVo.getRadioIds()));
-        questionIdList.addAll(Arrays.asList(examDetailVo.getCheckIds()));
-        questionIdList.addAll(Arrays.asList(examDetailVo.getJudgeIds()));
-        // 获取所有的问题对象
-        List<Question> questionList = questionRepository.findAllById(questionIdList);
+        // 下面再计算正确答案的map，直接用判分时的考试答案，已发布的考试就是发布时固定下来的版本
+        ExamAnswerKey answerKey = answerKeyCache.get(record.getExamId());
         HashMap<String, List<String>> answersRightMap = new HashMap<>();
-        for (Question question : questionList) {
-            // 记得去掉最后可能出现的特殊字符
-            String questionAnswerOptionIdsStr = replaceLastSeparator(question.getQuestionAnswerOptionIds());
-            String[] questionAnswerOptionIds = questionAnswerOptionIdsStr.split("-");
-            answersRightMap.put(question.getQuestionId(), Arrays.asList(questionAnswerOptionIds));
+        for (int i = 0; i < answerKey.getQuestionCount(); i++) {
+            List<String> answerOptionIdList = new ArrayList<>();
+            long answerMask = answerKey.answerMaskOf(i);
+            for (int j = 0; j < answerKey.optionCountOf(i); j++) {
+                if ((answerMask & (1L << j)) != 0) {
+                    answerOptionIdList.add(answerKey.optionIdAt(i, j));
+                }
+            }
+            answersRightMap.put(answerKey.questionIdAt(i), answerOptionIdList);
         }
         recordDetailVo.setAnswersRightMap(answersRightMap);
         return recordDetailVo;
     }
-
-    /**
-     * 把字符串最后一个字符-替换掉
-     *
-     * @param str 原始字符串
-     * @return 替换掉最后一个-的字符串
-     */
-    private String replaceLastSeparator(String str) {
-        String lastChar = str.substring(str.length() - 1);
-        // 题目和题目之间用$分隔，题目有多个选项地话用-分隔,题目和选项之间用_分隔
-        if ("-".equals(lastChar) || "_".equals(lastChar) || "$".equals(lastChar)) {
-            str = StrUtil.sub(str, 0, str.length() - 1);
-        }
-        return str;
-    }
-
-    /**
-     * 把字符串用-连接起来
-     *
-     * @param strList 字符串列表
-     * @return 拼接好的字符串，记住要去掉最后面的-
-     */
-    private String listConcat(List<String> strList) {
-        StringBuilder sb = new StringBuilder();
-        for (String str : strList) {
-            sb.append(str);
-            sb.append("-");
-        }
-        return replaceLastSeparator(sb.toString());
-    }
 }
@@ -8,29 +8,23 @@ package com.huawei.l00379880.exam.service.impl;
 
 import cn.hutool.core.codec.Base64;
 import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.cache.PermissionTreeCache;
 import com.huawei.l00379880.exam.dto.RegisterDTO;
-import com.huawei.l00379880.exam.entity.Action;
-import com.huawei.l00379880.exam.entity.Page;
-import com.huawei.l00379880.exam.entity.Role;
 import com.huawei.l00379880.exam.entity.User;
 import com.huawei.l00379880.exam.enums.LoginTypeEnum;
 import com.huawei.l00379880.exam.enums.RoleEnum;
+import com.huawei.l00379880.exam.file.AvatarResolver;
+import com.huawei.l00379880.exam.mapper.UserMapper;
 import com.huawei.l00379880.exam.qo.LoginQo;
-import com.huawei.l00379880.exam.repository.ActionRepository;
-import com.huawei.l00379880.exam.repository.PageRepository;
-import com.huawei.l00379880.exam.repository.RoleRepository;
 import com.huawei.l00379880.exam.repository.UserRepository;
 import com.huawei.l00379880.exam.service.UserService;
 import com.huawei.l00379880.exam.utils.JwtUtils;
 import com.huawei.l00379880.exam.vo.*;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
-import java.util.ArrayList;
-import java.util.List;
 
 @Service
 @Transactional
@@ -39,14 +33,17 @@ public class UserServiceImpl implements UserService {
     @Autowired
     UserRepository userRepository;
 
+    /**
+     * 角色的页面和操作权限直接从缓存中取
+     */
     @Autowired
-    RoleRepository roleRepository;
+    PermissionTreeCache permissionTreeCache;
 
+    /**
+     * 用户的头像换成本地存储的地址
+     */
     @Autowired
-    PageRepository pageRepository;
-
-    @Autowired
-    ActionRepository actionRepository;
+    AvatarResolver avatarResolver;
 
     @Value("${user.default.avatar}")
     private String defaultAvatar;
@@ -115,9 +112,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserVo getUserInfo(String userId) {
         User user = userRepository.findById(userId).orElse(null);
-        UserVo userVo = new UserVo();
         assert user != null;
-        BeanUtils.copyProperties(user, userVo);
+        UserVo userVo = UserMapper.INSTANCE.toUserVo(user);
+        userVo.setUserAvatar(avatarResolver.resolve(user.getUserAvatar()));
         return userVo;
     }
 
@@ -125,54 +122,13 @@ public class UserServiceImpl implements UserService {
     public UserInfoVo getInfo(String userId) {
         User user = userRepository.findById(userId).orElse(null);
         assert user != null;
-        UserInfoVo userInfoVo = new UserInfoVo();
         // 1.尽可能的拷贝属性
-        BeanUtils.copyProperties(user, userInfoVo);
-        Integer roleId = user.getUserRoleId();
-        Role role = roleRepository.findById(roleId).orElse(null);
-        assert role != null;
-        String roleName = role.getRoleName();
-
-        // 2.设置角色名称
-        userInfoVo.setRoleName(roleName);
-
-        // 3.设置当前用户的角色细节
-        RoleVo roleVo = new RoleVo();
-        BeanUtils.copyProperties(role, roleVo);
-
-        // 4.设置角色的可访问页面
-        String rolePageIds = role.getRolePageIds();
-        String[] pageIdArr = rolePageIds.split("-");
-        List<PageVo> pageVoList = new ArrayList<>();
-        for (String pageIdStr : pageIdArr) {
-            // 获取页面的id
-            Integer pageId = Integer.parseInt(pageIdStr);
-
-            // 4.1 向Role中添加Page
-            Page page = pageRepository.findById(pageId).orElse(null);
-            PageVo pageVo = new PageVo();
-            BeanUtils.copyProperties(page, pageVo);
-
-            // 4.2 向Page中添加action
-            List<ActionVo> actionVoList = new ArrayList<>();
-            String actionIdsStr = page.getActionIds();
-            String[] actionIdArr = actionIdsStr.split("-");
-            for (String actionIdStr : actionIdArr) {
-                Integer actionId = Integer.parseInt(actionIdStr);
-                Action action = actionRepository.findById(actionId).orElse(null);
-                ActionVo actionVo = new ActionVo();
-                assert action != null;
-                BeanUtils.copyProperties(action, actionVo);
-                actionVoList.add(actionVo);
-            }
-            // 设置actionVoList到pageVo中，然后把pageVo加到pageVoList中
-            pageVo.setActionVoList(actionVoList);
-            // 设置pageVoList，下面再设置到RoleVo中
-            pageVoList.add(pageVo);
-        }
-        // 设置PageVo的集合到RoleVo中
-        roleVo.setPageVoList(pageVoList);
-        // 最终把PageVo设置到UserInfoVo中，这样就完成了拼接
+        UserInfoVo userInfoVo = UserMapper.INSTANCE.toUserInfoVo(user);
+        userInfoVo.setUserAvatar(avatarResolver.resolve(user.getUserAvatar()));
+        // 2.设置角色名称和角色的权限树，权限树是缓存好的，所有同角色的用户共享
+        RoleVo roleVo = permissionTreeCache.get(user.getUserRoleId());
+        assert roleVo != null;
+        userInfoVo.setRoleName(roleVo.getRoleName());
         userInfoVo.setRoleVo(roleVo);
         return userInfoVo;
     }
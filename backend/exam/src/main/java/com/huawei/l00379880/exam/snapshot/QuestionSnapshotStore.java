@@ -0,0 +1,230 @@
+package com.huawei.l00379880.exam.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huawei.l00379880.exam.entity.*;
+import com.huawei.l00379880.exam.repository.QuestionAnswerRepository;
+import com.huawei.l00379880.exam.repository.QuestionOptionRepository;
+import com.huawei.l00379880.exam.repository.QuestionRepository;
+import com.huawei.l00379880.exam.repository.QuestionSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * 题目每次修改版本号都会加1。考试发布时，给考试的每道题记下当前版本，没有这个版本的快照的话
+ * 把题目、选项和答案复制一份写成快照。已发布考试的试卷、答案和考试详情都从快照生成，
+ * 所以可以一直缓存，题目后来再怎么改都不会影响正在进行的考试和判分结果
+ *
+ * @author liangshanguang
+ */
+@Component
+@Slf4j
+public class QuestionSnapshotStore {
+
+    private static final TypeReference<List<QuestionSnapshot.Option>> OPTION_LIST_TYPE = new TypeReference<List<QuestionSnapshot.Option>>() {
+    };
+
+    private final QuestionSnapshotRepository questionSnapshotRepository;
+
+    private final QuestionRepository questionRepository;
+
+    private final QuestionAnswerRepository questionAnswerRepository;
+
+    private final QuestionOptionRepository questionOptionRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public QuestionSnapshotStore(QuestionSnapshotRepository questionSnapshotRepository, QuestionRepository questionRepository,
+                                 QuestionAnswerRepository questionAnswerRepository, QuestionOptionRepository questionOptionRepository,
+                                 ObjectMapper objectMapper) {
+        this.questionSnapshotRepository = questionSnapshotRepository;
+        this.questionRepository = questionRepository;
+        this.questionAnswerRepository = questionAnswerRepository;
+        this.questionOptionRepository = questionOptionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 把还没有固定版本的题目固定到当前版本，需要在调用方的事务中执行，调用方负责保存examQuestions
+     *
+     * @param examQuestions 考试和题目的关联，会被修改
+     * @return 这次固定的题目数，题目已经被删掉的不会被固定
+     */
+    public int pin(Collection<ExamQuestion> examQuestions) {
+        Set<String> questionIds = new HashSet<>();
+        for (ExamQuestion examQuestion : examQuestions) {
+            if (examQuestion.getQuestionVersion() == null) {
+                questionIds.add(examQuestion.getQuestionId());
+            }
+        }
+        if (questionIds.isEmpty()) {
+            return 0;
+        }
+        // 1.题目的当前版本
+        Map<String, Question> questionMap = new HashMap<>();
+        List<QuestionSnapshot.Key> keys = new ArrayList<>();
+        for (Question question : questionRepository.findAllById(questionIds)) {
+            questionMap.put(question.getQuestionId(), question);
+            keys.add(key(question.getQuestionId(), versionOf(question)));
+        }
+        // 2.当前版本还没有快照的题目，复制题目、选项和答案写成快照
+        Set<String> missingIds = new HashSet<>(questionMap.keySet());
+        for (QuestionSnapshot snapshot : questionSnapshotRepository.findAllById(keys)) {
+            missingIds.remove(snapshot.getQuestionId());
+        }
+        if (!missingIds.isEmpty()) {
+            questionSnapshotRepository.saveAll(createSnapshots(missingIds, questionMap));
+        }
+        // 3.记下每道题固定的版本
+        int count = 0;
+        for (ExamQuestion examQuestion : examQuestions) {
+            Question question = questionMap.get(examQuestion.getQuestionId());
+            if (examQuestion.getQuestionVersion() == null && question != null) {
+                examQuestion.setQuestionVersion(versionOf(question));
+                count++;
+            }
+        }
+        log.info("固定了{}道题的版本，新写入{}个快照", count, missingIds.size());
+        return count;
+    }
+
+    private List<QuestionSnapshot> createSnapshots(Set<String> questionIds, Map<String, Question> questionMap) {
+        Map<String, List<QuestionAnswer>> questionAnswerMap = new HashMap<>();
+        for (QuestionAnswer questionAnswer : questionAnswerRepository.findByQuestionIdInOrderBySortOrderAsc(questionIds)) {
+            questionAnswerMap.computeIfAbsent(questionAnswer.getQuestionId(), k -> new ArrayList<>()).add(questionAnswer);
+        }
+        Map<String, QuestionOption> optionMap = new HashMap<>();
+        for (QuestionOption option : questionOptionRepository.findByQuestionIdIn(questionIds)) {
+            optionMap.put(option.getQuestionOptionId(), option);
+        }
+        List<QuestionSnapshot> snapshotList = new ArrayList<>(questionIds.size());
+        Date now = new Date();
+        for (String questionId : questionIds) {
+            Question question = questionMap.get(questionId);
+            List<QuestionSnapshot.Option> options = new ArrayList<>();
+            for (QuestionAnswer questionAnswer : questionAnswerMap.getOrDefault(questionId, Collections.emptyList())) {
+                QuestionOption questionOption = optionMap.get(questionAnswer.getQuestionOptionId());
+                if (questionOption == null) {
+                    continue;
+                }
+                QuestionSnapshot.Option option = new QuestionSnapshot.Option();
+                option.setQuestionOptionId(questionOption.getQuestionOptionId());
+                option.setQuestionOptionContent(questionOption.getQuestionOptionContent());
+                option.setQuestionOptionDescription(questionOption.getQuestionOptionDescription());
+                option.setAnswer(Boolean.TRUE.equals(questionAnswer.getAnswer()));
+                options.add(option);
+            }
+            QuestionSnapshot snapshot = new QuestionSnapshot();
+            snapshot.setQuestionId(questionId);
+            snapshot.setQuestionVersion(versionOf(question));
+            snapshot.setQuestionName(question.getQuestionName());
+            snapshot.setQuestionDescription(question.getQuestionDescription());
+            snapshot.setQuestionTypeId(question.getQuestionTypeId());
+            try {
+                snapshot.setOptionData(objectMapper.writeValueAsString(options));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            snapshot.setCreateTime(now);
+            snapshotList.add(snapshot);
+        }
+        return snapshotList;
+    }
+
+    /**
+     * @param questionId 题目id
+     * @param version    题目版本
+     * @return 题目在这个版本的快照，没有时返回null
+     */
+    public QuestionSnapshot get(String questionId, int version) {
+        return questionSnapshotRepository.findById(key(questionId, version)).orElse(null);
+    }
+
+    /**
+     * 一次查出考试已经固定了版本的所有题目快照
+     *
+     * @param examId 考试id
+     * @return 题目id -> 快照，草稿状态的考试是空的
+     */
+    public Map<String, QuestionSnapshot> loadPinned(String examId) {
+        Map<String, QuestionSnapshot> snapshotMap = new HashMap<>();
+        for (QuestionSnapshot snapshot : questionSnapshotRepository.findByExamId(examId)) {
+            snapshotMap.put(snapshot.getQuestionId(), snapshot);
+        }
+        return snapshotMap;
+    }
+
+    /**
+     * @param snapshot 题目快照
+     * @return 快照中按顺序排列的选项
+     */
+    public List<QuestionSnapshot.Option> optionsOf(QuestionSnapshot snapshot) {
+        if (snapshot.getOptionData() == null || snapshot.getOptionData().isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return objectMapper.readValue(snapshot.getOptionData(), OPTION_LIST_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把快照中的选项还原成给考生看的选项，试卷和考试中的题目详情都用这里的结果。
+     * 快照中记着哪个选项是答案，这里不复制，不能返回给考生
+     *
+     * @param snapshot 题目快照
+     * @return 按顺序排列的选项，不是持久化的实体
+     */
+    public List<QuestionOption> displayOptionsOf(QuestionSnapshot snapshot) {
+        List<QuestionSnapshot.Option> options = optionsOf(snapshot);
+        List<QuestionOption> optionList = new ArrayList<>(options.size());
+        for (QuestionSnapshot.Option snapshotOption : options) {
+            QuestionOption option = new QuestionOption();
+            option.setQuestionOptionId(snapshotOption.getQuestionOptionId());
+            option.setQuestionOptionContent(snapshotOption.getQuestionOptionContent());
+            option.setQuestionOptionDescription(snapshotOption.getQuestionOptionDescription());
+            optionList.add(option);
+        }
+        return optionList;
+    }
+
+    /**
+     * 把快照中的选项还原成题目和选项的关联，用于编译考试答案
+     *
+     * @param snapshot 题目快照
+     * @return 按顺序排列的选项关联，不是持久化的实体
+     */
+    public List<QuestionAnswer> questionAnswersOf(QuestionSnapshot snapshot) {
+        List<QuestionSnapshot.Option> options = optionsOf(snapshot);
+        List<QuestionAnswer> questionAnswerList = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            QuestionAnswer questionAnswer = new QuestionAnswer();
+            questionAnswer.setQuestionId(snapshot.getQuestionId());
+            questionAnswer.setQuestionOptionId(options.get(i).getQuestionOptionId());
+            questionAnswer.setSortOrder(i);
+            questionAnswer.setAnswer(options.get(i).getAnswer());
+            questionAnswerList.add(questionAnswer);
+        }
+        return questionAnswerList;
+    }
+
+    /**
+     * 升级前的题目没有版本号，当成第1版
+     */
+    private static int versionOf(Question question) {
+        return question.getQuestionVersion() == null ? 1 : question.getQuestionVersion();
+    }
+
+    private static QuestionSnapshot.Key key(String questionId, int version) {
+        QuestionSnapshot.Key key = new QuestionSnapshot.Key();
+        key.setQuestionId(questionId);
+        key.setQuestionVersion(version);
+        return key;
+    }
+}
@@ -0,0 +1,4 @@
+/*
+ * Description : 题目版本快照，考试发布时把题目固定到当时的版本，之后修改题目不影响已发布的考试
+ */
+package com.huawei.l00379880.exam.snapshot;
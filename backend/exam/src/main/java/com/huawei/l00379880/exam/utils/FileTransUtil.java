@@ -1,22 +1,22 @@
 package com.huawei.l00379880.exam.utils;
 
 import cn.hutool.core.io.FileUtil;
+import com.huawei.l00379880.exam.file.FileDownloader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /***********************************************************
  * @note      : 文件传输工具类
@@ -25,6 +25,23 @@ import java.util.stream.Collectors;
  ***********************************************************/
 @Slf4j
 public class FileTransUtil {
+    /**
+     * 这是个静态工具类，上传的监控指标注册到全局的MeterRegistry，Spring Boot会把它接到Prometheus上
+     */
+    private static final Timer UPLOAD_TIMER = Timer.builder("exam.upload.duration")
+            .description("保存单个上传文件的耗时")
+            .register(Metrics.globalRegistry);
+
+    private static final DistributionSummary UPLOAD_SIZE = DistributionSummary.builder("exam.upload.size")
+            .description("单个上传文件的大小")
+            .baseUnit("bytes")
+            .register(Metrics.globalRegistry);
+
+    private static final DistributionSummary UPLOAD_THROUGHPUT = DistributionSummary.builder("exam.upload.throughput")
+            .description("保存单个上传文件的速度")
+            .baseUnit("bytes.per.second")
+            .register(Metrics.globalRegistry);
+
     /**
      * 上传单个文件
      *
@@ -40,7 +57,7 @@ public class FileTransUtil {
         try {
             saveUploadedFiles(Arrays.asList(uploadfile), dir);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("保存上传的文件失败", e);
             return "后台服务异常";
         }
         log.info("file upload successfully! " + dir);
@@ -48,79 +65,79 @@ public class FileTransUtil {
     }
 
     /**
-     * 多文件上传
+     * 保存文件到指定路径
      *
-     * @param uploadfiles 要上传的多个文件
-     * @param dir         要保存的目录
-     * @return 成功或者失败消息
+     * @param files 上传的文件
+     * @throws IOException 文件保存异常
      */
-    public static String uploadFiles(MultipartFile[] uploadfiles, String dir) {
-        log.debug("Multiple file upload!");
-        String uploadedFileName = Arrays.stream(uploadfiles).map(x -> x.getOriginalFilename()).filter(x -> !StringUtils.isEmpty(x)).collect(Collectors.joining(" , "));
-        if (StringUtils.isEmpty(uploadedFileName)) {
-            return "文件名不能为空";
-        }
-        try {
-            FileTransUtil.saveUploadedFiles(Arrays.asList(uploadfiles), dir);
-        } catch (IOException e) {
-            return "后台服务异常";
+    public static void saveUploadedFiles(List<MultipartFile> files, String dir) throws IOException {
+        for (MultipartFile file : files) {
+            saveUploadedFile(file, dir);
         }
-        log.info("file upload successfully! " + uploadedFileName);
-        return "文件上传成功";
     }
 
     /**
-     * 保存文件到指定路径
+     * 保存单个文件。上传的文件已经被容器缓存在临时目录中，这里直接流式地转存到目标路径
+     * (同一个分区时只是重命名)，不会把整个文件读进内存
      *
-     * @param files 上传的文件
+     * @param file 上传的文件
+     * @param dir  要保存的目录
+     * @return 保存的字节数，空文件返回0
      * @throws IOException 文件保存异常
      */
-    public static void saveUploadedFiles(List<MultipartFile> files, String dir) throws IOException {
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) {
-                continue;
-            }
-            if (!FileUtil.exist(dir)) {
-                // 文件夹不存在就创建
-                FileUtil.mkdir(dir);
-            }
-            byte[] bytes = file.getBytes();
-            String fileName = file.getOriginalFilename().replace("\\", "/");
-            if (fileName.lastIndexOf('/')>0){
-                // 上传文件夹的时候会有这种情况
-                String fileDir = dir + "/" + fileName.substring(0, fileName.lastIndexOf('/'));
-                if (!FileUtil.exist(fileDir)) {
-                    // 文件夹不存在就创建,创建文件夹的时候会用到
-                    FileUtil.mkdir(fileDir);
-                }
+    public static long saveUploadedFile(MultipartFile file, String dir) throws IOException {
+        if (file.isEmpty()) {
+            return 0;
+        }
+        if (!FileUtil.exist(dir)) {
+            // 文件夹不存在就创建
+            FileUtil.mkdir(dir);
+        }
+        String fileName = file.getOriginalFilename().replace("\\", "/");
+        if (fileName.lastIndexOf('/') > 0) {
+            // 上传文件夹的时候会有这种情况
+            String fileDir = dir + "/" + fileName.substring(0, fileName.lastIndexOf('/'));
+            if (!FileUtil.exist(fileDir)) {
+                // 文件夹不存在就创建,创建文件夹的时候会用到
+                FileUtil.mkdir(fileDir);
             }
-            Path path = Paths.get(dir + "/" + fileName);
-            Files.write(path, bytes);
+        }
+        // 相对路径会被容器当成临时目录下的路径，所以这里要转成绝对路径
+        Path path = Paths.get(dir + "/" + fileName).toAbsolutePath();
+        long size = file.getSize();
+        long start = System.nanoTime();
+        file.transferTo(path.toFile());
+        long nanos = System.nanoTime() - start;
+        recordUpload(size, nanos);
+        log.debug("保存文件{}，{}字节，耗时{}ms", path, size, nanos / 1000000);
+        return size;
+    }
+
+    /**
+     * 记录一个文件的上传指标
+     *
+     * @param size  文件大小(字节)
+     * @param nanos 保存耗时(纳秒)
+     */
+    public static void recordUpload(long size, long nanos) {
+        UPLOAD_TIMER.record(nanos, TimeUnit.NANOSECONDS);
+        UPLOAD_SIZE.record(size);
+        if (nanos > 0) {
+            UPLOAD_THROUGHPUT.record(size * 1e9 / nanos);
         }
     }
 
     /**
-     * 根据文件路径下载文件
+     * 根据文件路径下载文件，支持断点续传和条件请求
      *
-     * @param filePath 要现在的文件的路径
-     * @return 文件流
+     * @param filePath 要下载的文件的路径
+     * @param request  下载请求
+     * @param response 直接把文件写到响应中
      * @throws IOException 文件流读取异常
      */
-    public static ResponseEntity<InputStreamResource> downloadFile(String filePath) throws IOException {
+    public static void downloadFile(String filePath, HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.info("downloading file : " + filePath);
-        FileSystemResource file = new FileSystemResource(filePath);
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Cache-Control", "no-cache, no-store, must-revalidate");
-        headers.add("Content-Disposition", String.format("attachment; filename=\"%s\"", new String(file.getFilename().getBytes("gbk"), "iso-8859-1")));
-        headers.add("Pragma", "no-cache");
-        headers.add("Expires", "0");
-        System.out.println(file.getFilename());
-        return ResponseEntity
-                .ok()
-                .headers(headers)
-                .contentLength(file.contentLength())
-                .contentType(MediaType.parseMediaType("application/octet-stream"))
-                .body(new InputStreamResource(file.getInputStream()));
+        FileDownloader.send(new File(filePath), request, response);
     }
 
 }
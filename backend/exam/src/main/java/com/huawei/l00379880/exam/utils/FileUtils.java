@@ -15,97 +15,58 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 @Service
 public class FileUtils {
     /**
-     * 根据url拿取file
+     * 根据url拿取file，下载的内容直接流式写到临时文件里，临时文件由调用方用完后删除
      *
      * @param url    文件读取路径
      * @param suffix 文件后缀名
      */
     public static File createFileByUrl(String url, String suffix) {
-        byte[] byteFile = getImageFromNetByUrl(url);
-        if (byteFile != null) {
-            File file = getFileFromBytes(byteFile, suffix);
-            return file;
-        } else {
-            return null;
-        }
-    }
-
-    /**
-     * 根据地址获得数据的字节流
-     *
-     * @param strUrl 网络连接地址
-     * @return 字节流
-     */
-    private static byte[] getImageFromNetByUrl(String strUrl) {
+        HttpURLConnection conn = null;
+        File file = null;
         try {
-            URL url = new URL(strUrl);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn = (HttpURLConnection) new URL(url).openConnection();
             conn.setRequestMethod("GET");
             conn.setConnectTimeout(5 * 1000);
-            // 通过输入流获取图片数据
-            InputStream inStream = conn.getInputStream();
-            // 得到图片的二进制数据
-            byte[] btImg = readInputStream(inStream);
-            return btImg;
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    /**
-     * 从输入流中获取数据
-     *
-     * @param inStream 输入流
-     * @return 从输入流获取数据
-     * @throws Exception
-     */
-    private static byte[] readInputStream(InputStream inStream) throws Exception {
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int len = 0;
-        while ((len = inStream.read(buffer)) != -1) {
-            outStream.write(buffer, 0, len);
-        }
-        inStream.close();
-        return outStream.toByteArray();
-    }
-
-    // 创建临时文件
-    private static File getFileFromBytes(byte[] b, String suffix) {
-        BufferedOutputStream stream = null;
-        File file = null;
-        try {
+            conn.setReadTimeout(10 * 1000);
             file = File.createTempFile("pattern", "." + suffix);
-            System.out.println("临时文件位置：" + file.getCanonicalPath());
-            FileOutputStream fstream = new FileOutputStream(file);
-            stream = new BufferedOutputStream(fstream);
-            stream.write(b);
+            // 调用方忘了删的话至少在进程退出时删掉
+            file.deleteOnExit();
+            try (InputStream inStream = conn.getInputStream()) {
+                Files.copy(inStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return file;
         } catch (Exception e) {
             e.printStackTrace();
+            if (file != null) {
+                file.delete();
+            }
+            return null;
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+            if (conn != null) {
+                conn.disconnect();
             }
         }
-        return file;
     }
 
     public static MultipartFile createImg(String url) {
         try {
             // File转换成MutipartFile
             File file = FileUtils.createFileByUrl(url, "jpg");
-            FileInputStream inputStream = new FileInputStream(file);
-            MultipartFile multipartFile = new MockMultipartFile(file.getName(), inputStream);
-            return multipartFile;
+            if (file == null) {
+                return null;
+            }
+            // MockMultipartFile会把内容读到内存里，读完临时文件就没用了
+            try (FileInputStream inputStream = new FileInputStream(file)) {
+                return new MockMultipartFile(file.getName(), inputStream);
+            } finally {
+                file.delete();
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return null;
@@ -10,8 +10,14 @@ import com.huawei.l00379880.exam.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class JwtUtils {
     /**
@@ -25,6 +31,27 @@ public class JwtUtils {
 
     private static final String APP_SECRET = "liangshanguang";
 
+    /**
+     * 预先算好的HMAC密钥。jjwt传入字符串密钥时会当成Base64先解码，这里用同样的解码方式，已经签发的token仍然有效
+     */
+    private static final Key SIGNING_KEY = new SecretKeySpec(TextCodec.BASE64.decode(APP_SECRET), SignatureAlgorithm.HS256.getJcaName());
+
+    /**
+     * 最多缓存多少个校验通过的token，大致等于同时在线的用户数
+     */
+    private static final int MAX_VERIFIED_TOKENS = 20000;
+
+    /**
+     * 校验通过的token，键是token的签名部分。同一个token在有效期内只需要完整校验一次，
+     * 缓存命中时不分配任何对象
+     */
+    private static final ConcurrentMap<SignatureKey, VerifiedToken> VERIFIED_TOKENS = new ConcurrentHashMap<>();
+
+    /**
+     * 查缓存用的键，每个线程复用一个，查询时不需要截取签名字符串
+     */
+    private static final ThreadLocal<SignatureKey> LOOKUP_KEY = ThreadLocal.withInitial(SignatureKey::new);
+
     public static String genJsonWebToken(User user) {
         if (user == null || user.getUserId() == null || user.getUserUsername() == null || user.getUserAvatar() == null) {
             return null;
@@ -37,23 +64,128 @@ public class JwtUtils {
                 .setIssuedAt(new Date())
                 // 设置过期时间
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRE))
-                .signWith(SignatureAlgorithm.HS256, APP_SECRET)
+                .signWith(SignatureAlgorithm.HS256, SIGNING_KEY)
                 // 生成的结果字符串太长，这里压缩下
                 .compact();
     }
 
     /**
-     * 校验token
+     * 校验token，校验通过的token会被缓存到过期为止，之后再来只需要查一次Map
      *
      * @param token 生成的额token
-     * @return 解析出的信息
+     * @return 解析出的信息，多个请求共享同一个对象，调用方不能修改
      */
     public static Claims checkJWT(String token) {
+        if (token == null) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.') + 1;
+        if (signatureStart <= 0 || signatureStart == token.length()) {
+            return null;
+        }
+        SignatureKey lookupKey = LOOKUP_KEY.get().set(token, signatureStart);
+        VerifiedToken verified = VERIFIED_TOKENS.get(lookupKey);
+        lookupKey.set(null, 0);
+        if (verified != null) {
+            // 签名相同时再比较整个token，防止拿别的token的签名拼接
+            if (verified.token.equals(token) && System.currentTimeMillis() < verified.expireTime) {
+                return verified.claims;
+            }
+            VERIFIED_TOKENS.remove(verified.key, verified);
+        }
+        Claims claims = parseJWT(token);
+        if (claims != null && claims.getExpiration() != null) {
+            SignatureKey key = new SignatureKey().set(token, signatureStart);
+            cache(key, new VerifiedToken(key, token, claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    /**
+     * 完整地校验token，不走缓存
+     *
+     * @param token 生成的额token
+     * @return 解析出的信息
+     */
+    public static Claims parseJWT(String token) {
         try {
-            return Jwts.parser().setSigningKey(APP_SECRET).parseClaimsJws(token).getBody();
+            return Jwts.parser().setSigningKey(SIGNING_KEY).parseClaimsJws(token).getBody();
         } catch (Exception e) {
             // 篡改token会导致校验失败，走到异常分支，这里返回null
             return null;
         }
     }
+
+    private static void cache(SignatureKey key, VerifiedToken verified) {
+        if (VERIFIED_TOKENS.size() >= MAX_VERIFIED_TOKENS) {
+            // 先清掉过期的，还是满的话随便淘汰一部分，被淘汰的token下次来重新完整校验即可
+            long now = System.currentTimeMillis();
+            VERIFIED_TOKENS.values().removeIf(token -> token.expireTime <= now);
+            Iterator<SignatureKey> iterator = VERIFIED_TOKENS.keySet().iterator();
+            while (VERIFIED_TOKENS.size() >= MAX_VERIFIED_TOKENS * 3 / 4 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        VERIFIED_TOKENS.put(key, verified);
+    }
+
+    /**
+     * token中签名部分的视图：token从signatureStart到末尾的字符
+     */
+    private static final class SignatureKey {
+        private String token;
+        private int signatureStart;
+        private int hash;
+
+        SignatureKey set(String token, int signatureStart) {
+            this.token = token;
+            this.signatureStart = signatureStart;
+            int h = 0;
+            if (token != null) {
+                for (int i = signatureStart; i < token.length(); i++) {
+                    h = 31 * h + token.charAt(i);
+                }
+            }
+            this.hash = h;
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SignatureKey)) {
+                return false;
+            }
+            SignatureKey other = (SignatureKey) obj;
+            int length = token.length() - signatureStart;
+            return hash == other.hash
+                    && length == other.token.length() - other.signatureStart
+                    && token.regionMatches(signatureStart, other.token, other.signatureStart, length);
+        }
+    }
+
+    /**
+     * 校验通过的token
+     */
+    private static final class VerifiedToken {
+        private final SignatureKey key;
+        private final String token;
+        private final Claims claims;
+        private final long expireTime;
+
+        VerifiedToken(SignatureKey key, String token, Claims claims, long expireTime) {
+            this.key = key;
+            this.token = token;
+            this.claims = claims;
+            this.expireTime = expireTime;
+        }
+    }
 }
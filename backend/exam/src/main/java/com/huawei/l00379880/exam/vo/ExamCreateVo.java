@@ -62,4 +62,9 @@ public class ExamCreateVo {
      */
     @JsonProperty("judgeScore")
     private Integer examScoreJudge;
+
+    /**
+     * 为true时只保存成草稿，之后再发布；不传的话创建后直接发布
+     */
+    private Boolean draft;
 }
@@ -8,8 +8,10 @@ package com.huawei.l00379880.exam.vo;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class ExamQuestionSelectVo {
     @JsonProperty("id")
     private String questionId;
@@ -23,4 +25,12 @@ public class ExamQuestionSelectVo {
      */
     @JsonProperty("checked")
     private Boolean checked = false;
+
+    /**
+     * 选题列表用构造函数投影直接查出id和题干
+     */
+    public ExamQuestionSelectVo(String questionId, String questionName) {
+        this.questionId = questionId;
+        this.questionName = questionName;
+    }
 }
@@ -10,8 +10,12 @@ import com.huawei.l00379880.exam.entity.Exam;
 import com.huawei.l00379880.exam.entity.ExamRecord;
 import com.huawei.l00379880.exam.entity.User;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
 
 @Data
+@NoArgsConstructor
 public class ExamRecordVo {
     /**
      * 当前考试记录对应的考试
@@ -27,4 +31,32 @@ public class ExamRecordVo {
      * 参加考试的用户信息
      */
     private User user;
+
+    /**
+     * 给ExamRecordRepository中的构造器表达式查询用，一次查询把考试记录和对应的考试一起查出来。
+     * 只能传列不能传实体别名，传实体的话Hibernate只查出id，再对每条记录和每场考试各发一条查询。
+     * 作答详情这种大字段列表页用不到，不查
+     */
+    public ExamRecordVo(String examRecordId, String examId, String examJoinerId, Date examJoinDate, Integer examTimeCost,
+                        Integer examJoinScore, Integer examResultLevel, String joinedExamId, String examName, String examAvatar,
+                        String examDescription, Integer examScore, Integer examTimeLimit) {
+        this.examRecord = new ExamRecord();
+        this.examRecord.setExamRecordId(examRecordId);
+        this.examRecord.setExamId(examId);
+        this.examRecord.setExamJoinerId(examJoinerId);
+        this.examRecord.setExamJoinDate(examJoinDate);
+        this.examRecord.setExamTimeCost(examTimeCost);
+        this.examRecord.setExamJoinScore(examJoinScore);
+        this.examRecord.setExamResultLevel(examResultLevel);
+        // left join，考试被删掉的话没有考试信息
+        if (joinedExamId != null) {
+            this.exam = new Exam();
+            this.exam.setExamId(joinedExamId);
+            this.exam.setExamName(examName);
+            this.exam.setExamAvatar(examAvatar);
+            this.exam.setExamDescription(examDescription);
+            this.exam.setExamScore(examScore);
+            this.exam.setExamTimeLimit(examTimeLimit);
+        }
+    }
 }
@@ -59,6 +59,12 @@ public class ExamVo {
     @JsonProperty("elapse")
     private Integer examTimeLimit;
 
+    /**
+     * 考试状态：0草稿、1已发布、2已结束
+     */
+    @JsonProperty("status")
+    private Integer examStatus;
+
     /**
      * 开始时间
      */
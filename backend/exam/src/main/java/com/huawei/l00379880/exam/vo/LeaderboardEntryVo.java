@@ -0,0 +1,38 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class LeaderboardEntryVo {
+    /**
+     * 名次，从1开始，同分同名次
+     */
+    @JsonProperty("rank")
+    private Integer rank;
+
+    @JsonProperty("userId")
+    private String userId;
+
+    @JsonProperty("username")
+    private String userUsername;
+
+    @JsonProperty("nickname")
+    private String userNickname;
+
+    /**
+     * 考生在这场考试中最好的一次成绩
+     */
+    @JsonProperty("score")
+    private Integer score;
+
+    @JsonProperty("timeCost")
+    private Integer timeCost;
+
+    @JsonProperty("joinDate")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private Date joinDate;
+}
@@ -0,0 +1,22 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LeaderboardVo {
+    @JsonProperty("examId")
+    private String examId;
+    /**
+     * 参加排名的人数，每个考生只算一次
+     */
+    @JsonProperty("total")
+    private Integer total;
+    /**
+     * 前几名，按排名顺序
+     */
+    @JsonProperty("entries")
+    private List<LeaderboardEntryVo> entries;
+}
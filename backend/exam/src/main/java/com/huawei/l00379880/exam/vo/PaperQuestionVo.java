@@ -0,0 +1,39 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.huawei.l00379880.exam.entity.QuestionOption;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PaperQuestionVo {
+    /**
+     * 问题的id
+     */
+    private String id;
+
+    /**
+     * 考试题目
+     */
+    private String name;
+
+    /**
+     * 考试描述
+     */
+    private String description;
+
+    /**
+     * 问题的类型id
+     */
+    private Integer typeId;
+
+    /**
+     * 问题的类型，单选题/多选题/判断题
+     */
+    private String type;
+
+    /**
+     * 问题的选项，按照关联表中的顺序排列
+     */
+    private List<QuestionOption> options;
+}
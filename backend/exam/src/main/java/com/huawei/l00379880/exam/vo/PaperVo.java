@@ -0,0 +1,19 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.huawei.l00379880.exam.entity.Exam;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PaperVo {
+    /**
+     * 考试的基本信息对象
+     */
+    private Exam exam;
+
+    /**
+     * 试卷中的题目，按照单选、多选、判断和出题顺序排列
+     */
+    private List<PaperQuestionVo> questions;
+}
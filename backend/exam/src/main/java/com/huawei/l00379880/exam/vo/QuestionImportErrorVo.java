@@ -0,0 +1,22 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionImportErrorVo {
+    /**
+     * 出错的行号，从1开始，CSV的表头是第1行
+     */
+    @JsonProperty("line")
+    private Integer lineNo;
+    /**
+     * 错误原因
+     */
+    @JsonProperty("message")
+    private String message;
+}
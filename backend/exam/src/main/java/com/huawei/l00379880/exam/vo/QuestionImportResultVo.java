@@ -0,0 +1,36 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class QuestionImportResultVo {
+    /**
+     * 读到的题目数
+     */
+    @JsonProperty("total")
+    private Integer totalCount = 0;
+    /**
+     * 成功导入的题目数
+     */
+    @JsonProperty("success")
+    private Integer successCount = 0;
+    /**
+     * 导入失败的题目数
+     */
+    @JsonProperty("failed")
+    private Integer failedCount = 0;
+    /**
+     * 导入耗时(毫秒)
+     */
+    @JsonProperty("cost")
+    private Long costMillis;
+    /**
+     * 每一行的错误，最多返回前1000条
+     */
+    @JsonProperty("errors")
+    private List<QuestionImportErrorVo> errorVoList = new ArrayList<>();
+}
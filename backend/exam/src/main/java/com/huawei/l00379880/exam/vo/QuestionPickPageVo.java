@@ -0,0 +1,23 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class QuestionPickPageVo {
+    /**
+     * 本页的题目，按更新时间倒序
+     */
+    @JsonProperty("items")
+    private List<ExamQuestionSelectVo> items;
+    /**
+     * 取下一页时原样传回，没有下一页时为null
+     */
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    @JsonProperty("hasMore")
+    private Boolean hasMore;
+}
@@ -0,0 +1,34 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.huawei.l00379880.exam.entity.ExamRecord;
+import lombok.Data;
+
+@Data
+public class SubmissionTicketVo {
+    /**
+     * 提交凭证
+     */
+    @JsonProperty("ticket")
+    private String ticket;
+    /**
+     * 参考SubmissionStatusEnum的code
+     */
+    @JsonProperty("status")
+    private Integer status;
+    /**
+     * 状态的描述
+     */
+    @JsonProperty("message")
+    private String message;
+    /**
+     * 失败的原因，只有失败时才有值
+     */
+    @JsonProperty("reason")
+    private String reason;
+    /**
+     * 判分完成并保存后才有值
+     */
+    @JsonProperty("record")
+    private ExamRecord examRecord;
+}
@@ -0,0 +1,38 @@
+package com.huawei.l00379880.exam.vo;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+public class UploadResultVo {
+    /**
+     * 上传时的文件名，上传文件夹时带有相对路径
+     */
+    @JsonProperty("name")
+    private String fileName;
+    /**
+     * 是否保存成功
+     */
+    @JsonProperty("success")
+    private Boolean success;
+    /**
+     * 失败原因，成功时为空
+     */
+    @JsonProperty("message")
+    private String message;
+    /**
+     * 文件大小(字节)
+     */
+    @JsonProperty("size")
+    private Long size;
+    /**
+     * 文件内容的SHA-256，十六进制小写
+     */
+    @JsonProperty("sha256")
+    private String sha256;
+    /**
+     * 保存耗时(毫秒)
+     */
+    @JsonProperty("cost")
+    private Long costMillis;
+}
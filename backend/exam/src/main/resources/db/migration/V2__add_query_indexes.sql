@@ -0,0 +1,16 @@
+-- ----------------------------
+-- 查询用到的索引，表结构改动都要通过新的V*__*.sql来做，已经执行过的脚本不能再改
+-- ----------------------------
+
+-- 我的考试记录：where exam_joiner_id = ? order by exam_join_date desc
+CREATE INDEX `idx_exam_record_joiner_date` ON `exam_record` (`exam_joiner_id`, `exam_join_date`);
+
+-- 一场考试的所有记录、成绩导出和排行榜：where exam_id = ? order by exam_join_score desc
+CREATE INDEX `idx_exam_record_exam_score` ON `exam_record` (`exam_id`, `exam_join_score`);
+
+-- 按题型选题：where question_type_id = ? order by update_time desc
+CREATE INDEX `idx_question_type_update_time` ON `question` (`question_type_id`, `update_time`);
+
+-- 题目列表和考试列表的分页：order by update_time desc limit ?, ?
+CREATE INDEX `idx_question_update_time` ON `question` (`update_time`);
+CREATE INDEX `idx_exam_update_time` ON `exam` (`update_time`);
@@ -0,0 +1,12 @@
+-- ----------------------------
+-- 考试的生命周期和题目的版本
+-- exam_question.question_version和question_snapshot表由V4创建，Hibernate只校验表结构
+-- ----------------------------
+
+-- 升级前的考试都是可以直接参加的，当成已发布；启动时QuestionVersionMigration会把它们的题目固定到当前版本
+ALTER TABLE `exam` ADD COLUMN `exam_status` int(11) NOT NULL DEFAULT 1 COMMENT '考试状态：0草稿、1已发布、2已结束' AFTER `exam_time_limit`;
+
+ALTER TABLE `question` ADD COLUMN `question_version` int(11) NOT NULL DEFAULT 1 COMMENT '题目内容的版本，每次修改加1' AFTER `question_answer_option_ids`;
+
+-- 考生的考试列表只查已发布的考试
+CREATE INDEX `idx_exam_status` ON `exam` (`exam_status`);
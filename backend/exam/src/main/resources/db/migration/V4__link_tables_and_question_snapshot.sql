@@ -0,0 +1,109 @@
+-- ----------------------------
+-- 关联表、二进制作答详情和题目快照
+-- 这些表和列之前跟随实体由Hibernate的ddl-auto: update创建，现在统一由迁移脚本管理，Hibernate只做校验。
+-- 用ddl-auto: update跑过的库里它们已经存在，所以建表用IF NOT EXISTS，加列和加索引前先查information_schema
+-- ----------------------------
+
+-- 考试和题目的关联，替代exam中用-连接的题目id字符串
+CREATE TABLE IF NOT EXISTS `exam_question`  (
+  `exam_id` varchar(32) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL COMMENT '考试的id',
+  `question_id` varchar(64) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL COMMENT '题目的id',
+  `question_type_id` int(11) NULL DEFAULT NULL COMMENT '题目在考试中所属的题型：1单选、2多选、3判断',
+  `sort_order` int(11) NULL DEFAULT NULL COMMENT '题目在所属题型中的顺序，从0开始',
+  `question_version` int(11) NULL DEFAULT NULL COMMENT '考试发布时固定下来的题目版本，草稿为null',
+  PRIMARY KEY (`exam_id`, `question_id`) USING BTREE,
+  INDEX `idx_exam_question_question_id`(`question_id`) USING BTREE,
+  INDEX `idx_exam_question_exam_type_sort`(`exam_id`, `question_type_id`, `sort_order`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_bin COMMENT = '考试和题目的关联表' ROW_FORMAT = Dynamic;
+
+-- 题目的选项和答案，替代question中用-连接的选项id和答案id字符串
+CREATE TABLE IF NOT EXISTS `question_answer`  (
+  `question_id` varchar(64) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL COMMENT '题目的id',
+  `question_option_id` varchar(64) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL COMMENT '选项的id',
+  `sort_order` int(11) NULL DEFAULT NULL COMMENT '选项在题目中的顺序，从0开始',
+  `answer` bit(1) NULL DEFAULT NULL COMMENT '当前选项是不是题目的答案',
+  PRIMARY KEY (`question_id`, `question_option_id`) USING BTREE,
+  INDEX `idx_question_answer_question_sort`(`question_id`, `sort_order`) USING BTREE,
+  INDEX `idx_question_answer_option_id`(`question_option_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_bin COMMENT = '题目的选项和答案' ROW_FORMAT = Dynamic;
+
+-- 角色能访问的页面，替代role中用-连接的页面id字符串
+CREATE TABLE IF NOT EXISTS `role_page`  (
+  `role_id` int(11) NOT NULL COMMENT '角色的id',
+  `page_id` int(11) NOT NULL COMMENT '页面的id',
+  `sort_order` int(11) NULL DEFAULT NULL COMMENT '页面在角色权限列表中的顺序，从0开始',
+  PRIMARY KEY (`role_id`, `page_id`) USING BTREE,
+  INDEX `idx_role_page_role_sort`(`role_id`, `sort_order`) USING BTREE,
+  INDEX `idx_role_page_page_id`(`page_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_bin COMMENT = '角色和页面的关联表' ROW_FORMAT = Dynamic;
+
+-- 考试发布时题目内容的快照，写入后不再修改
+CREATE TABLE IF NOT EXISTS `question_snapshot`  (
+  `question_id` varchar(64) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL COMMENT '题目的id',
+  `question_version` int(11) NOT NULL COMMENT '题目的版本',
+  `question_name` varchar(64) CHARACTER SET utf8 COLLATE utf8_bin NULL DEFAULT NULL COMMENT '题目的名字',
+  `question_description` varchar(256) CHARACTER SET utf8 COLLATE utf8_bin NULL DEFAULT NULL COMMENT '题目额外的描述',
+  `question_type_id` int(11) NULL DEFAULT NULL COMMENT '题目的类型',
+  `option_data` longtext CHARACTER SET utf8 COLLATE utf8_bin NULL COMMENT '按顺序排列的选项和是否是答案，JSON数组',
+  `create_time` datetime(0) NULL DEFAULT NULL COMMENT '快照的创建时间',
+  PRIMARY KEY (`question_id`, `question_version`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_bin COMMENT = '题目内容的快照' ROW_FORMAT = Dynamic;
+
+-- 老库中exam_question可能是在题目版本之前由Hibernate建的
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'exam_question' AND COLUMN_NAME = 'question_version') = 0,
+  'ALTER TABLE `exam_question` ADD COLUMN `question_version` int(11) NULL DEFAULT NULL COMMENT ''考试发布时固定下来的题目版本，草稿为null''',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 二进制格式的作答详情，格式见AnswerRecordCodec，老记录为null
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'exam_record' AND COLUMN_NAME = 'answer_data') = 0,
+  'ALTER TABLE `exam_record` ADD COLUMN `answer_data` longblob NULL COMMENT ''二进制格式的作答详情'' AFTER `answer_option_ids`',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Hibernate建表时没有建过的索引补上，索引名和实体上@Index的一致
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'exam_question' AND INDEX_NAME = 'idx_exam_question_question_id') = 0,
+  'CREATE INDEX `idx_exam_question_question_id` ON `exam_question` (`question_id`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'exam_question' AND INDEX_NAME = 'idx_exam_question_exam_type_sort') = 0,
+  'CREATE INDEX `idx_exam_question_exam_type_sort` ON `exam_question` (`exam_id`, `question_type_id`, `sort_order`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'question_answer' AND INDEX_NAME = 'idx_question_answer_question_sort') = 0,
+  'CREATE INDEX `idx_question_answer_question_sort` ON `question_answer` (`question_id`, `sort_order`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'question_answer' AND INDEX_NAME = 'idx_question_answer_option_id') = 0,
+  'CREATE INDEX `idx_question_answer_option_id` ON `question_answer` (`question_option_id`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'role_page' AND INDEX_NAME = 'idx_role_page_role_sort') = 0,
+  'CREATE INDEX `idx_role_page_role_sort` ON `role_page` (`role_id`, `sort_order`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'role_page' AND INDEX_NAME = 'idx_role_page_page_id') = 0,
+  'CREATE INDEX `idx_role_page_page_id` ON `role_page` (`page_id`)',
+  'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
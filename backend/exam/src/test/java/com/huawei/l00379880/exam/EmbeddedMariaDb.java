@@ -0,0 +1,55 @@
+package com.huawei.l00379880.exam;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * 用MariaDB4j在随机端口上启动一个和MySQL兼容的数据库，建一个空库，用完调用stop。
+ * 连接参数和application.yml中的一致，root用户没有密码
+ *
+ * @author liangshanguang
+ */
+public final class EmbeddedMariaDb {
+
+    private final DB db;
+
+    private final String jdbcUrl;
+
+    private EmbeddedMariaDb(DB db, String jdbcUrl) {
+        this.db = db;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    /**
+     * @param dbName 库名
+     * @return 已经启动的数据库
+     * @throws ManagedProcessException 数据库进程启动失败
+     */
+    public static EmbeddedMariaDb start(String dbName) throws ManagedProcessException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(dbName);
+        String jdbcUrl = "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/" + dbName
+                + "?characterEncoding=utf-8&useSSL=false&serverTimezone=Asia/Shanghai&rewriteBatchedStatements=true";
+        return new EmbeddedMariaDb(db, jdbcUrl);
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getUsername() {
+        return "root";
+    }
+
+    public String getPassword() {
+        return "";
+    }
+
+    public void stop() throws ManagedProcessException {
+        db.stop();
+    }
+}
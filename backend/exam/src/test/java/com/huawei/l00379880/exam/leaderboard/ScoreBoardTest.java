@@ -0,0 +1,103 @@
+package com.huawei.l00379880.exam.leaderboard;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ScoreBoard不依赖数据库，直接放入成绩检查名次和顺序
+ *
+ * @author liangshanguang
+ */
+public class ScoreBoardTest {
+
+    private static final long NOW = 1760000000000L;
+
+    private static LeaderboardEntry entry(String userId, int score, int timeCost) {
+        return new LeaderboardEntry(userId, score, timeCost, new Date(NOW));
+    }
+
+    private static List<String> topUserIds(ScoreBoard board, int k) {
+        return board.top(k).stream().map(LeaderboardEntry::getUserId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void tiedScoresShareRank() {
+        ScoreBoard board = new ScoreBoard();
+        board.offer(entry("a", 90, 100));
+        board.offer(entry("b", 80, 100));
+        board.offer(entry("c", 80, 50));
+        board.offer(entry("d", 70, 100));
+        assertEquals(1, board.rankOf("a"));
+        // 同分同名次，下一个分数的名次跳过并列的人数
+        assertEquals(2, board.rankOf("b"));
+        assertEquals(2, board.rankOf("c"));
+        assertEquals(4, board.rankOf("d"));
+        assertEquals(0, board.rankOf("nobody"));
+        assertNull(board.get("nobody"));
+    }
+
+    @Test
+    public void tiedScoresOrderedByTimeCost() {
+        ScoreBoard board = new ScoreBoard();
+        board.offer(entry("slow", 80, 300));
+        board.offer(entry("fast", 80, 100));
+        board.offer(entry("top", 100, 900));
+        assertEquals(Arrays.asList("top", "fast", "slow"), topUserIds(board, 10));
+        assertEquals(Arrays.asList("top", "fast"), topUserIds(board, 2));
+    }
+
+    @Test
+    public void betterScoreReplacesOld() {
+        ScoreBoard board = new ScoreBoard();
+        board.offer(entry("a", 60, 100));
+        board.offer(entry("b", 80, 100));
+        assertEquals(2, board.rankOf("a"));
+        assertTrue(board.offer(entry("a", 95, 200)));
+        assertEquals(1, board.rankOf("a"));
+        assertEquals(2, board.rankOf("b"));
+        assertEquals(95, board.get("a").getScore());
+        // 每个考生只保留一条成绩
+        assertEquals(2, board.size());
+        assertEquals(Arrays.asList("a", "b"), topUserIds(board, 10));
+    }
+
+    @Test
+    public void worseOrSameScoreIgnored() {
+        ScoreBoard board = new ScoreBoard();
+        assertTrue(board.offer(entry("a", 80, 100)));
+        assertFalse(board.offer(entry("a", 70, 50)));
+        assertFalse(board.offer(entry("a", 80, 100)));
+        assertFalse(board.offer(entry("a", 80, 150)));
+        assertEquals(80, board.get("a").getScore());
+        assertEquals(100, board.get("a").getTimeCost());
+        assertEquals(1, board.size());
+        // 同分用时更短也算更好
+        assertTrue(board.offer(entry("a", 80, 60)));
+        assertEquals(60, board.get("a").getTimeCost());
+        assertEquals(1, board.top(10).size());
+    }
+
+    @Test
+    public void scoresBeyondInitialCapacity() {
+        ScoreBoard board = new ScoreBoard();
+        board.offer(entry("a", 100, 100));
+        board.offer(entry("b", 500, 100));
+        board.offer(entry("c", 100, 50));
+        assertEquals(1, board.rankOf("b"));
+        assertEquals(2, board.rankOf("a"));
+        assertEquals(2, board.rankOf("c"));
+        assertTrue(board.offer(entry("a", 1000, 100)));
+        assertEquals(1, board.rankOf("a"));
+        assertEquals(2, board.rankOf("b"));
+        assertEquals(3, board.rankOf("c"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.huawei.l00379880.exam.migration;
+
+import com.huawei.l00379880.exam.EmbeddedMariaDb;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 在空库上启动整个应用：Flyway从V1开始执行所有迁移脚本，Hibernate用ddl-auto: validate校验实体和表结构，
+ * 有实体字段在脚本里漏建了的话应用上下文就起不来，这个测试直接失败。
+ * 启动完成后再检查关联表的数据迁移和已发布考试的题目版本固定是否都执行了
+ *
+ * @author liangshanguang
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class SchemaMigrationIT {
+
+    private static EmbeddedMariaDb db;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeClass
+    public static void startDb() throws Exception {
+        db = EmbeddedMariaDb.start("exam");
+        // 应用上下文在BeforeClass之后才创建，这里设置的数据源会覆盖application.yml中的配置
+        System.setProperty("spring.datasource.url", db.getJdbcUrl());
+        System.setProperty("spring.datasource.username", db.getUsername());
+        System.setProperty("spring.datasource.password", db.getPassword());
+    }
+
+    @AfterClass
+    public static void stopDb() throws Exception {
+        System.clearProperty("spring.datasource.url");
+        System.clearProperty("spring.datasource.username");
+        System.clearProperty("spring.datasource.password");
+        db.stop();
+    }
+
+    @Test
+    public void allMigrationsApplied() {
+        Integer failed = jdbcTemplate.queryForObject("select count(*) from flyway_schema_history where success = 0", Integer.class);
+        assertEquals(Integer.valueOf(0), failed);
+        Integer applied = jdbcTemplate.queryForObject("select count(*) from flyway_schema_history where version = '4'", Integer.class);
+        assertEquals(Integer.valueOf(1), applied);
+    }
+
+    @Test
+    public void linkTablesMigratedFromIdStrings() {
+        // V1中管理员角色的页面是1-2-3-4-5-6
+        Integer adminPages = jdbcTemplate.queryForObject("select count(*) from role_page where role_id = 1", Integer.class);
+        assertEquals(Integer.valueOf(6), adminPages);
+        Integer examQuestions = jdbcTemplate.queryForObject("select count(*) from exam_question", Integer.class);
+        assertTrue(examQuestions > 0);
+        Integer questionAnswers = jdbcTemplate.queryForObject("select count(*) from question_answer", Integer.class);
+        assertTrue(questionAnswers > 0);
+    }
+
+    @Test
+    public void publishedExamsPinnedToSnapshots() {
+        Integer unpinned = jdbcTemplate.queryForObject("select count(*) from exam_question eq join exam e on e.exam_id = eq.exam_id " +
+                "where e.exam_status <> 0 and eq.question_version is null", Integer.class);
+        assertEquals(Integer.valueOf(0), unpinned);
+        Integer missingSnapshots = jdbcTemplate.queryForObject("select count(*) from exam_question eq left join question_snapshot s " +
+                "on s.question_id = eq.question_id and s.question_version = eq.question_version " +
+                "where eq.question_version is not null and s.question_id is null", Integer.class);
+        assertEquals(Integer.valueOf(0), missingSnapshots);
+    }
+}
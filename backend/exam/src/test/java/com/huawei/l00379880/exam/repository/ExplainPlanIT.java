@@ -0,0 +1,210 @@
+package com.huawei.l00379880.exam.repository;
+
+import cn.hutool.core.util.IdUtil;
+import com.huawei.l00379880.exam.EmbeddedMariaDb;
+import org.flywaydb.core.Flyway;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * 用MariaDB4j启动嵌入式数据库，先导入doc/sql/exam.sql，再像线上一样用Flyway执行db/migration下V1之后的迁移脚本，
+ * 插入足够多的数据并ANALYZE之后，对仓库里的几条热点查询逐条EXPLAIN，每条查询一个用例，
+ * 没有走预期的索引或者出现filesort就失败。新增或者修改仓库里的查询时，把对应的SQL加到CHECKS里。
+ * 数据量可以通过-D传入：
+ * <pre>
+ * records    考试记录数，默认20000
+ * questions  题目数，默认5000
+ * exams      考试数，默认1000
+ * </pre>
+ *
+ * @author liangshanguang
+ */
+@RunWith(Parameterized.class)
+public class ExplainPlanIT {
+
+    /**
+     * 在backend/exam目录下运行测试
+     */
+    private static final String INIT_SQL = "../../doc/sql/exam.sql";
+
+    private static final String JOINER_ID = "explain_joiner_0";
+
+    private static final String EXAM_ID = "explain_exam_0";
+
+    /**
+     * 和仓库接口生成的SQL形状一致，参数用seed时插入的数据
+     */
+    private static final List<Check> CHECKS = Arrays.asList(
+            // ExamRecordRepository.findExamRecordVoByExamJoinerId：我的考试记录，按参加时间倒序分页
+            new Check("我的考试记录", "select r.exam_record_id, r.exam_join_date, r.exam_join_score, e.exam_name, e.exam_avatar from exam_record r left outer join exam e on e.exam_id = r.exam_id " +
+                    "where r.exam_joiner_id = '" + JOINER_ID + "' order by r.exam_join_date desc limit 0, 10",
+                    "r", "idx_exam_record_joiner_date"),
+            // ExamRecordRepository.streamExportByExamId：导出一场考试的成绩，按分数倒序
+            new Check("导出考试成绩", "select r.*, u.user_username from exam_record r left outer join user u on u.user_id = r.exam_joiner_id " +
+                    "where r.exam_id = '" + EXAM_ID + "' order by r.exam_join_score desc",
+                    "r", "idx_exam_record_exam_score"),
+            // ExamRecordRepository.findLeaderboardEntryByExamId：重建一场考试的排行榜
+            new Check("重建排行榜", "select r.exam_joiner_id, r.exam_join_score, r.exam_time_cost, r.exam_join_date from exam_record r " +
+                    "where r.exam_id = '" + EXAM_ID + "'",
+                    "r", "idx_exam_record_exam_score"),
+            // QuestionRepository.findSelectVoByQuestionTypeId：按题型列出全部题目
+            new Check("按题型选题", "select q.question_id, q.question_name from question q where q.question_type_id = 1 " +
+                    "order by q.update_time desc, q.question_id desc",
+                    "q", "idx_question_type_update_time"),
+            // QuestionRepository.pickByQuestionTypeId：按题型键集分页选题，二级索引隐含主键，(update_time, question_id)倒序不需要filesort
+            new Check("按题型分页选题", "select q.question_id, q.question_name, q.update_time from question q where q.question_type_id = 1 " +
+                    "and q.question_level_id = 0 and q.question_name like '%题目1%' escape '!' " +
+                    "and (q.update_time < now() or (q.update_time = now() and q.question_id < 'f')) " +
+                    "order by q.update_time desc, q.question_id desc limit 21",
+                    "q", "idx_question_type_update_time"),
+            // QuestionServiceImpl.getQuestionList：题目列表分页
+            new Check("题目列表分页", "select * from question q order by q.update_time desc limit 0, 20",
+                    "q", "idx_question_update_time"),
+            // ExamServiceImpl.getExamList：考试列表分页
+            new Check("考试列表分页", "select * from exam e order by e.update_time desc limit 0, 20",
+                    "e", "idx_exam_update_time"));
+
+    private static EmbeddedMariaDb db;
+
+    private static Connection connection;
+
+    private final Check check;
+
+    public ExplainPlanIT(String name, Check check) {
+        this.check = check;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> checks() {
+        return CHECKS.stream().map(check -> new Object[]{check.name, check}).collect(Collectors.toList());
+    }
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        db = EmbeddedMariaDb.start("exam");
+        connection = DriverManager.getConnection(db.getJdbcUrl(), db.getUsername(), db.getPassword());
+        // 1.模拟已经手动导入过exam.sql的老库，Flyway把它当成V1，只执行后面的迁移脚本
+        ScriptUtils.executeSqlScript(connection, new EncodedResource(new FileSystemResource(INIT_SQL), "UTF-8"));
+        Flyway.configure().dataSource(db.getJdbcUrl(), db.getUsername(), db.getPassword()).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        // 2.数据太少时优化器会直接全表扫描，先插够数据再更新统计信息
+        seed(connection, Integer.getInteger("records", 20000), Integer.getInteger("questions", 5000), Integer.getInteger("exams", 1000));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("analyze table exam_record, question, exam");
+        }
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    /**
+     * 执行计划中check.table这张表走的是check.expectedKey，并且不需要filesort
+     */
+    @Test
+    public void usesExpectedIndex() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("explain " + check.sql)) {
+            while (rs.next()) {
+                if (!check.table.equals(rs.getString("table"))) {
+                    continue;
+                }
+                String key = rs.getString("key");
+                String extra = rs.getString("Extra");
+                String plan = "type=" + rs.getString("type") + " key=" + key + " rows=" + rs.getString("rows") + " extra=" + extra;
+                assertEquals(plan, check.expectedKey, key);
+                assertFalse(plan, extra != null && extra.contains("filesort"));
+                return;
+            }
+        }
+        fail("执行计划中没有表" + check.table);
+    }
+
+    /**
+     * 考试记录分散到exams场考试和records/20个考生上，题目平均分到3种题型
+     */
+    private static void seed(Connection connection, int records, int questions, int exams) throws SQLException {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement("insert into exam (exam_id, exam_name, exam_creator_id, update_time) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < exams; i++) {
+                ps.setString(1, "explain_exam_" + i);
+                ps.setString(2, "考试" + i);
+                ps.setString(3, "explain_creator");
+                ps.setTimestamp(4, new Timestamp(now - random.nextInt(365 * 24 * 3600) * 1000L));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement("insert into question (question_id, question_name, question_creator_id, question_type_id, " +
+                "question_option_ids, question_answer_option_ids, update_time) values (?, ?, ?, ?, '', '', ?)")) {
+            for (int i = 0; i < questions; i++) {
+                ps.setString(1, IdUtil.simpleUUID());
+                ps.setString(2, "题目" + i);
+                ps.setString(3, "explain_creator");
+                ps.setInt(4, 1 + i % 3);
+                ps.setTimestamp(5, new Timestamp(now - random.nextInt(365 * 24 * 3600) * 1000L));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        int joiners = Math.max(1, records / 20);
+        try (PreparedStatement ps = connection.prepareStatement("insert into exam_record (exam_record_id, exam_joiner_id, exam_join_date, exam_join_score, " +
+                "answer_option_ids, exam_id) values (?, ?, ?, ?, '', ?)")) {
+            for (int i = 0; i < records; i++) {
+                ps.setString(1, IdUtil.simpleUUID());
+                ps.setString(2, "explain_joiner_" + random.nextInt(joiners));
+                ps.setTimestamp(3, new Timestamp(now - random.nextInt(365 * 24 * 3600) * 1000L));
+                ps.setInt(4, random.nextInt(101));
+                ps.setString(5, "explain_exam_" + random.nextInt(exams));
+                ps.addBatch();
+                if (i % 1000 == 999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * 一条要检查的查询
+     */
+    static final class Check {
+        private final String name;
+        private final String sql;
+        private final String table;
+        private final String expectedKey;
+
+        Check(String name, String sql, String table, String expectedKey) {
+            this.name = name;
+            this.sql = sql;
+            this.table = table;
+            this.expectedKey = expectedKey;
+        }
+    }
+}
@@ -58,6 +58,15 @@ export function getExamQuestionTypeList () {
   })
 }
 
+// 按题型分页选题，parameter包括typeId、cursor、pageSize以及可选的categoryId、levelId、keyword
+export function pickExamQuestions (parameter) {
+  return axios({
+    url: api.ExamQuestionPick,
+    method: 'get',
+    params: parameter
+  })
+}
+
 export function getExamCardList () {
   return axios({
     url: api.ExamCardList,
@@ -87,6 +96,17 @@ export function getExamDetail (examId) {
   })
 }
 
+// 获取整张试卷，考试期间切换题目不用再请求后端
+export function getExamPaper (examId) {
+  return axios({
+    url: api.ExamPaper + examId,
+    method: 'get',
+    headers: {
+      'Content-Type': 'application/json;charset=UTF-8'
+    }
+  })
+}
+
 export function getExamRecordDetail (recordId) {
   return axios({
     url: api.recordDetail + recordId,
@@ -107,6 +127,17 @@ export function getQuestionDetail (questionId) {
   })
 }
 
+// 获取考试中的题目详情，已发布的考试返回发布时固定下来的题目内容
+export function getExamQuestionDetail (examId, questionId) {
+  return axios({
+    url: api.QuestionDetail + examId + '/' + questionId,
+    method: 'get',
+    headers: {
+      'Content-Type': 'application/json;charset=UTF-8'
+    }
+  })
+}
+
 export function finishExam (examId, answersMap) {
   console.log(answersMap)
   return axios({
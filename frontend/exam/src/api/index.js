@@ -21,10 +21,14 @@ const api = {
   ExamList: '/exam/list',
   // 获取问题列表，按照单选、多选和判断进行分类
   ExamQuestionTypeList: '/exam/question/type/list',
+  // 按题型分页选题
+  ExamQuestionPick: '/exam/question/pick',
   ExamCreate: '/exam/create',
   ExamCardList: '/exam/card/list',
   // 获取考试详情
   ExamDetail: '/exam/detail/',
+  // 获取整张试卷，包括考试信息和所有题目的选项
+  ExamPaper: '/exam/paper/',
   // 获取考试详情
   QuestionDetail: '/exam/question/detail/',
   // 交卷